@@ -0,0 +1,54 @@
+package com.tools.dataGenerator.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Helper methods shared by the benchmarks to manage their working directories.
+ * The directories are created under the path given by the system property benchmark.dir (Ex:
+ * -Dbenchmark.dir=/mnt/nvme0), or under the default temporary directory, so that the filesystem under test can
+ * be chosen without rebuilding the benchmarks.
+ */
+final class BenchmarkFiles {
+
+    private BenchmarkFiles() {}
+
+    /**
+     * @return a new empty directory on the filesystem under test
+     */
+    static Path createDirectory(String prefix) throws IOException {
+        String root = System.getProperty("benchmark.dir");
+        return root == null ? Files.createTempDirectory(prefix) : Files.createTempDirectory(Paths.get(root), prefix);
+    }
+
+    /**
+     * Method used to check that the filesystem under test can hold the data written by a benchmark
+     */
+    static void checkUsableSpace(Path directory, long bytes) throws IOException {
+        long usable = Files.getFileStore(directory).getUsableSpace();
+        if (usable < bytes) {
+            throw new IllegalStateException("The benchmark needs " + bytes + " bytes but only " + usable
+                    + " are available in " + directory + ": use smaller parameters or -Dbenchmark.dir");
+        }
+    }
+
+    /**
+     * Method used to delete the content of a directory, and the directory itself when deleteRoot is true
+     */
+    static void delete(Path directory, boolean deleteRoot) throws IOException {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                if (deleteRoot || !path.equals(directory)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.tools.dataGenerator.benchmarks;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.engine.ContentMode;
+import com.tools.dataGenerator.engine.GenerationJob;
+import com.tools.dataGenerator.engine.GenerationResult;
+import com.tools.dataGenerator.engine.Generator;
+import com.tools.dataGenerator.engine.StandardMaterializer;
+import com.tools.dataGenerator.engine.SyncPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the strategies used to materialize the Data Items on disk (see StandardMaterializer).
+ * <p>
+ * Each invocation writes itemCount Data Items of itemSizeMb MB through the Generator with the given number of
+ * threads. The sparse and zero fill strategies write sparse Data Items, the other ones pseudo-random content. The
+ * files are deleted after each iteration.
+ * <p>
+ * Ex: java -Dbenchmark.dir=/mnt/nvme0 -jar target/benchmarks.jar Materialization -p itemSizeMb=1500 -p itemCount=4
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MaterializationBenchmark {
+
+    @Param({"0.2", "4", "100", "1500"})
+    public double itemSizeMb;
+
+    @Param({"1", "16"})
+    public int itemCount;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param
+    public StandardMaterializer strategy;
+
+    @Param({"NONE"})
+    public SyncPolicy syncPolicy;
+
+    private Path mDirectory;
+    private List<DataItem> mItems;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mDirectory = BenchmarkFiles.createDirectory("materialization");
+        mItems = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            mItems.add(new DataItem(String.format("item-%05d", i), itemSizeMb));
+        }
+        if (strategy != StandardMaterializer.SPARSE) {
+            BenchmarkFiles.checkUsableSpace(mDirectory, itemCount * mItems.get(0).getSizeInBytes());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteFiles() throws IOException {
+        BenchmarkFiles.delete(mDirectory, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(mDirectory, true);
+    }
+
+    @Benchmark
+    public long materialize() throws IOException, InterruptedException {
+        GenerationJob job = new GenerationJob(mDirectory, mItems);
+        job.setWorkers(threads);
+        job.setContentMode(strategy.isZeroFilled() ? ContentMode.SPARSE : ContentMode.RANDOM);
+        job.setMaterializer(strategy);
+        job.setSyncPolicy(syncPolicy);
+        GenerationResult result = new Generator().run(job);
+        if (!result.isSuccessful()) {
+            throw new IllegalStateException("Generation failed: " + result.getFailures());
+        }
+        return result.getBytes();
+    }
+}
@@ -0,0 +1,133 @@
+package com.tools.dataGenerator.benchmarks;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.engine.ContentMode;
+import com.tools.dataGenerator.engine.GenerationJob;
+import com.tools.dataGenerator.engine.Generator;
+import com.tools.dataGenerator.packaging.TarGzPackager;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.utils.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark of the tar.gz packaging stage.
+ * <p>
+ * The Data Items are generated once per trial, then packaged at each invocation either by the TarGzPackager
+ * (parallel gzip with the given number of threads) or by the single threaded GZIPOutputStream used by the first
+ * version of createTarFile, as baseline. The PROFILED content gives the compressor the ratio of real products,
+ * between the incompressible RANDOM content and the all-zero SPARSE content.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PackagingBenchmark {
+
+    @Param({"4", "100"})
+    public double itemSizeMb;
+
+    @Param({"16"})
+    public int itemCount;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    @Param({"SPARSE", "RANDOM", "PROFILED"})
+    public ContentMode content;
+
+    /**
+     * Profile of the PROFILED content (see ContentProfile), so that the compressor sees realistic data
+     */
+    @Param({"ratio=3,dup=0.2"})
+    public String profile;
+
+    private Path mSourceDirectory;
+    private Path mArchiveDirectory;
+    private Path mArchive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        mSourceDirectory = BenchmarkFiles.createDirectory("packaging-source");
+        mArchiveDirectory = BenchmarkFiles.createDirectory("packaging-archive");
+        mArchive = mArchiveDirectory.resolve("testDataSet.tar.gz");
+
+        List<DataItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(new DataItem(String.format("item-%05d", i), itemSizeMb));
+        }
+        BenchmarkFiles.checkUsableSpace(mSourceDirectory, 2 * itemCount * items.get(0).getSizeInBytes());
+
+        GenerationJob job = new GenerationJob(mSourceDirectory, items);
+        job.setContentMode(content);
+        job.setContentProfile(ContentProfile.parse(profile));
+        if (!new Generator().run(job).isSuccessful()) {
+            throw new IllegalStateException("Cannot generate the Data Items to package");
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteArchive() throws IOException {
+        Files.deleteIfExists(mArchive);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFiles.delete(mSourceDirectory, true);
+        BenchmarkFiles.delete(mArchiveDirectory, true);
+    }
+
+    @Benchmark
+    public long parallelTarGz() throws IOException {
+        TarGzPackager packager = new TarGzPackager();
+        packager.setThreads(threads);
+        packager.createArchive(mSourceDirectory, mArchive);
+        return Files.size(mArchive);
+    }
+
+    @Benchmark
+    public long singleThreadedTarGz() throws IOException {
+        try (TarArchiveOutputStream tarOs = new TarArchiveOutputStream(new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(mArchive))))) {
+            tarOs.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            File[] files = mSourceDirectory.toFile().listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    tarOs.putArchiveEntry(new TarArchiveEntry(file, file.getName()));
+                    try (InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+                        IOUtils.copy(in, tarOs);
+                    }
+                    tarOs.closeArchiveEntry();
+                }
+            }
+        }
+        return Files.size(mArchive);
+    }
+}
@@ -0,0 +1,516 @@
+package com.tools.dataGenerator.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * This class holds the Data Items read from a configuration file in a compact form, for catalogs of several million
+ * entries: the names are sorted and prefix-compressed in a single byte array, and the sizes are kept in a long
+ * array. No object is kept per Data Item, so that the catalog costs a few tens of bytes per entry instead of a few
+ * hundred for a map of DataItem objects, and is invisible to the garbage collector.
+ * <p>
+ * The names are split into blocks of BLOCK_SIZE names. The first name of a block is stored in full, the others as
+ * the length of the prefix they share with the previous name followed by the rest of their bytes. A name is found by
+ * a binary search on the first names of the blocks followed by a scan of one block.
+ * <p>
+ * The arrays are held as buffers, so that a catalog can also be mapped from its binary cache without being copied
+ * in memory (see CatalogCache).
+ * <p>
+ * The Data Items are ordered by the UTF-8 bytes of their names, which is the alphabetical order for ASCII names.
+ * The DataItem objects are created on demand. The Data Items with a time series, a content profile, a size
+ * distribution or a multiplicity are the only ones kept as objects: they are few, since such an entry usually stands
+ * for many Data Items.
+ */
+public final class Catalog implements Iterable<DataItem> {
+
+    /**
+     * Number of names per block: a name is decoded from the first name of its block
+     */
+    private static final int BLOCK_SIZE = 16;
+
+    public static final Catalog EMPTY = new Builder().build();
+
+    private final int mSize;
+    private final ByteBuffer mNames;
+    private final IntBuffer mBlockOffsets;
+    private final LongBuffer mSizes;
+    /**
+     * Data Items kept as objects (time series, content profile, ...), by index
+     */
+    private final Map<Integer, DataItem> mTemplates;
+    private final int mMaxNameBytes;
+    private final int mLongestName;
+
+    Catalog(int size, ByteBuffer names, IntBuffer blockOffsets, LongBuffer sizes, Map<Integer, DataItem> templates,
+            int maxNameBytes, int longestName) {
+        mSize = size;
+        mNames = names;
+        mBlockOffsets = blockOffsets;
+        mSizes = sizes;
+        mTemplates = templates;
+        mMaxNameBytes = maxNameBytes;
+        mLongestName = longestName;
+    }
+
+    /**
+     * @return the number of Data Items of the catalog
+     */
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @param index index of the Data Item, from 0 to size - 1
+     * @return the name of the Data Item
+     */
+    public String getName(int index) {
+        checkIndex(index);
+        Cursor cursor = new Cursor(index / BLOCK_SIZE);
+        for (int i = index - index % BLOCK_SIZE; i <= index; i++) {
+            cursor.next();
+        }
+        return cursor.getName();
+    }
+
+    /**
+     * @param index index of the Data Item, from 0 to size - 1
+     * @return the size of the Data Item in bytes (see DataItem.getSizeInBytes)
+     */
+    public long getSizeInBytes(int index) {
+        checkIndex(index);
+        return mSizes.get(index);
+    }
+
+    /**
+     * @return the index of the Data Item with the longest name, -1 if the catalog is empty. Useful to size the
+     * components displaying the names without measuring all of them
+     */
+    public int getLongestName() {
+        return mLongestName;
+    }
+
+    /**
+     * @param index index of the Data Item, from 0 to size - 1
+     * @return the Data Item, created on each call except for the Data Items with a time series or a content profile
+     */
+    public DataItem get(int index) {
+        checkIndex(index);
+        DataItem template = mTemplates.get(index);
+        return template != null ? template : new DataItem(getName(index), DataItem.dimension(mSizes.get(index)));
+    }
+
+    /**
+     * @param name name of a Data Item
+     * @return the Data Item, or null if the catalog does not contain it
+     */
+    public DataItem get(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : get(index);
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * @param name name of a Data Item
+     * @return the index of the Data Item, or -1 if the catalog does not contain it
+     */
+    public int indexOf(String name) {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        if (mSize == 0 || key.length > mMaxNameBytes) {
+            return -1;
+        }
+        // Last block whose first name is not greater than the key
+        int low = 0;
+        int high = mBlockOffsets.limit() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (compareBlockHead(middle, key) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        Cursor cursor = new Cursor(low);
+        int end = Math.min(mSize, (low + 1) * BLOCK_SIZE);
+        for (int index = low * BLOCK_SIZE; index < end; index++) {
+            cursor.next();
+            int comparison = compare(cursor.mName, 0, cursor.mLength, key, 0, key.length);
+            if (comparison == 0) {
+                return index;
+            }
+            if (comparison > 0) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the Data Items in the order of their names. The names are decoded one after the other
+     */
+    @Override
+    public Iterator<DataItem> iterator() {
+        return new Iterator<DataItem>() {
+            private final Cursor mCursor = new Cursor(0);
+            private int mIndex;
+
+            @Override
+            public boolean hasNext() {
+                return mIndex < mSize;
+            }
+
+            @Override
+            public DataItem next() {
+                if (mIndex >= mSize) {
+                    throw new NoSuchElementException();
+                }
+                mCursor.next();
+                int index = mIndex++;
+                DataItem template = mTemplates.get(index);
+                return template != null ? template : new DataItem(mCursor.getName(),
+                        DataItem.dimension(mSizes.get(index)));
+            }
+        };
+    }
+
+    /**
+     * @return the comparison of the first name of a block with a key
+     */
+    private int compareBlockHead(int block, byte[] key) {
+        int position = mBlockOffsets.get(block);
+        // The first name of a block shares no prefix: a zero byte, then the length
+        position++;
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = mNames.get(position++);
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = (mNames.get(position + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * @return the comparison of two names as unsigned bytes
+     */
+    private static int compare(byte[] name, int offset, int length, byte[] other, int otherOffset,
+                               int otherLength) {
+        int common = Math.min(length, otherLength);
+        for (int i = 0; i < common; i++) {
+            int difference = (name[offset + i] & 0xFF) - (other[otherOffset + i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    /**
+     * @return a cursor decoding the names from the first one (used by CatalogDiff)
+     */
+    Cursor newCursor() {
+        return new Cursor(0);
+    }
+
+    /**
+     * Position in the encoded names, holding the last decoded name
+     */
+    final class Cursor {
+
+        private final byte[] mName = new byte[mMaxNameBytes];
+        private int mLength;
+        private int mPosition;
+
+        /**
+         * @param block the block of the first name decoded by next
+         */
+        private Cursor(int block) {
+            mPosition = mSize == 0 ? 0 : mBlockOffsets.get(block);
+        }
+
+        /**
+         * Method used to decode the next name, from the prefix it shares with the previous one
+         */
+        void next() {
+            int prefix = readLength();
+            int suffix = readLength();
+            for (int i = 0; i < suffix; i++) {
+                mName[prefix + i] = mNames.get(mPosition++);
+            }
+            mLength = prefix + suffix;
+        }
+
+        private int readLength() {
+            int length = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = mNames.get(mPosition++);
+                length |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return length;
+        }
+
+        private String getName() {
+            return new String(mName, 0, mLength, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * @return the comparison of the names last decoded by this cursor and by another one, of any catalog
+         */
+        int compareTo(Cursor other) {
+            return compare(mName, 0, mLength, other.mName, 0, other.mLength);
+        }
+    }
+
+    /**
+     * @return the encoded names, from the first name of the first block (used by CatalogCache)
+     */
+    ByteBuffer getEncodedNames() {
+        return mNames.duplicate().clear();
+    }
+
+    IntBuffer getBlockOffsets() {
+        return mBlockOffsets.duplicate().clear();
+    }
+
+    LongBuffer getSizes() {
+        return mSizes.duplicate().clear();
+    }
+
+    Map<Integer, DataItem> getTemplates() {
+        return mTemplates;
+    }
+
+    int getMaxNameBytes() {
+        return mMaxNameBytes;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of a catalog of " + mSize + " Data Items");
+        }
+    }
+
+    /**
+     * This class collects the Data Items of a catalog, in any order (Ex: as the sink of CatalogParser.parse).
+     * When several Data Items have the same name, the last one added is kept
+     */
+    public static final class Builder implements Consumer<DataItem> {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        /**
+         * Names in the order they have been added, encoded in UTF-8 one after the other
+         */
+        private byte[] mNames = new byte[INITIAL_CAPACITY * 64];
+        private int mNamesLength;
+        private int[] mOffsets = new int[INITIAL_CAPACITY];
+        private long[] mSizes = new long[INITIAL_CAPACITY];
+        private int mSize;
+        private final Map<Integer, DataItem> mTemplates = new HashMap<>();
+
+        @Override
+        public void accept(DataItem item) {
+            add(item);
+        }
+
+        /**
+         * Method used to add a Data Item to the catalog
+         *
+         * @param item the Data Item
+         * @return this builder
+         * @throws IllegalStateException if the names of the catalog exceed 2 GB
+         */
+        public Builder add(DataItem item) {
+            byte[] name = item.getItemName().getBytes(StandardCharsets.UTF_8);
+            if (mSize == mOffsets.length) {
+                mOffsets = Arrays.copyOf(mOffsets, grow(mSize, 1));
+                mSizes = Arrays.copyOf(mSizes, mOffsets.length);
+            }
+            if (mNames.length - mNamesLength < name.length) {
+                mNames = Arrays.copyOf(mNames, grow(mNamesLength, name.length));
+            }
+            System.arraycopy(name, 0, mNames, mNamesLength, name.length);
+            mOffsets[mSize] = mNamesLength;
+            mSizes[mSize] = item.getSizeInBytes();
+            if (item.getTimeSeries() != null || item.getContentProfile() != null || item.getSizeDistribution() != null
+                    || item.getMultiplicity() != null || item.getMaterializer() != null) {
+                mTemplates.put(mSize, item);
+            }
+            mNamesLength += name.length;
+            mSize++;
+            return this;
+        }
+
+        /**
+         * @return the catalog of the Data Items added so far
+         */
+        public Catalog build() {
+            int[] order = sortedOrder();
+
+            // The encoded names are usually much shorter than the names, thanks to their common prefixes
+            ByteSink names = new ByteSink(Math.max(16, mNamesLength / 2));
+            int[] blockOffsets = new int[(mSize + BLOCK_SIZE - 1) / BLOCK_SIZE];
+            long[] sizes = new long[mSize];
+            Map<Integer, DataItem> templates = new HashMap<>();
+            int size = 0;
+            int maxNameBytes = 0;
+            int longestName = -1;
+            int previous = -1;
+            for (int i = 0; i < order.length; i++) {
+                int item = order[i];
+                // Equal names are consecutive, in the order they have been added: the last one is kept
+                if (i + 1 < order.length && compareNames(item, order[i + 1]) == 0) {
+                    continue;
+                }
+                int offset = mOffsets[item];
+                int length = length(item);
+                int prefix = 0;
+                if (size % BLOCK_SIZE == 0) {
+                    blockOffsets[size / BLOCK_SIZE] = names.mLength;
+                } else {
+                    int previousOffset = mOffsets[previous];
+                    int common = Math.min(length, length(previous));
+                    while (prefix < common && mNames[offset + prefix] == mNames[previousOffset + prefix]) {
+                        prefix++;
+                    }
+                }
+                names.writeLength(prefix);
+                names.writeLength(length - prefix);
+                names.write(mNames, offset + prefix, length - prefix);
+
+                sizes[size] = mSizes[item];
+                DataItem template = mTemplates.get(item);
+                if (template != null) {
+                    templates.put(size, template);
+                }
+                if (length > maxNameBytes || longestName < 0) {
+                    maxNameBytes = length;
+                    longestName = size;
+                }
+                previous = item;
+                size++;
+            }
+            return new Catalog(size, ByteBuffer.wrap(names.toArray()), IntBuffer.wrap(Arrays.copyOf(blockOffsets,
+                    (size + BLOCK_SIZE - 1) / BLOCK_SIZE)), LongBuffer.wrap(Arrays.copyOf(sizes, size)), templates,
+                    maxNameBytes, longestName);
+        }
+
+        /**
+         * @return the indexes of the Data Items sorted by name, the Data Items with the same name staying in the
+         * order they have been added (merge sort on the indexes, without boxing them)
+         */
+        private int[] sortedOrder() {
+            int[] order = new int[mSize];
+            for (int i = 0; i < mSize; i++) {
+                order[i] = i;
+            }
+            int[] buffer = new int[mSize];
+            for (int width = 1; width < mSize; width *= 2) {
+                for (int low = 0; low < mSize - width; low += 2 * width) {
+                    int middle = low + width;
+                    int high = Math.min(low + 2 * width, mSize);
+                    if (compareNames(order[middle - 1], order[middle]) <= 0) {
+                        // Already in order, as for a configuration file written sorted
+                        continue;
+                    }
+                    int left = low;
+                    int right = middle;
+                    for (int i = low; i < high; i++) {
+                        if (right >= high || (left < middle && compareNames(order[left], order[right]) <= 0)) {
+                            buffer[i] = order[left++];
+                        } else {
+                            buffer[i] = order[right++];
+                        }
+                    }
+                    System.arraycopy(buffer, low, order, low, high - low);
+                }
+            }
+            return order;
+        }
+
+        private int compareNames(int item, int other) {
+            return compare(mNames, mOffsets[item], length(item), mNames, mOffsets[other], length(other));
+        }
+
+        private int length(int item) {
+            return (item + 1 < mSize ? mOffsets[item + 1] : mNamesLength) - mOffsets[item];
+        }
+
+        /**
+         * @return the new capacity of an array holding length elements, to add at least count elements
+         */
+        private static int grow(int length, int count) {
+            long capacity = Math.max((long) length + count, length + (length >> 1));
+            if (capacity > Integer.MAX_VALUE - 8) {
+                if ((long) length + count > Integer.MAX_VALUE - 8) {
+                    throw new IllegalStateException("The catalog is too large: more than 2 GB of names");
+                }
+                capacity = Integer.MAX_VALUE - 8;
+            }
+            return (int) capacity;
+        }
+    }
+
+    /**
+     * Growable byte array receiving the encoded names
+     */
+    private static final class ByteSink {
+
+        private byte[] mBytes;
+        private int mLength;
+
+        private ByteSink(int capacity) {
+            mBytes = new byte[capacity];
+        }
+
+        private void writeLength(int length) {
+            ensureCapacity(5);
+            while ((length & ~0x7F) != 0) {
+                mBytes[mLength++] = (byte) ((length & 0x7F) | 0x80);
+                length >>>= 7;
+            }
+            mBytes[mLength++] = (byte) length;
+        }
+
+        private void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, mBytes, mLength, length);
+            mLength += length;
+        }
+
+        private void ensureCapacity(int count) {
+            if (mBytes.length - mLength < count) {
+                mBytes = Arrays.copyOf(mBytes, Builder.grow(mLength, count));
+            }
+        }
+
+        private byte[] toArray() {
+            return Arrays.copyOf(mBytes, mLength);
+        }
+    }
+}
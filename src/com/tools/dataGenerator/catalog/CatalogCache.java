@@ -0,0 +1,301 @@
+package com.tools.dataGenerator.catalog;
+
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class keeps the Catalog of a configuration file in a binary cache next to it (Ex: ListDataItem.cnf.cache), so
+ * that the next openings map the cache instead of parsing the file again: a catalog of several million entries opens
+ * in a few milliseconds, its pages being read by the operating system only when they are used. The GUI and the
+ * command line share the same cache.
+ * <p>
+ * The cache is valid for the absolute path, the modification time and the size of the configuration file it has
+ * been built from. When one of them differs, or when the cache cannot be read, the file is parsed and the cache
+ * written again. A configuration file in a read-only directory is simply parsed at each opening.
+ * <p>
+ * Layout (big-endian): header, errors found in the configuration file, Data Items kept as objects, then the sizes,
+ * the offsets of the blocks and the encoded names of the Catalog, as they are held in memory.
+ */
+public final class CatalogCache {
+
+    /**
+     * Suffix added to the name of the configuration file to get the name of its cache
+     */
+    public static final String SUFFIX = ".cache";
+
+    private static final int MAGIC = 0x44474343;
+    private static final int VERSION = 2;
+
+    private static final int TIME_SERIES = 1;
+    private static final int CONTENT_PROFILE = 2;
+    private static final int SIZE_DISTRIBUTION = 4;
+    private static final int MULTIPLICITY = 8;
+    private static final int MATERIALIZER = 16;
+
+    private CatalogCache() {}
+
+    /**
+     * Method used to open a configuration file, from its cache when it is up to date
+     *
+     * @param catalog path of the configuration file
+     * @param errors  receives the lines of the configuration file that do not respect the expected format
+     * @return the catalog of the Data Items
+     * @throws IOException if the configuration file cannot be read
+     */
+    public static Catalog open(Path catalog, CatalogErrors errors) throws IOException {
+        Path path = catalog.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        Path cache = getCachePath(path);
+
+        CatalogErrors cachedErrors = new CatalogErrors();
+        Catalog cached = read(cache, path, attributes, cachedErrors);
+        if (cached != null) {
+            errors.addAll(cachedErrors, 0);
+            return cached;
+        }
+
+        Catalog.Builder builder = new Catalog.Builder();
+        CatalogErrors parsedErrors = CatalogParser.parse(path, builder);
+        Catalog parsed = builder.build();
+        errors.addAll(parsedErrors, 0);
+        try {
+            write(cache, path, attributes, parsed, parsedErrors);
+        } catch (IOException e) {
+            // Read-only directory or full disk: the file will be parsed again at the next opening
+        }
+        return parsed;
+    }
+
+    /**
+     * @return the path of the cache of a configuration file
+     */
+    public static Path getCachePath(Path catalog) {
+        return catalog.resolveSibling(catalog.getFileName() + SUFFIX);
+    }
+
+    /**
+     * @return the catalog mapped from the cache, or null if the cache is missing, out of date or damaged
+     */
+    private static Catalog read(Path cache, Path catalog, BasicFileAttributes attributes, CatalogErrors errors) {
+        if (!Files.isRegularFile(cache)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cache, StandardOpenOption.READ)) {
+            // The mapping stays valid once the channel is closed
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                    || !readString(buffer).equals(catalog.toString())
+                    || buffer.getLong() != attributes.lastModifiedTime().toMillis()
+                    || buffer.getLong() != attributes.size()) {
+                return null;
+            }
+            int size = buffer.getInt();
+            int blocks = buffer.getInt();
+            int namesLength = buffer.getInt();
+            int maxNameBytes = buffer.getInt();
+            int longestName = buffer.getInt();
+
+            int errorCount = buffer.getInt();
+            for (int i = 0; i < errorCount; i++) {
+                errors.add(buffer.getInt(), buffer.getInt(), CatalogErrors.Reason.values()[buffer.get()]);
+            }
+            int templateCount = buffer.getInt();
+            Map<Integer, DataItem> templates = new HashMap<>();
+            for (int i = 0; i < templateCount; i++) {
+                templates.put(buffer.getInt(), readTemplate(buffer));
+            }
+
+            buffer.position(align(buffer.position()));
+            LongBuffer sizes = slice(buffer, (long) size * Long.BYTES).asLongBuffer();
+            IntBuffer blockOffsets = slice(buffer, (long) blocks * Integer.BYTES).asIntBuffer();
+            ByteBuffer names = slice(buffer, namesLength);
+            return new Catalog(size, names, blockOffsets, sizes, templates, maxNameBytes, longestName);
+        } catch (IOException | RuntimeException e) {
+            // Truncated or damaged cache (Ex: written by another version): the file is parsed again
+            return null;
+        }
+    }
+
+    /**
+     * Method used to write the cache of a configuration file, replacing the previous one atomically so that a
+     * concurrent opening never reads a partial cache
+     */
+    private static void write(Path cache, Path catalog, BasicFileAttributes attributes, Catalog parsed,
+                              CatalogErrors errors) throws IOException {
+        Path temporary = Files.createTempFile(cache.getParent(), cache.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, catalog.toString());
+                out.writeLong(attributes.lastModifiedTime().toMillis());
+                out.writeLong(attributes.size());
+
+                LongBuffer sizes = parsed.getSizes();
+                IntBuffer blockOffsets = parsed.getBlockOffsets();
+                ByteBuffer names = parsed.getEncodedNames();
+                out.writeInt(parsed.size());
+                out.writeInt(blockOffsets.remaining());
+                out.writeInt(names.remaining());
+                out.writeInt(parsed.getMaxNameBytes());
+                out.writeInt(parsed.getLongestName());
+
+                out.writeInt(errors.size());
+                for (int i = 0; i < errors.size(); i++) {
+                    out.writeInt(errors.getLine(i));
+                    out.writeInt(errors.getColumn(i));
+                    out.writeByte(errors.getReason(i).ordinal());
+                }
+                out.writeInt(parsed.getTemplates().size());
+                for (Map.Entry<Integer, DataItem> template : parsed.getTemplates().entrySet()) {
+                    out.writeInt(template.getKey());
+                    writeTemplate(out, template.getValue());
+                }
+
+                for (int padding = align(out.size()) - out.size(); padding > 0; padding--) {
+                    out.writeByte(0);
+                }
+                while (sizes.hasRemaining()) {
+                    out.writeLong(sizes.get());
+                }
+                while (blockOffsets.hasRemaining()) {
+                    out.writeInt(blockOffsets.get());
+                }
+                byte[] chunk = new byte[1 << 16];
+                while (names.hasRemaining()) {
+                    int length = Math.min(chunk.length, names.remaining());
+                    names.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+            try {
+                // Readable by the same users as the configuration file, not only by the owner of the temporary file.
+                // Applied once written: the permissions of a read-only configuration file would prevent the write
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(catalog);
+                permissions.add(PosixFilePermission.OWNER_READ);
+                Files.setPosixFilePermissions(temporary, permissions);
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system: the default permissions are kept
+            }
+            Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeTemplate(DataOutputStream out, DataItem item) throws IOException {
+        int flags = (item.getTimeSeries() != null ? TIME_SERIES : 0)
+                | (item.getContentProfile() != null ? CONTENT_PROFILE : 0)
+                | (item.getSizeDistribution() != null ? SIZE_DISTRIBUTION : 0)
+                | (item.getMultiplicity() != null ? MULTIPLICITY : 0)
+                | (item.getMaterializer() != null ? MATERIALIZER : 0);
+        writeString(out, item.getItemName());
+        out.writeDouble(item.getDimesion());
+        out.writeByte(flags);
+        if (item.getTimeSeries() != null) {
+            TimeSeries timeSeries = item.getTimeSeries();
+            out.writeLong(timeSeries.getStartSecond());
+            out.writeLong(timeSeries.getEndSecond());
+            out.writeLong(timeSeries.getCadenceSeconds());
+            out.writeLong(timeSeries.getLatencySeconds());
+        }
+        if (item.getContentProfile() != null) {
+            writeString(out, item.getContentProfile().toString());
+        }
+        if (item.getSizeDistribution() != null) {
+            writeString(out, item.getSizeDistribution().toString());
+        }
+        if (item.getMultiplicity() != null) {
+            out.writeLong(item.getMultiplicity().getCount());
+        }
+        if (item.getMaterializer() != null) {
+            writeString(out, item.getMaterializer());
+        }
+    }
+
+    private static DataItem readTemplate(ByteBuffer buffer) {
+        String name = readString(buffer);
+        double dimension = buffer.getDouble();
+        int flags = buffer.get();
+        TimeSeries timeSeries = null;
+        if ((flags & TIME_SERIES) != 0) {
+            timeSeries = new TimeSeries(LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC),
+                    LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC),
+                    Duration.ofSeconds(buffer.getLong()), Duration.ofSeconds(buffer.getLong()));
+        }
+        ContentProfile contentProfile = (flags & CONTENT_PROFILE) != 0 ? ContentProfile.parse(readString(buffer))
+                : null;
+        SizeDistribution sizeDistribution = (flags & SIZE_DISTRIBUTION) != 0
+                ? SizeDistribution.parse(readString(buffer)) : null;
+        Multiplicity multiplicity = (flags & MULTIPLICITY) != 0 ? new Multiplicity(buffer.getLong()) : null;
+        DataItem item;
+        if (sizeDistribution != null) {
+            item = new DataItem(name, timeSeries, contentProfile, sizeDistribution, multiplicity);
+        } else if (multiplicity != null) {
+            item = new DataItem(name, dimension, contentProfile, multiplicity);
+        } else {
+            item = new DataItem(name, dimension, timeSeries, contentProfile);
+        }
+        if ((flags & MATERIALIZER) != 0) {
+            item.setMaterializer(readString(buffer));
+        }
+        return item;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Truncated cache");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the next multiple of 8, so that the sizes are aligned in the mapped file
+     */
+    private static int align(int position) {
+        return (position + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * @return the next length bytes of the buffer, as a buffer of their own
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, long length) {
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("Truncated cache");
+        }
+        ByteBuffer slice = buffer.slice();
+        slice.limit((int) length);
+        buffer.position(buffer.position() + (int) length);
+        return slice;
+    }
+}
@@ -0,0 +1,155 @@
+package com.tools.dataGenerator.catalog;
+
+import java.util.Arrays;
+
+/**
+ * This class describes the changes between two versions of a Catalog (Ex: before and after the configuration file
+ * has been edited): the Data Items added, removed and resized, and the new index of each Data Item kept.
+ * <p>
+ * Both catalogs are sorted by name, so the changes are found in a single merge of their names, without creating any
+ * DataItem or String.
+ */
+public final class CatalogDiff {
+
+    private final Catalog mPrevious;
+    private final Catalog mCurrent;
+    /**
+     * Index in the current catalog of each Data Item of the previous one, -1 if it has been removed
+     */
+    private final int[] mNewIndexes;
+    private final int[] mAdded;
+    private final int[] mRemoved;
+    private final int[] mResized;
+
+    private CatalogDiff(Catalog previous, Catalog current, int[] newIndexes, int[] added, int[] removed,
+                        int[] resized) {
+        mPrevious = previous;
+        mCurrent = current;
+        mNewIndexes = newIndexes;
+        mAdded = added;
+        mRemoved = removed;
+        mResized = resized;
+    }
+
+    /**
+     * Method used to compute the changes between two catalogs
+     *
+     * @param previous the catalog before the changes
+     * @param current  the catalog after the changes
+     * @return the changes
+     */
+    public static CatalogDiff compute(Catalog previous, Catalog current) {
+        int[] newIndexes = new int[previous.size()];
+        Indexes added = new Indexes();
+        Indexes removed = new Indexes();
+        Indexes resized = new Indexes();
+
+        Catalog.Cursor previousCursor = previous.newCursor();
+        Catalog.Cursor currentCursor = current.newCursor();
+        int oldIndex = 0;
+        int newIndex = 0;
+        if (previous.size() > 0) {
+            previousCursor.next();
+        }
+        if (current.size() > 0) {
+            currentCursor.next();
+        }
+        while (oldIndex < previous.size() || newIndex < current.size()) {
+            int comparison;
+            if (oldIndex == previous.size()) {
+                comparison = 1;
+            } else if (newIndex == current.size()) {
+                comparison = -1;
+            } else {
+                comparison = previousCursor.compareTo(currentCursor);
+            }
+            if (comparison < 0) {
+                newIndexes[oldIndex] = -1;
+                removed.add(oldIndex);
+            } else if (comparison > 0) {
+                added.add(newIndex);
+            } else {
+                newIndexes[oldIndex] = newIndex;
+                if (previous.getSizeInBytes(oldIndex) != current.getSizeInBytes(newIndex)) {
+                    resized.add(newIndex);
+                }
+            }
+            if (comparison <= 0 && ++oldIndex < previous.size()) {
+                previousCursor.next();
+            }
+            if (comparison >= 0 && ++newIndex < current.size()) {
+                currentCursor.next();
+            }
+        }
+        return new CatalogDiff(previous, current, newIndexes, added.toArray(), removed.toArray(), resized.toArray());
+    }
+
+    public Catalog getPrevious() {
+        return mPrevious;
+    }
+
+    public Catalog getCurrent() {
+        return mCurrent;
+    }
+
+    /**
+     * @param oldIndex index of a Data Item in the previous catalog
+     * @return the index of the Data Item in the current catalog, or -1 if it has been removed
+     */
+    public int getNewIndex(int oldIndex) {
+        return mNewIndexes[oldIndex];
+    }
+
+    /**
+     * @return the indexes of the Data Items added, in the current catalog, in ascending order
+     */
+    public int[] getAdded() {
+        return mAdded.clone();
+    }
+
+    /**
+     * @return the indexes of the Data Items removed, in the previous catalog, in ascending order
+     */
+    public int[] getRemoved() {
+        return mRemoved.clone();
+    }
+
+    /**
+     * @return the indexes of the Data Items whose size has changed, in the current catalog, in ascending order
+     */
+    public int[] getResized() {
+        return mResized.clone();
+    }
+
+    public boolean isEmpty() {
+        return mAdded.length == 0 && mRemoved.length == 0 && mResized.length == 0;
+    }
+
+    /**
+     * @return a summary of the changes (Ex: 3 added, 1 removed, 0 resized)
+     */
+    @Override
+    public String toString() {
+        return mAdded.length + " added, " + mRemoved.length + " removed, " + mResized.length + " resized";
+    }
+
+    /**
+     * Growable array of indexes
+     */
+    private static final class Indexes {
+
+        private int[] mValues = new int[16];
+        private int mSize;
+
+        private void add(int value) {
+            if (mSize == mValues.length) {
+                mValues = Arrays.copyOf(mValues, mSize * 2);
+            }
+            mValues[mSize++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(mValues, mSize);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.tools.dataGenerator.catalog;
+
+import java.util.Arrays;
+
+/**
+ * This class is a compact index of the errors found while parsing a configuration file.
+ * Each error is stored as a line number, a column and a reason in primitive arrays, so that even millions of
+ * wrong lines do not use more than a few bytes each.
+ */
+public class CatalogErrors {
+
+    /**
+     * This enum lists the reasons why a line of the configuration file is rejected
+     */
+    public enum Reason {
+        MISSING_SEPARATOR("missing ':' between the name and the dimension"),
+        EMPTY_NAME("empty Data Item name"),
+        INVALID_DIMENSION("invalid dimension"),
+        INVALID_FIELD_COUNT("wrong number of fields, expected NAME:DIMENSION[:COUNT][:PROFILE] or "
+                + "NAME:DIMENSION:START:END:CADENCE[:LATENCY][:PROFILE]"),
+        MISSING_PLACEHOLDER("time series name without date placeholder"),
+        INVALID_TIME_SERIES("invalid time series start, end, cadence or latency"),
+        INVALID_CONTENT_PROFILE("invalid content profile, expected ratio=RATIO,dup=FRACTION,materializer=NAME"),
+        INVALID_DISTRIBUTION("invalid size distribution, expected uniform(MIN,MAX), normal(MEAN,STDDEV), "
+                + "lognormal(MEAN,STDDEV) or hist(MIN-MAX=WEIGHT,...)"),
+        INVALID_COUNT("invalid count, expected a positive integer"),
+        MISSING_INDEX_PLACEHOLDER("repeated Data Item name without '#' placeholder");
+
+        private final String mDescription;
+
+        Reason(String description) {
+            mDescription = description;
+        }
+
+        public String getDescription() {
+            return mDescription;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Reason[] REASONS = Reason.values();
+
+    private int mCount;
+    private int[] mLines = new int[INITIAL_CAPACITY];
+    private int[] mColumns = new int[INITIAL_CAPACITY];
+    private byte[] mReasons = new byte[INITIAL_CAPACITY];
+
+    /**
+     * Method used to add an error
+     *
+     * @param line   line number, starting from 1
+     * @param column column, in bytes, starting from 1
+     * @param reason why the line has been rejected
+     */
+    void add(int line, int column, Reason reason) {
+        if (mCount == mLines.length) {
+            int capacity = mCount * 2;
+            mLines = Arrays.copyOf(mLines, capacity);
+            mColumns = Arrays.copyOf(mColumns, capacity);
+            mReasons = Arrays.copyOf(mReasons, capacity);
+        }
+        mLines[mCount] = line;
+        mColumns[mCount] = column;
+        mReasons[mCount] = (byte) reason.ordinal();
+        mCount++;
+    }
+
+    /**
+     * Method used to append the errors of a portion of the file
+     *
+     * @param other      errors found in the portion of the file
+     * @param lineOffset number of lines before the portion of the file
+     */
+    void addAll(CatalogErrors other, int lineOffset) {
+        for (int i = 0; i < other.mCount; i++) {
+            add(other.mLines[i] + lineOffset, other.mColumns[i], REASONS[other.mReasons[i]]);
+        }
+    }
+
+    public int size() {
+        return mCount;
+    }
+
+    public boolean isEmpty() {
+        return mCount == 0;
+    }
+
+    public int getLine(int index) {
+        checkIndex(index);
+        return mLines[index];
+    }
+
+    public int getColumn(int index) {
+        checkIndex(index);
+        return mColumns[index];
+    }
+
+    public Reason getReason(int index) {
+        checkIndex(index);
+        return REASONS[mReasons[index]];
+    }
+
+    /**
+     * @return a description of the error at the given index (Ex: line 12, column 5: invalid dimension)
+     */
+    public String format(int index) {
+        return "line " + getLine(index) + ", column " + getColumn(index) + ": " + getReason(index).getDescription();
+    }
+
+    /**
+     * Method used to describe the first errors, one per line
+     *
+     * @param maxErrors maximum number of errors described
+     * @return the description of the errors
+     */
+    public String summary(int maxErrors) {
+        StringBuilder builder = new StringBuilder();
+        int described = Math.min(maxErrors, mCount);
+        for (int i = 0; i < described; i++) {
+            builder.append(format(i)).append('\n');
+        }
+        if (mCount > described) {
+            builder.append("... and ").append(mCount - described).append(" more\n");
+        }
+        return builder.toString();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mCount);
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.tools.dataGenerator.catalog;
+
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * This class parses a configuration file (Ex: ListDataItem.cnf) containing the list of Data Items to generate.
+ * Each line of the file has the format NAME:DIMENSION where the dimension is expressed in MB
+ * (Ex: P4_1A_HR_____:10), NAME:DIMENSION:COUNT for an entry repeated COUNT times (see Multiplicity), or
+ * NAME:DIMENSION:START:END:CADENCE[:LATENCY] for a time series (see TimeSeries). The dimension can be replaced by a
+ * size distribution (Ex: IMG_######.jpg:lognormal(4,2):1000000, see SizeDistribution).
+ * All formats accept an optional last field containing the profile of the content, recognized by its '='
+ * (Ex: P4_1A_HR_____:10:ratio=2.5,dup=0.3, see ContentProfile), and the materializer writing the files of the entry
+ * (Ex: P4_1A_HR_____:10:materializer=mmap or P4_1A_HR_____:10:ratio=2.5,materializer=gather). Empty lines are
+ * ignored.
+ * <p>
+ * The file is scanned as bytes: no regular expression, no split and no boxing is used for the plain Data Items.
+ * Large files are split on line boundaries into ranges parsed by several threads; the Data Items are still
+ * delivered in the order of the file. The lines that do not respect the format are returned as a CatalogErrors.
+ */
+public final class CatalogParser {
+
+    /**
+     * Files smaller than this size are parsed by a single thread: 8 MiB
+     */
+    private static final long PARALLEL_THRESHOLD = 8L << 20;
+
+    /**
+     * Initial size of the buffer of each range: 1 MiB. It grows only for lines longer than the buffer
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final int MAX_TIME_SERIES_FIELDS = 6;
+    /**
+     * Fields of a time series followed by a content profile
+     */
+    private static final int MAX_FIELDS = MAX_TIME_SERIES_FIELDS + 1;
+    /**
+     * Key of the materializer in the last field, among the keys of the content profile
+     */
+    private static final String MATERIALIZER_KEY = "materializer=";
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18};
+
+    private CatalogParser() {}
+
+    /**
+     * Method used to parse a configuration file, using several threads when the file is large
+     *
+     * @param catalog path of the configuration file
+     * @param sink    receives the Data Items in the order of the file, on the calling thread
+     * @return the lines that do not respect the expected format
+     * @throws IOException if the configuration file cannot be read
+     */
+    public static CatalogErrors parse(Path catalog, Consumer<DataItem> sink) throws IOException {
+        return parse(catalog, Runtime.getRuntime().availableProcessors(), sink);
+    }
+
+    /**
+     * Method used to parse a configuration file
+     *
+     * @param catalog path of the configuration file
+     * @param threads maximum number of threads parsing the file
+     * @param sink    receives the Data Items in the order of the file, on the calling thread
+     * @return the lines that do not respect the expected format
+     * @throws IOException if the configuration file cannot be read
+     */
+    public static CatalogErrors parse(Path catalog, int threads, Consumer<DataItem> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(catalog, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (threads <= 1 || size < PARALLEL_THRESHOLD) {
+                CatalogErrors errors = new CatalogErrors();
+                new RangeParser(channel, 0, size, sink, errors).run();
+                return errors;
+            }
+            return parseInParallel(channel, splitOnLines(channel, size, threads), sink);
+        }
+    }
+
+    /**
+     * Method used to parse the ranges of the file in parallel. The Data Items of each range are kept until the
+     * previous ranges have been delivered to the sink
+     */
+    private static CatalogErrors parseInParallel(FileChannel channel, long[] boundaries, Consumer<DataItem> sink)
+            throws IOException {
+        int ranges = boundaries.length - 1;
+        ExecutorService executor = Executors.newFixedThreadPool(ranges, runnable -> {
+            Thread thread = new Thread(runnable, "catalog-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<RangeParser>> futures = new ArrayList<>(ranges);
+            List<List<DataItem>> rangeItems = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                List<DataItem> items = new ArrayList<>();
+                RangeParser parser = new RangeParser(channel, boundaries[i], boundaries[i + 1], items::add,
+                        new CatalogErrors());
+                rangeItems.add(items);
+                futures.add(executor.submit(() -> {
+                    parser.run();
+                    return parser;
+                }));
+            }
+
+            CatalogErrors errors = new CatalogErrors();
+            int lineOffset = 0;
+            for (int i = 0; i < ranges; i++) {
+                RangeParser parser = futures.get(i).get();
+                rangeItems.get(i).forEach(sink);
+                // Release the Data Items of the range as soon as they have been delivered
+                rangeItems.set(i, null);
+                errors.addAll(parser.mErrors, lineOffset);
+                lineOffset += parser.mLines;
+            }
+            return errors;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing the configuration file");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Cannot parse the configuration file", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Method used to split the file into ranges of about the same size starting at the beginning of a line
+     *
+     * @return the boundaries of the ranges: range i goes from boundaries[i] to boundaries[i + 1]
+     */
+    private static long[] splitOnLines(FileChannel channel, long size, int threads) throws IOException {
+        long[] boundaries = new long[threads + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        int count = 1;
+        for (int i = 1; i < threads; i++) {
+            long position = Math.max(size * i / threads, boundaries[count - 1]);
+            long boundary = size;
+            search:
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                for (int j = 0; j < read; j++) {
+                    if (buffer.get(j) == '\n') {
+                        boundary = position + j + 1;
+                        break search;
+                    }
+                }
+                position += read;
+            }
+            if (boundary > boundaries[count - 1] && boundary < size) {
+                boundaries[count++] = boundary;
+            }
+        }
+        boundaries[count++] = size;
+        return Arrays.copyOf(boundaries, count);
+    }
+
+    /**
+     * This class parses a range of the file starting at the beginning of a line
+     */
+    private static final class RangeParser {
+        private final FileChannel mChannel;
+        private final long mStart;
+        private final long mEnd;
+        private final Consumer<DataItem> mSink;
+        private final CatalogErrors mErrors;
+        private final int[] mSeparators = new int[MAX_FIELDS - 1];
+        private int mFields;
+        private byte[] mBuffer = new byte[BUFFER_SIZE];
+        private int mLines;
+
+        RangeParser(FileChannel channel, long start, long end, Consumer<DataItem> sink, CatalogErrors errors) {
+            mChannel = channel;
+            mStart = start;
+            mEnd = end;
+            mSink = sink;
+            mErrors = errors;
+        }
+
+        void run() throws IOException {
+            long position = mStart;
+            int filled = 0;
+            while (true) {
+                if (filled == mBuffer.length) {
+                    mBuffer = Arrays.copyOf(mBuffer, mBuffer.length * 2);
+                }
+                int toRead = (int) Math.min(mBuffer.length - filled, mEnd - position);
+                int read = toRead == 0 ? -1 : mChannel.read(ByteBuffer.wrap(mBuffer, filled, toRead), position);
+                if (read > 0) {
+                    position += read;
+                    filled += read;
+                }
+                boolean endOfRange = read < 0 || position >= mEnd;
+
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (mBuffer[i] == '\n') {
+                        parseLine(lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                if (endOfRange) {
+                    if (lineStart < filled) {
+                        parseLine(lineStart, filled);
+                    }
+                    return;
+                }
+                // Keep the incomplete last line for the next read
+                System.arraycopy(mBuffer, lineStart, mBuffer, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+        }
+
+        /**
+         * Method used to parse the line between from (inclusive) and to (exclusive)
+         */
+        private void parseLine(int from, int to) {
+            int line = ++mLines;
+            if (to > from && mBuffer[to - 1] == '\r') {
+                to--;
+            }
+            if (to == from) {
+                return;
+            }
+
+            int fields = 1;
+            for (int i = from; i < to; i++) {
+                if (mBuffer[i] == ':') {
+                    if (fields == MAX_FIELDS) {
+                        mErrors.add(line, i - from + 1, CatalogErrors.Reason.INVALID_FIELD_COUNT);
+                        return;
+                    }
+                    mSeparators[fields++ - 1] = i;
+                }
+            }
+            mFields = fields;
+            if (fields == 1) {
+                mErrors.add(line, to - from + 1, CatalogErrors.Reason.MISSING_SEPARATOR);
+                return;
+            }
+            if (mSeparators[0] == from) {
+                mErrors.add(line, 1, CatalogErrors.Reason.EMPTY_NAME);
+                return;
+            }
+
+            ContentProfile contentProfile = null;
+            String materializer = null;
+            int lastSeparator = mSeparators[fields - 2];
+            if (fields > 2 && contains(lastSeparator + 1, to, (byte) '=')) {
+                try {
+                    StringBuilder profile = new StringBuilder();
+                    for (String option : new String(mBuffer, lastSeparator + 1, to - lastSeparator - 1,
+                            StandardCharsets.US_ASCII).split(",")) {
+                        if (option.trim().startsWith(MATERIALIZER_KEY)) {
+                            materializer = parseMaterializer(option.trim().substring(MATERIALIZER_KEY.length()));
+                        } else {
+                            profile.append(profile.length() == 0 ? "" : ",").append(option);
+                        }
+                    }
+                    if (profile.length() > 0) {
+                        contentProfile = ContentProfile.parse(profile.toString());
+                    }
+                } catch (IllegalArgumentException e) {
+                    mErrors.add(line, lastSeparator - from + 2, CatalogErrors.Reason.INVALID_CONTENT_PROFILE);
+                    return;
+                }
+                to = lastSeparator;
+                mFields = --fields;
+            }
+            if (fields == 4 || fields > MAX_TIME_SERIES_FIELDS) {
+                mErrors.add(line, mSeparators[fields - 2] - from + 1, CatalogErrors.Reason.INVALID_FIELD_COUNT);
+                return;
+            }
+
+            int dimensionEnd = fields == 2 ? to : mSeparators[1];
+            double dimension = parseDimension(mSeparators[0] + 1, dimensionEnd);
+            SizeDistribution sizeDistribution = null;
+            if (dimension < 0) {
+                String field = new String(mBuffer, mSeparators[0] + 1, dimensionEnd - mSeparators[0] - 1,
+                        StandardCharsets.US_ASCII);
+                if (!SizeDistribution.isDistribution(field)) {
+                    mErrors.add(line, mSeparators[0] - from + 2, CatalogErrors.Reason.INVALID_DIMENSION);
+                    return;
+                }
+                try {
+                    sizeDistribution = SizeDistribution.parse(field);
+                } catch (IllegalArgumentException e) {
+                    mErrors.add(line, mSeparators[0] - from + 2, CatalogErrors.Reason.INVALID_DISTRIBUTION);
+                    return;
+                }
+            }
+
+            String name = new String(mBuffer, from, mSeparators[0] - from, StandardCharsets.UTF_8);
+            Multiplicity multiplicity = null;
+            if (fields == 3) {
+                long count = parseCount(mSeparators[1] + 1, to);
+                if (count < 1) {
+                    mErrors.add(line, mSeparators[1] - from + 2, CatalogErrors.Reason.INVALID_COUNT);
+                    return;
+                }
+                if (count > 1 && !Multiplicity.hasPlaceholder(name)) {
+                    mErrors.add(line, 1, CatalogErrors.Reason.MISSING_INDEX_PLACEHOLDER);
+                    return;
+                }
+                // A count of 1 keeps the name as it is
+                multiplicity = count > 1 ? new Multiplicity(count) : null;
+            }
+            if (fields <= 3) {
+                DataItem item;
+                if (sizeDistribution != null) {
+                    item = new DataItem(name, null, contentProfile, sizeDistribution, multiplicity);
+                } else if (multiplicity != null) {
+                    item = new DataItem(name, dimension, contentProfile, multiplicity);
+                } else {
+                    item = contentProfile == null ? new DataItem(name, dimension)
+                            : new DataItem(name, dimension, null, contentProfile);
+                }
+                item.setMaterializer(materializer);
+                mSink.accept(item);
+                return;
+            }
+
+            if (!TimeSeries.hasPlaceholders(name)) {
+                mErrors.add(line, 1, CatalogErrors.Reason.MISSING_PLACEHOLDER);
+                return;
+            }
+            try {
+                TimeSeries timeSeries = TimeSeries.parse(field(2, to), field(3, to), field(4, to),
+                        fields == MAX_TIME_SERIES_FIELDS ? field(5, to) : null);
+                DataItem item = sizeDistribution == null ? new DataItem(name, dimension, timeSeries, contentProfile)
+                        : new DataItem(name, timeSeries, contentProfile, sizeDistribution, null);
+                item.setMaterializer(materializer);
+                mSink.accept(item);
+            } catch (IllegalArgumentException e) {
+                mErrors.add(line, mSeparators[1] - from + 2, CatalogErrors.Reason.INVALID_TIME_SERIES);
+            }
+        }
+
+        /**
+         * Method used to check the name of a materializer: lower case letters, digits and '-' (Ex: zero-fill). The
+         * materializer itself is found when the Data Items are generated
+         *
+         * @return the name
+         * @throws IllegalArgumentException if the name is not valid
+         */
+        private static String parseMaterializer(String name) {
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty materializer");
+            }
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (!(c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '-')) {
+                    throw new IllegalArgumentException("Invalid materializer: " + name);
+                }
+            }
+            return name;
+        }
+
+        /**
+         * @return true if the byte is found between from (inclusive) and to (exclusive)
+         */
+        private boolean contains(int from, int to, byte b) {
+            for (int i = from; i < to; i++) {
+                if (mBuffer[i] == b) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the content of the field with the given index (the name has index 0)
+         */
+        private String field(int index, int lineEnd) {
+            int start = mSeparators[index - 1] + 1;
+            int end = index < mFields - 1 ? mSeparators[index] : lineEnd;
+            return new String(mBuffer, start, end - start, StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Method used to parse the count of a repeated entry (Ex: 1000000) surrounded by optional blanks
+         *
+         * @return the count, or -1 if the bytes are not a valid positive integer
+         */
+        private long parseCount(int from, int to) {
+            double count = parseDimension(from, to);
+            return count < 1 || count != Math.rint(count) || contains(from, to, (byte) '.') ? -1 : (long) count;
+        }
+
+        /**
+         * Method used to parse a decimal number (Ex: 4, 0.2, 1500) surrounded by optional blanks
+         *
+         * @return the number, or -1 if the bytes are not a valid decimal number
+         */
+        private double parseDimension(int from, int to) {
+            while (from < to && mBuffer[from] == ' ') {
+                from++;
+            }
+            while (to > from && mBuffer[to - 1] == ' ') {
+                to--;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int decimals = -1;
+            for (int i = from; i < to; i++) {
+                byte b = mBuffer[i];
+                if (b >= '0' && b <= '9') {
+                    if (++digits > POWERS_OF_TEN.length - 1) {
+                        return -1;
+                    }
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (decimals >= 0) {
+                        decimals++;
+                    }
+                } else if (b == '.' && decimals < 0) {
+                    decimals = 0;
+                } else {
+                    return -1;
+                }
+            }
+            if (digits == 0) {
+                return -1;
+            }
+            return decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        }
+    }
+}
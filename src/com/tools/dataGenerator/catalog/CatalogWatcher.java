@@ -0,0 +1,157 @@
+package com.tools.dataGenerator.catalog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class watches a configuration file with a WatchService and reloads it each time it changes, reporting the
+ * differences with the previous version (see CatalogDiff) so that only the changes are applied to what displays the
+ * catalog.
+ * <p>
+ * The events are watched on the directory of the file, which also receives those of the other files: they are
+ * ignored. An editor often saves a file in several steps (truncate and write, or write a copy and rename it), so
+ * the file is reloaded only once no event has been received for DEBOUNCE_MILLIS. The reload goes through
+ * CatalogCache, which also refreshes the cache for the next openings.
+ */
+public class CatalogWatcher implements Closeable {
+
+    /**
+     * Quiet period after the last event before the file is reloaded: 200 ms
+     */
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    /**
+     * This interface receives the changes of the watched file, on the thread of the watcher
+     */
+    public interface Listener {
+
+        /**
+         * Method called when the file has been reloaded
+         *
+         * @param diff   the changes between the previous catalog and the reloaded one
+         * @param errors the lines of the reloaded file that do not respect the expected format
+         */
+        void catalogChanged(CatalogDiff diff, CatalogErrors errors);
+
+        /**
+         * Method called when the file has changed but cannot be reloaded. The previous catalog is kept and the file
+         * is still watched
+         *
+         * @param e the error
+         */
+        void reloadFailed(Exception e);
+    }
+
+    private final Path mCatalog;
+    private final Listener mListener;
+    private final WatchService mWatchService;
+    private Catalog mCurrent;
+    private FileTime mLastModified;
+    private long mSize;
+
+    /**
+     * Constructor: the file is watched until close is called
+     *
+     * @param catalog  path of the configuration file
+     * @param current  catalog of the configuration file as last loaded
+     * @param listener receives the changes
+     * @throws IOException if the directory of the file cannot be watched
+     */
+    public CatalogWatcher(Path catalog, Catalog current, Listener listener) throws IOException {
+        mCatalog = catalog.toAbsolutePath().normalize();
+        mCurrent = current;
+        mListener = listener;
+        BasicFileAttributes attributes = Files.readAttributes(mCatalog, BasicFileAttributes.class);
+        mLastModified = attributes.lastModifiedTime();
+        mSize = attributes.size();
+        mWatchService = FileSystems.getDefault().newWatchService();
+        try {
+            mCatalog.getParent().register(mWatchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            mWatchService.close();
+            throw e;
+        }
+        Thread thread = new Thread(this::watch, "catalog-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public Path getCatalog() {
+        return mCatalog;
+    }
+
+    /**
+     * Method used to stop watching the file. A reload in progress is still reported
+     */
+    @Override
+    public void close() throws IOException {
+        mWatchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!concernsCatalog(mWatchService.take())) {
+                    continue;
+                }
+                // Wait for the end of the save before reloading
+                WatchKey key;
+                while ((key = mWatchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    concernsCatalog(key);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Watching stopped
+        }
+    }
+
+    /**
+     * @return true if the events of the key concern the watched file. The key is reset to receive the next events
+     */
+    private boolean concernsCatalog(WatchKey key) {
+        boolean concerned = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // OVERFLOW: some events have been lost, one of them may concern the file
+            concerned |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || mCatalog.getFileName().equals(event.context());
+        }
+        key.reset();
+        return concerned;
+    }
+
+    private void reload() {
+        try {
+            if (!Files.isRegularFile(mCatalog)) {
+                // Removed, or renamed before its new version is moved in place: wait for the next event
+                return;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(mCatalog, BasicFileAttributes.class);
+            if (attributes.lastModifiedTime().equals(mLastModified) && attributes.size() == mSize) {
+                return;
+            }
+            CatalogErrors errors = new CatalogErrors();
+            Catalog reloaded = CatalogCache.open(mCatalog, errors);
+            CatalogDiff diff = CatalogDiff.compute(mCurrent, reloaded);
+            mCurrent = reloaded;
+            mLastModified = attributes.lastModifiedTime();
+            mSize = attributes.size();
+            mListener.catalogChanged(diff, errors);
+        } catch (IOException | RuntimeException e) {
+            // Reported without stopping the watch loop: the next change of the file is reloaded again
+            mListener.reloadFailed(e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.tools.dataGenerator.catalog;
+
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.content.PayloadGenerator;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * This class represents a Data Item
+ */
+public class DataItem {
+
+    /**
+     * Number of bytes in one MB, as used by the dimensions written in the configuration file
+     */
+    public static final int SIZE_MB = 1_000_000;
+
+    private String mItemName;
+    private double mDimesion;
+    private TimeSeries mTimeSeries;
+    private ContentProfile mContentProfile;
+    private SizeDistribution mSizeDistribution;
+    private Multiplicity mMultiplicity;
+    private String mMaterializer;
+
+    /**
+     * Default Constructor
+     */
+    public DataItem () {}
+
+    /**
+     * Constructor
+     * @param itemName: name of the data item. This name follows a specific file naming convention
+     * @param dimension: the dimension of the data item (expressed in MB)
+     */
+    public DataItem(String itemName, double dimension) {
+        mItemName = itemName;
+        mDimesion = dimension;
+    }
+
+    /**
+     * Constructor
+     * @param itemName: name of the data item, containing the date placeholders replaced by the time series
+     * @param dimension: the dimension of each data item of the time series (expressed in MB)
+     * @param timeSeries: the time series used to expand the data item
+     */
+    public DataItem(String itemName, double dimension, TimeSeries timeSeries) {
+        this(itemName, dimension);
+        mTimeSeries = timeSeries;
+    }
+
+    /**
+     * Constructor
+     * @param itemName: name of the data item
+     * @param dimension: the dimension of the data item (expressed in MB)
+     * @param timeSeries: the time series used to expand the data item, or null
+     * @param contentProfile: the profile of the content of the data item, or null to use the one of the job
+     */
+    public DataItem(String itemName, double dimension, TimeSeries timeSeries, ContentProfile contentProfile) {
+        this(itemName, dimension, timeSeries);
+        mContentProfile = contentProfile;
+    }
+
+    /**
+     * Constructor
+     * @param itemName: name of the data item, containing the '#' replaced by the index when the multiplicity is set
+     * @param timeSeries: the time series used to expand the data item, or null
+     * @param contentProfile: the profile of the content of the data item, or null to use the one of the job
+     * @param sizeDistribution: the distribution of the dimensions of the data items of the entry
+     * @param multiplicity: the number of data items of the entry, or null for a single one
+     */
+    public DataItem(String itemName, TimeSeries timeSeries, ContentProfile contentProfile,
+                    SizeDistribution sizeDistribution, Multiplicity multiplicity) {
+        this(itemName, sizeDistribution.getMeanDimension(), timeSeries, contentProfile);
+        mSizeDistribution = sizeDistribution;
+        mMultiplicity = multiplicity;
+    }
+
+    /**
+     * Constructor
+     * @param itemName: name of the data item, containing the '#' replaced by the index of each data item
+     * @param dimension: the dimension of each data item of the entry (expressed in MB)
+     * @param contentProfile: the profile of the content of the data item, or null to use the one of the job
+     * @param multiplicity: the number of data items of the entry
+     */
+    public DataItem(String itemName, double dimension, ContentProfile contentProfile, Multiplicity multiplicity) {
+        this(itemName, dimension, null, contentProfile);
+        mMultiplicity = multiplicity;
+    }
+
+    public String getItemName() {
+        return mItemName;
+    }
+
+    public double getDimesion() {
+        return mDimesion;
+    }
+
+    /**
+     * @return the time series used to expand this data item, or null if the data item is a single file
+     */
+    public TimeSeries getTimeSeries() {
+        return mTimeSeries;
+    }
+
+    /**
+     * @return the profile of the content of the data item, or null if the content is defined by the job
+     */
+    public ContentProfile getContentProfile() {
+        return mContentProfile;
+    }
+
+    /**
+     * @return the distribution of the dimensions of the data items of this entry, or null if they all have the
+     * dimension of the entry
+     */
+    public SizeDistribution getSizeDistribution() {
+        return mSizeDistribution;
+    }
+
+    /**
+     * @return the number of data items of this entry, or null if the entry is a single data item or a time series
+     */
+    public Multiplicity getMultiplicity() {
+        return mMultiplicity;
+    }
+
+    /**
+     * @return the name of the materializer writing the file of the data item (Ex: mmap), or null if it is defined
+     * by the job
+     */
+    public String getMaterializer() {
+        return mMaterializer;
+    }
+
+    /**
+     * @param materializer the name of the materializer writing the file of the data item, or null to use the one of
+     *                     the job. The data items expanded from this entry use the same materializer
+     */
+    public void setMaterializer(String materializer) {
+        mMaterializer = materializer;
+    }
+
+    /**
+     * @return the dimension of the data item expressed in bytes. When the dimensions follow a distribution this is
+     * the mean dimension
+     */
+    public long getSizeInBytes() {
+        return (long) (mDimesion * SIZE_MB);
+    }
+
+    /**
+     * @return the number of data items this entry expands into
+     */
+    public long getCount() {
+        if (mTimeSeries != null) {
+            return mTimeSeries.getCount();
+        }
+        return mMultiplicity != null ? mMultiplicity.getCount() : 1;
+    }
+
+    /**
+     * @return the total dimension of the data items of this entry expressed in bytes, estimated from the mean
+     * dimension when the dimensions follow a distribution
+     */
+    public long getTotalSizeInBytes() {
+        return getCount() * getSizeInBytes();
+    }
+
+    /**
+     * Method used to expand this entry into the data items to generate: the data items of its time series or of
+     * its multiplicity, or a single data item with a dimension drawn from its distribution
+     *
+     * @return a lazy iterator over the data items of this entry
+     */
+    public Iterator<DataItem> expand() {
+        if (mTimeSeries != null) {
+            return mTimeSeries.expand(this);
+        }
+        if (mMultiplicity != null) {
+            return mMultiplicity.expand(this);
+        }
+        if (mSizeDistribution != null) {
+            DataItem item = new DataItem(mItemName, newSizeSampler().nextDimension(), null, mContentProfile);
+            item.setMaterializer(mMaterializer);
+            return Collections.singletonList(item).iterator();
+        }
+        return Collections.singletonList(this).iterator();
+    }
+
+    /**
+     * @return the sampler drawing the dimensions of the data items of this entry, seeded by its name, or null if
+     * the entry has no size distribution
+     */
+    SizeDistribution.Sampler newSizeSampler() {
+        return mSizeDistribution == null ? null
+                : mSizeDistribution.newSampler(PayloadGenerator.itemSeed(0, mItemName));
+    }
+
+    /**
+     * @return the dimension in MB giving exactly the size in bytes through getSizeInBytes
+     */
+    static double dimension(long bytes) {
+        double dimension = bytes / (double) SIZE_MB;
+        while ((long) (dimension * SIZE_MB) < bytes) {
+            dimension = Math.nextUp(dimension);
+        }
+        return dimension;
+    }
+
+}
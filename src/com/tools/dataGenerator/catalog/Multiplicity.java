@@ -0,0 +1,101 @@
+package com.tools.dataGenerator.catalog;
+
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class describes an entry of the catalog repeated several times: a Data Item whose name contains a run of '#'
+ * (Ex: IMG_######.jpg) expanded into COUNT Data Items, the run being replaced by the index of the Data Item padded
+ * with zeros (IMG_000000.jpg, IMG_000001.jpg, ...).
+ * <p>
+ * In the configuration file the count follows the dimension, which is usually a size distribution
+ * (Ex: IMG_######.jpg:lognormal(4,2):1000000, see SizeDistribution): a single line describes a whole dataset.
+ * <p>
+ * As the time series, the Data Items are produced lazily: expanding an entry never holds more than one Data Item in
+ * memory.
+ */
+public class Multiplicity {
+
+    private static final char PLACEHOLDER = '#';
+
+    private final long mCount;
+
+    /**
+     * Constructor
+     *
+     * @param count number of Data Items of the entry, at least one
+     */
+    public Multiplicity(long count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("The count must be at least one: " + count);
+        }
+        mCount = count;
+    }
+
+    /**
+     * @return true if the name contains the placeholder of the index
+     */
+    public static boolean hasPlaceholder(String itemName) {
+        return itemName.indexOf(PLACEHOLDER) >= 0;
+    }
+
+    /**
+     * @return the number of Data Items of the entry
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * Method used to expand an entry into its Data Items. Their sizes are drawn from the size distribution of the
+     * template, if any, always in the same order so that the same entry gives the same sizes
+     *
+     * @param template Data Item whose name contains the placeholder of the index
+     * @return a lazy iterator over the Data Items of the entry
+     */
+    public Iterator<DataItem> expand(DataItem template) {
+        String name = template.getItemName();
+        int start = name.indexOf(PLACEHOLDER);
+        int end = start;
+        while (end < name.length() && name.charAt(end) == PLACEHOLDER) {
+            end++;
+        }
+        String head = name.substring(0, start);
+        String tail = name.substring(end);
+        int width = end - start;
+        SizeDistribution.Sampler sampler = template.newSizeSampler();
+        double dimension = template.getDimesion();
+        ContentProfile contentProfile = template.getContentProfile();
+        String materializer = template.getMaterializer();
+
+        return new Iterator<DataItem>() {
+            private final StringBuilder mName = new StringBuilder(name.length() + Long.SIZE);
+            private long mIndex;
+
+            @Override
+            public boolean hasNext() {
+                return mIndex < mCount;
+            }
+
+            @Override
+            public DataItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String index = Long.toString(mIndex++);
+                mName.setLength(0);
+                mName.append(head);
+                for (int i = index.length(); i < width; i++) {
+                    mName.append('0');
+                }
+                mName.append(index).append(tail);
+                DataItem item = new DataItem(mName.toString(), sampler == null ? dimension
+                        : sampler.nextDimension(), null, contentProfile);
+                item.setMaterializer(materializer);
+                return item;
+            }
+        };
+    }
+}
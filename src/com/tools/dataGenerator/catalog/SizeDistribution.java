@@ -0,0 +1,252 @@
+package com.tools.dataGenerator.catalog;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * This class describes how the sizes of the Data Items of a catalog entry are distributed, so that a single line of
+ * the configuration file can describe a realistic dataset. In the configuration file the distribution takes the
+ * place of the dimension, expressed in MB:
+ * <ul>
+ * <li>uniform(MIN,MAX): any size between MIN and MAX</li>
+ * <li>normal(MEAN,STDDEV): normal distribution, the negative sizes being replaced by 0</li>
+ * <li>lognormal(MEAN,STDDEV): log-normal distribution with the given mean and standard deviation, as the sizes of
+ * the files of most file systems</li>
+ * <li>hist(MIN-MAX=WEIGHT,...): empirical histogram, each bucket being drawn in proportion of its weight and its
+ * sizes uniformly between MIN and MAX (Ex: hist(0-1=70,1-100=25,100-1000=5)). A bucket can be a single size
+ * (Ex: 4=10)</li>
+ * </ul>
+ * The sizes are drawn by a Sampler, with a SplittableRandom seeded by the entry: the same entry always produces the
+ * same sizes, whatever the number of threads generating them.
+ */
+public final class SizeDistribution {
+
+    /**
+     * Number of consecutive sizes drawn from each split of the generator of an entry
+     */
+    private static final int SPLIT_SIZE = 4096;
+
+    private enum Kind {
+        UNIFORM, NORMAL, LOGNORMAL, HIST
+    }
+
+    private final Kind mKind;
+    private final String mDefinition;
+    /**
+     * Parameters of the distribution in bytes: MIN and MAX, MEAN and STDDEV, or mu and sigma of the logarithm
+     */
+    private final double mFirst;
+    private final double mSecond;
+    /**
+     * Buckets of a histogram: lower and upper bounds in bytes, cumulated weights between 0 and 1
+     */
+    private final double[] mLowerBounds;
+    private final double[] mUpperBounds;
+    private final double[] mCumulatedWeights;
+    private final double mMean;
+
+    private SizeDistribution(Kind kind, String definition, double first, double second, double[] lowerBounds,
+                             double[] upperBounds, double[] cumulatedWeights, double mean) {
+        mKind = kind;
+        mDefinition = definition;
+        mFirst = first;
+        mSecond = second;
+        mLowerBounds = lowerBounds;
+        mUpperBounds = upperBounds;
+        mCumulatedWeights = cumulatedWeights;
+        mMean = mean;
+    }
+
+    /**
+     * @return true if the field of the configuration file is a distribution rather than a dimension
+     */
+    public static boolean isDistribution(String field) {
+        return field.indexOf('(') >= 0;
+    }
+
+    /**
+     * Method used to parse a distribution as written in the configuration file (Ex: lognormal(4,2))
+     *
+     * @param definition the distribution, with its parameters expressed in MB
+     * @return the distribution
+     * @throws IllegalArgumentException if the distribution is not valid
+     */
+    public static SizeDistribution parse(String definition) {
+        String text = definition.trim();
+        int open = text.indexOf('(');
+        if (open < 0 || !text.endsWith(")")) {
+            throw new IllegalArgumentException("Expected NAME(PARAMETERS): " + definition);
+        }
+        Kind kind;
+        try {
+            kind = Kind.valueOf(text.substring(0, open).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown size distribution: " + text.substring(0, open));
+        }
+        String[] parameters = text.substring(open + 1, text.length() - 1).split(",");
+        if (kind == Kind.HIST) {
+            return parseHistogram(text, parameters);
+        }
+        if (parameters.length != 2) {
+            throw new IllegalArgumentException("Expected 2 parameters: " + definition);
+        }
+        double first = megabytes(parameters[0]);
+        double second = megabytes(parameters[1]);
+        switch (kind) {
+            case UNIFORM:
+                if (second < first) {
+                    throw new IllegalArgumentException("The maximum is below the minimum: " + definition);
+                }
+                return new SizeDistribution(kind, text, first, second, null, null, null, (first + second) / 2);
+            case NORMAL:
+                return new SizeDistribution(kind, text, first, second, null, null, null, first);
+            default:
+                if (first <= 0) {
+                    throw new IllegalArgumentException("The mean of a log-normal distribution must be positive: "
+                            + definition);
+                }
+                // Parameters of the logarithm of the sizes giving the requested mean and standard deviation
+                double variance = Math.log1p((second / first) * (second / first));
+                return new SizeDistribution(kind, text, Math.log(first) - variance / 2, Math.sqrt(variance), null,
+                        null, null, first);
+        }
+    }
+
+    private static SizeDistribution parseHistogram(String text, String[] buckets) {
+        double[] lowerBounds = new double[buckets.length];
+        double[] upperBounds = new double[buckets.length];
+        double[] cumulatedWeights = new double[buckets.length];
+        double total = 0;
+        double mean = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            int separator = buckets[i].indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected MIN-MAX=WEIGHT: " + buckets[i]);
+            }
+            String range = buckets[i].substring(0, separator);
+            int dash = range.indexOf('-');
+            lowerBounds[i] = megabytes(dash < 0 ? range : range.substring(0, dash));
+            upperBounds[i] = dash < 0 ? lowerBounds[i] : megabytes(range.substring(dash + 1));
+            double weight = Double.parseDouble(buckets[i].substring(separator + 1).trim());
+            if (upperBounds[i] < lowerBounds[i] || !(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid bucket: " + buckets[i]);
+            }
+            total += weight;
+            cumulatedWeights[i] = total;
+            mean += weight * (lowerBounds[i] + upperBounds[i]) / 2;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("The weights of the histogram are all 0: " + text);
+        }
+        for (int i = 0; i < cumulatedWeights.length; i++) {
+            cumulatedWeights[i] /= total;
+        }
+        return new SizeDistribution(Kind.HIST, text, 0, 0, lowerBounds, upperBounds, cumulatedWeights,
+                mean / total);
+    }
+
+    /**
+     * @return a size in bytes parsed from a value expressed in MB
+     */
+    private static double megabytes(String value) {
+        double megabytes = Double.parseDouble(value.trim());
+        if (!(megabytes >= 0) || Double.isInfinite(megabytes)) {
+            throw new IllegalArgumentException("Invalid size: " + value);
+        }
+        return megabytes * DataItem.SIZE_MB;
+    }
+
+    /**
+     * @return the mean size of the Data Items expressed in MB, used to estimate the size of the whole entry
+     */
+    public double getMeanDimension() {
+        return mMean / DataItem.SIZE_MB;
+    }
+
+    /**
+     * Method used to create the generator of the sizes of an entry
+     *
+     * @param seed seed of the entry (Ex: the hash of its name)
+     * @return a sampler drawing the sizes of the Data Items of the entry, in order
+     */
+    public Sampler newSampler(long seed) {
+        return new Sampler(seed);
+    }
+
+    /**
+     * @return the distribution as written in the configuration file (Ex: lognormal(4,2))
+     */
+    @Override
+    public String toString() {
+        return mDefinition;
+    }
+
+    /**
+     * @return a size in bytes drawn from the distribution
+     */
+    private long sample(SplittableRandom random) {
+        double size;
+        switch (mKind) {
+            case UNIFORM:
+                size = mFirst + (mSecond - mFirst) * random.nextDouble();
+                break;
+            case NORMAL:
+                size = mFirst + mSecond * gaussian(random);
+                break;
+            case LOGNORMAL:
+                size = Math.exp(mFirst + mSecond * gaussian(random));
+                break;
+            default:
+                // First bucket whose cumulated weight is above the drawn value: never a bucket without weight
+                double value = random.nextDouble();
+                int bucket = 0;
+                int last = mCumulatedWeights.length - 1;
+                while (bucket < last) {
+                    int middle = (bucket + last) >>> 1;
+                    if (mCumulatedWeights[middle] > value) {
+                        last = middle;
+                    } else {
+                        bucket = middle + 1;
+                    }
+                }
+                size = mLowerBounds[bucket] + (mUpperBounds[bucket] - mLowerBounds[bucket]) * random.nextDouble();
+        }
+        return size <= 0 ? 0 : Math.round(size);
+    }
+
+    /**
+     * @return a value of the standard normal distribution (Box-Muller transform, always two uniform values so that
+     * the values drawn afterwards do not depend on the result)
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    /**
+     * This class draws the sizes of the Data Items of an entry, in order. Every block of SPLIT_SIZE Data Items draws
+     * from its own split of the generator of the entry, so that the sizes of a block depend only on the seed and on
+     * the position of the block
+     */
+    public final class Sampler {
+
+        private final SplittableRandom mRoot;
+        private SplittableRandom mCurrent;
+        private long mIndex;
+
+        private Sampler(long seed) {
+            mRoot = new SplittableRandom(seed);
+        }
+
+        /**
+         * @return the dimension of the next Data Item expressed in MB
+         */
+        public double nextDimension() {
+            if (mIndex++ % SPLIT_SIZE == 0) {
+                mCurrent = mRoot.split();
+            }
+            return DataItem.dimension(sample(mCurrent));
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.tools.dataGenerator.catalog;
+
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class describes a product time series: a Data Item whose name contains date placeholders
+ * (Ex: S6A_MW____CAL__AX_YYYMMDDTHHMMSS_YYYMMDDTHHMMSS_YYYMMDDTHHMMSS_..._JPL_OPE_AL____.SEN6) expanded into one
+ * Data Item for each sensing window between a start and an end date.
+ * <p>
+ * In the configuration file a time series is declared as NAME:DIMENSION:START:END:CADENCE[:LATENCY]
+ * (Ex: S6A_RO_1B_BND_____YYYMMDDTHHMMSS_YYYMMDDTHHMMSS_YYYMMDDTHHMMSS_..._NR_001.SEN6:4:20250101T000000:20260101T000000:PT30S)
+ * where START and END are expressed as yyyyMMddTHHmmss and CADENCE and LATENCY as ISO-8601 durations.
+ * The first placeholder is replaced by the start of the sensing window, the second by its stop and the third by
+ * the creation date (stop of the window plus LATENCY, zero by default).
+ * <p>
+ * The Data Items are produced lazily: expanding a time series never holds more than one Data Item in memory.
+ */
+public class TimeSeries {
+
+    /**
+     * Format of the dates in the configuration file and in the Data Item names
+     */
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * Value returned by getSensingTime when the name of a Data Item does not contain any date
+     */
+    public static final long NO_SENSING_TIME = Long.MIN_VALUE;
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("Y{3,4}MMDDTHHMMSS");
+    private static final Pattern DATE = Pattern.compile("(?<!\\d)\\d{8}T\\d{6}(?!\\d)");
+    private static final int MAX_PLACEHOLDERS = 3;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1000};
+
+    private final long mStart;
+    private final long mEnd;
+    private final long mCadence;
+    private final long mLatency;
+
+    /**
+     * Constructor
+     *
+     * @param start   start of the first sensing window
+     * @param end     end of the time series: no sensing window starts at or after this date
+     * @param cadence duration of a sensing window, at least one second, in whole seconds
+     * @param latency delay between the stop of a sensing window and the creation of its product, in whole seconds
+     */
+    public TimeSeries(LocalDateTime start, LocalDateTime end, Duration cadence, Duration latency) {
+        if (cadence.getSeconds() < 1) {
+            throw new IllegalArgumentException("The cadence must be at least one second: " + cadence);
+        }
+        if (cadence.getNano() != 0) {
+            throw new IllegalArgumentException("The cadence must be a whole number of seconds: " + cadence);
+        }
+        if (latency.getNano() != 0) {
+            throw new IllegalArgumentException("The latency must be a whole number of seconds: " + latency);
+        }
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("The end " + end + " is before the start " + start);
+        }
+        mStart = start.toEpochSecond(ZoneOffset.UTC);
+        mEnd = end.toEpochSecond(ZoneOffset.UTC);
+        mCadence = cadence.getSeconds();
+        mLatency = latency.getSeconds();
+    }
+
+    /**
+     * Method used to parse the time series fields of a line of the configuration file
+     *
+     * @param start   start date (Ex: 20250101T000000)
+     * @param end     end date (Ex: 20260101T000000)
+     * @param cadence cadence as ISO-8601 duration (Ex: PT30S)
+     * @param latency latency as ISO-8601 duration, or null
+     * @return the time series
+     * @throws IllegalArgumentException if a field is not valid
+     */
+    public static TimeSeries parse(String start, String end, String cadence, String latency) {
+        try {
+            return new TimeSeries(LocalDateTime.parse(start.trim(), DATE_FORMAT),
+                    LocalDateTime.parse(end.trim(), DATE_FORMAT), Duration.parse(cadence.trim()),
+                    latency == null ? Duration.ZERO : Duration.parse(latency.trim()));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return true if the name contains at least one date placeholder
+     */
+    public static boolean hasPlaceholders(String itemName) {
+        return PLACEHOLDER.matcher(itemName).find();
+    }
+
+    /**
+     * @return the number of Data Items of the time series
+     */
+    public long getCount() {
+        return (mEnd - mStart + mCadence - 1) / mCadence;
+    }
+
+    /**
+     * @return the start of the first sensing window in seconds since the epoch (UTC)
+     */
+    long getStartSecond() {
+        return mStart;
+    }
+
+    long getEndSecond() {
+        return mEnd;
+    }
+
+    long getCadenceSeconds() {
+        return mCadence;
+    }
+
+    long getLatencySeconds() {
+        return mLatency;
+    }
+
+    /**
+     * @return the total dimension of the Data Items of the time series expressed in bytes
+     */
+    public long getSizeInBytes(DataItem template) {
+        return getCount() * template.getSizeInBytes();
+    }
+
+    /**
+     * Method used to expand a time series into its Data Items
+     *
+     * @param template Data Item whose name contains the date placeholders
+     * @return a lazy iterator over the Data Items of the time series
+     */
+    public Iterator<DataItem> expand(DataItem template) {
+        // The name is split once around the placeholders: only the dates change from one Data Item to the next
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(template.getItemName());
+        int from = 0;
+        while (segments.size() < MAX_PLACEHOLDERS && matcher.find()) {
+            segments.add(template.getItemName().substring(from, matcher.start()));
+            from = matcher.end();
+        }
+        String tail = template.getItemName().substring(from);
+        SizeDistribution.Sampler sampler = template.newSizeSampler();
+        double dimension = template.getDimesion();
+        ContentProfile contentProfile = template.getContentProfile();
+        String materializer = template.getMaterializer();
+        long count = getCount();
+
+        return new Iterator<DataItem>() {
+            private final StringBuilder mName = new StringBuilder(template.getItemName().length() + MAX_PLACEHOLDERS);
+            private long mIndex;
+
+            @Override
+            public boolean hasNext() {
+                return mIndex < count;
+            }
+
+            @Override
+            public DataItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long start = mStart + mIndex++ * mCadence;
+                long stop = start + mCadence;
+                long[] dates = {start, stop, stop + mLatency};
+
+                mName.setLength(0);
+                for (int i = 0; i < segments.size(); i++) {
+                    mName.append(segments.get(i));
+                    appendDate(mName, dates[i]);
+                }
+                mName.append(tail);
+                DataItem item = new DataItem(mName.toString(), sampler == null ? dimension
+                        : sampler.nextDimension(), null, contentProfile);
+                item.setMaterializer(materializer);
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Method used to expand lazily the time series and the other entries contained in a list of Data Items
+     * (see DataItem.expand). The plain Data Items are returned as they are
+     *
+     * @param dataItems Data Items, some of which can be time series
+     * @return a lazy Iterable over the expanded Data Items
+     */
+    public static Iterable<DataItem> expandAll(Iterable<DataItem> dataItems) {
+        return () -> new Iterator<DataItem>() {
+            private final Iterator<DataItem> mTemplates = dataItems.iterator();
+            private Iterator<DataItem> mCurrent = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!mCurrent.hasNext() && mTemplates.hasNext()) {
+                    DataItem template = mTemplates.next();
+                    mCurrent = template.expand();
+                }
+                return mCurrent.hasNext();
+            }
+
+            @Override
+            public DataItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return mCurrent.next();
+            }
+        };
+    }
+
+    /**
+     * Method used to expand lazily the time series contained in a list of Data Items, merging them in the order of
+     * their sensing time (see getSensingTime). The Data Items without sensing time come first, in the order of the
+     * list, and so do the Data Items with the same sensing time.
+     * <p>
+     * Every Data Item of the list is read when the iteration starts, but the time series still produce a single
+     * Data Item at a time: the memory used depends on the number of entries of the list, not on the number of
+     * Data Items they expand into
+     *
+     * @param dataItems Data Items, some of which can be time series
+     * @return a lazy Iterable over the expanded Data Items, sorted by sensing time
+     */
+    public static Iterable<DataItem> expandBySensingTime(Iterable<DataItem> dataItems) {
+        return () -> {
+            PriorityQueue<SensingTimeCursor> cursors = new PriorityQueue<>();
+            long order = 0;
+            for (DataItem template : dataItems) {
+                Iterator<DataItem> iterator = template.expand();
+                if (iterator.hasNext()) {
+                    cursors.add(new SensingTimeCursor(iterator, order++));
+                }
+            }
+            return new Iterator<DataItem>() {
+                @Override
+                public boolean hasNext() {
+                    return !cursors.isEmpty();
+                }
+
+                @Override
+                public DataItem next() {
+                    SensingTimeCursor cursor = cursors.poll();
+                    if (cursor == null) {
+                        throw new NoSuchElementException();
+                    }
+                    DataItem item = cursor.mNext;
+                    if (cursor.advance()) {
+                        cursors.add(cursor);
+                    }
+                    return item;
+                }
+            };
+        };
+    }
+
+    /**
+     * Method used to get the sensing time of a Data Item: the first date formatted as yyyyMMddTHHmmss in its name
+     * (Ex: 20250101T000000 in S6A_RO_1B_BND_____20250101T000000_20250101T000030_...)
+     *
+     * @param itemName name of the Data Item
+     * @return the sensing time in seconds since the epoch (UTC), or NO_SENSING_TIME if the name contains no date
+     */
+    public static long getSensingTime(String itemName) {
+        Matcher matcher = DATE.matcher(itemName);
+        while (matcher.find()) {
+            try {
+                return LocalDateTime.parse(matcher.group(), DATE_FORMAT).toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                // Digits that are not a valid date (Ex: an orbit number): look for the next candidate
+            }
+        }
+        return NO_SENSING_TIME;
+    }
+
+    /**
+     * Position in the Data Items produced by an entry of the list merged by expandBySensingTime
+     */
+    private static final class SensingTimeCursor implements Comparable<SensingTimeCursor> {
+
+        private final Iterator<DataItem> mIterator;
+        private final long mOrder;
+        private DataItem mNext;
+        private long mSensingTime;
+
+        private SensingTimeCursor(Iterator<DataItem> iterator, long order) {
+            mIterator = iterator;
+            mOrder = order;
+            advance();
+        }
+
+        /**
+         * @return false when the entry has no more Data Items
+         */
+        private boolean advance() {
+            if (!mIterator.hasNext()) {
+                return false;
+            }
+            mNext = mIterator.next();
+            mSensingTime = getSensingTime(mNext.getItemName());
+            return true;
+        }
+
+        @Override
+        public int compareTo(SensingTimeCursor other) {
+            int result = Long.compare(mSensingTime, other.mSensingTime);
+            return result != 0 ? result : Long.compare(mOrder, other.mOrder);
+        }
+    }
+
+    /**
+     * Method used to append a date formatted as yyyyMMddTHHmmss without creating a formatter for each Data Item
+     */
+    private static void appendDate(StringBuilder builder, long epochSecond) {
+        LocalDateTime date = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        appendDigits(builder, date.getYear(), 4);
+        appendDigits(builder, date.getMonthValue(), 2);
+        appendDigits(builder, date.getDayOfMonth(), 2);
+        builder.append('T');
+        appendDigits(builder, date.getHour(), 2);
+        appendDigits(builder, date.getMinute(), 2);
+        appendDigits(builder, date.getSecond(), 2);
+    }
+
+    private static void appendDigits(StringBuilder builder, int value, int digits) {
+        for (int divisor = POWERS_OF_TEN[digits - 1]; divisor > 0; divisor /= 10) {
+            builder.append((char) ('0' + value / divisor % 10));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.tools.dataGenerator.checksum;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * This enum lists the checksums that can be computed while the Data Items are written.
+ * <p>
+ * The CRC32C of the chunks of a Data Item are computed in parallel and combined (see Crc32c). The message digests
+ * are sequential by definition: they consume the bytes of the Data Item in order.
+ */
+public enum ChecksumAlgorithm {
+
+    MD5("MD5", "md5", "MD5SUMS"),
+    SHA256("SHA-256", "sha256", "SHA256SUMS"),
+    CRC32C(null, "crc32c", "CRC32CSUMS");
+
+    private final String mDigestName;
+    private final String mExtension;
+    private final String mSidecarName;
+
+    ChecksumAlgorithm(String digestName, String extension, String sidecarName) {
+        mDigestName = digestName;
+        mExtension = extension;
+        mSidecarName = sidecarName;
+    }
+
+    /**
+     * @return true when the checksum of a Data Item can be computed from the checksums of its chunks
+     */
+    public boolean isCombinable() {
+        return mDigestName == null;
+    }
+
+    /**
+     * @return the extension of the checksum file written next to each Data Item (Ex: md5 for NAME.md5)
+     */
+    public String getExtension() {
+        return mExtension;
+    }
+
+    /**
+     * @return the name of the file listing the checksums of every Data Item of the output directory
+     */
+    public String getSidecarName() {
+        return mSidecarName;
+    }
+
+    /**
+     * @return a new message digest for this algorithm
+     * @throws IllegalStateException if the algorithm is combinable, or not available in the JVM
+     */
+    public MessageDigest newMessageDigest() {
+        if (isCombinable()) {
+            throw new IllegalStateException(this + " is not a message digest");
+        }
+        try {
+            return MessageDigest.getInstance(mDigestName);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Method used to parse the name of an algorithm as written on the command line (Ex: md5, sha256, crc32c)
+     *
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static ChecksumAlgorithm parse(String name) {
+        String normalized = name.trim().replace("-", "");
+        for (ChecksumAlgorithm algorithm : values()) {
+            if (algorithm.name().equalsIgnoreCase(normalized)) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown checksum algorithm: " + name);
+    }
+}
@@ -0,0 +1,90 @@
+package com.tools.dataGenerator.checksum;
+
+/**
+ * Helper methods for the CRC32C (Castagnoli) checksums computed by java.util.zip.CRC32C.
+ * <p>
+ * The CRC of two consecutive blocks of bytes can be combined into the CRC of their concatenation knowing only the
+ * length of the second block (same method as crc32_combine in zlib): the chunks of a Data Item written in parallel
+ * are checksummed independently and combined in order once written.
+ */
+public final class Crc32c {
+
+    /**
+     * Reversed Castagnoli polynomial
+     */
+    private static final int POLYNOMIAL = 0x82F63B78;
+
+    private static final int BITS = 32;
+
+    private Crc32c() {}
+
+    /**
+     * Method used to combine the CRC32C of two consecutive blocks of bytes
+     *
+     * @param crc1   CRC32C of the first block
+     * @param crc2   CRC32C of the second block
+     * @param length length in bytes of the second block
+     * @return the CRC32C of the first block followed by the second block
+     */
+    public static int combine(int crc1, int crc2, long length) {
+        if (length <= 0) {
+            return crc1;
+        }
+        int[] even = new int[BITS];
+        int[] odd = new int[BITS];
+
+        // Operator appending one zero bit
+        odd[0] = POLYNOMIAL;
+        int row = 1;
+        for (int n = 1; n < BITS; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // Operators appending two and four zero bits
+        square(even, odd);
+        square(odd, even);
+
+        // Apply the operator appending length zero bytes to crc1, squaring it for each bit of length
+        int crc = crc1;
+        long remaining = length;
+        do {
+            square(even, odd);
+            if ((remaining & 1) != 0) {
+                crc = times(even, crc);
+            }
+            remaining >>>= 1;
+            if (remaining == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((remaining & 1) != 0) {
+                crc = times(odd, crc);
+            }
+            remaining >>>= 1;
+        } while (remaining != 0);
+        return crc ^ crc2;
+    }
+
+    /**
+     * @return the checksum formatted as 8 hexadecimal digits
+     */
+    public static String toHex(int crc) {
+        return String.format("%08x", crc);
+    }
+
+    private static int times(int[] matrix, int vector) {
+        int sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void square(int[] square, int[] matrix) {
+        for (int n = 0; n < BITS; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.tools.dataGenerator.content;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * This class describes and produces realistic content for the Data Items: a target compression ratio and a
+ * fraction of duplicate blocks, so that the compression and deduplication stages of a pipeline see the same
+ * behaviour as with the real products.
+ * <p>
+ * The content is made of blocks of BLOCK_SIZE bytes, aligned on the positions in the Data Item. Each block
+ * starts with an 8 bytes stamp, followed by bytes copied from a dictionary of pseudo-random bytes, followed by
+ * zeros: the random part is sized so that a general-purpose compressor (gzip, zstd, ...) reduces the block by the
+ * target ratio. The stamp makes every block unique, except the duplicate blocks: each of them is a copy of an
+ * earlier block of the same Data Item, so that a deduplicating storage stores only the other blocks, whatever the
+ * size of the Data Item and of the dataset.
+ * <p>
+ * Like the content of PayloadGenerator, each block is a deterministic function of the seeds and of its position,
+ * so any range of a Data Item can be produced independently. The dictionary is computed once; producing the
+ * content only copies it and allocates no object.
+ */
+public final class ContentProfile {
+
+    /**
+     * Size of the blocks the ratios apply to: 4 KiB, the block size of most deduplicating file systems
+     */
+    public static final int BLOCK_SIZE = 4096;
+
+    /**
+     * Profile used when none is configured: content compressible by half, no duplicate
+     */
+    public static final ContentProfile DEFAULT = new ContentProfile(2, 0);
+
+    private static final String RATIO_KEY = "ratio";
+    private static final String DUPLICATES_KEY = "dup";
+
+    private static final int STAMP_SIZE = 8;
+
+    /**
+     * Bytes added by the compressor to the compressed random bytes of a block (Huffman coding of the literals and
+     * matches covering the zeros), subtracted from the random part to keep the target ratio
+     */
+    private static final int COMPRESSION_OVERHEAD = 16;
+
+    private static final byte[] ZEROS = new byte[BLOCK_SIZE];
+
+    private final double mCompressionRatio;
+    private final double mDuplicateFraction;
+    /**
+     * Number of incompressible bytes at the beginning of each block, stamp included
+     */
+    private final int mRandomLength;
+    /**
+     * A block is a duplicate when the 53 high bits of its hash are below this threshold
+     */
+    private final long mDuplicateThreshold;
+
+    /**
+     * Constructor
+     *
+     * @param compressionRatio  target ratio between the size of the content and its compressed size, at least 1
+     * @param duplicateFraction fraction of the blocks that are duplicates, between 0 and 1
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public ContentProfile(double compressionRatio, double duplicateFraction) {
+        if (!(compressionRatio >= 1) || Double.isInfinite(compressionRatio)) {
+            throw new IllegalArgumentException("The compression ratio must be at least 1: " + compressionRatio);
+        }
+        if (!(duplicateFraction >= 0 && duplicateFraction <= 1)) {
+            throw new IllegalArgumentException("The duplicate fraction must be between 0 and 1: "
+                    + duplicateFraction);
+        }
+        mCompressionRatio = compressionRatio;
+        mDuplicateFraction = duplicateFraction;
+        mRandomLength = compressionRatio == 1 ? BLOCK_SIZE
+                : Math.max(STAMP_SIZE, (int) Math.round(BLOCK_SIZE / compressionRatio) - COMPRESSION_OVERHEAD);
+        mDuplicateThreshold = (long) Math.ceil(duplicateFraction * (1L << 53));
+    }
+
+    /**
+     * Method used to parse a profile written as comma separated key=value pairs (Ex: ratio=2.5,dup=0.3).
+     * A missing key takes the value of the DEFAULT profile
+     *
+     * @param profile the profile to parse
+     * @return the profile
+     * @throws IllegalArgumentException if the profile is not valid
+     */
+    public static ContentProfile parse(String profile) {
+        double ratio = DEFAULT.mCompressionRatio;
+        double duplicates = DEFAULT.mDuplicateFraction;
+        for (String pair : profile.split(",")) {
+            int separator = pair.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Missing '=' in the content profile: " + pair);
+            }
+            String key = pair.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            double value = Double.parseDouble(pair.substring(separator + 1).trim());
+            if (key.equals(RATIO_KEY)) {
+                ratio = value;
+            } else if (key.equals(DUPLICATES_KEY)) {
+                duplicates = value;
+            } else {
+                throw new IllegalArgumentException("Unknown key in the content profile: " + key);
+            }
+        }
+        return new ContentProfile(ratio, duplicates);
+    }
+
+    public double getCompressionRatio() {
+        return mCompressionRatio;
+    }
+
+    public double getDuplicateFraction() {
+        return mDuplicateFraction;
+    }
+
+    /**
+     * Method used to fill the remaining bytes of the buffer with the content of a Data Item.
+     * On return the position of the buffer is equal to its limit.
+     *
+     * @param buffer   buffer to fill
+     * @param itemSeed seed of the Data Item (see PayloadGenerator.itemSeed)
+     * @param offset   position, within the Data Item, of the first byte written into the buffer
+     */
+    public void fill(ByteBuffer buffer, long itemSeed, long offset) {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            long block = position / BLOCK_SIZE;
+            int from = (int) (position - block * BLOCK_SIZE);
+            int length = Math.min(BLOCK_SIZE - from, buffer.remaining());
+            writeBlock(buffer, blockStamp(itemSeed, block), from, from + length);
+            position += length;
+        }
+    }
+
+    /**
+     * @return the stamp of a block: unique for each block of each Data Item, except for the duplicate blocks
+     * which take the stamp of the earlier block they copy. The first block is never a duplicate
+     */
+    private long blockStamp(long itemSeed, long block) {
+        long hash = PayloadGenerator.wordAt(itemSeed, block);
+        while (block > 0 && (hash >>> 11) < mDuplicateThreshold) {
+            // The copied block can be a duplicate too: follow the copies down to a unique block
+            block = Long.remainderUnsigned(PayloadGenerator.wordAt(~itemSeed, block), block);
+            hash = PayloadGenerator.wordAt(itemSeed, block);
+        }
+        return hash;
+    }
+
+    /**
+     * Method used to write the bytes of a block between from (inclusive) and to (exclusive)
+     */
+    private void writeBlock(ByteBuffer buffer, long stamp, int from, int to) {
+        int position = from;
+        while (position < to && position < STAMP_SIZE) {
+            buffer.put((byte) (stamp >>> (position << 3)));
+            position++;
+        }
+        int randomEnd = Math.min(to, mRandomLength);
+        if (position < randomEnd) {
+            int start = (int) ((stamp >>> 1) % Dictionary.START_POSITIONS);
+            buffer.put(Dictionary.BYTES, start + position, randomEnd - position);
+            position = randomEnd;
+        }
+        if (position < to) {
+            buffer.put(ZEROS, 0, to - position);
+        }
+    }
+
+    /**
+     * @return the profile as written in the configuration file (Ex: ratio=2.5,dup=0.3)
+     */
+    @Override
+    public String toString() {
+        return RATIO_KEY + "=" + mCompressionRatio + "," + DUPLICATES_KEY + "=" + mDuplicateFraction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContentProfile)) {
+            return false;
+        }
+        ContentProfile other = (ContentProfile) o;
+        return Double.compare(mCompressionRatio, other.mCompressionRatio) == 0
+                && Double.compare(mDuplicateFraction, other.mDuplicateFraction) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(mCompressionRatio) + Double.hashCode(mDuplicateFraction);
+    }
+
+    /**
+     * The pseudo-random bytes copied into the blocks, computed the first time a profiled content is produced
+     */
+    private static final class Dictionary {
+
+        /**
+         * Size of the dictionary: 4 MiB, much larger than the window of the compressors, so that the blocks
+         * copied from it are not found again by the compressor
+         */
+        private static final int SIZE = 4 << 20;
+        private static final long SEED = 0x2545F4914F6CDD1DL;
+
+        private static final byte[] BYTES = create();
+        private static final int START_POSITIONS = SIZE - BLOCK_SIZE;
+
+        private static byte[] create() {
+            ByteBuffer dictionary = ByteBuffer.allocate(SIZE);
+            PayloadGenerator.fill(dictionary, SEED, 0);
+            return dictionary.array();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.tools.dataGenerator.content;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * This class produces the deterministic pseudo-random content of the Data Items.
+ * <p>
+ * Each 8 bytes word of a Data Item is computed from the seed of the Data Item and from the position of the word
+ * (SplitMix64 applied to a counter), so that any range of a Data Item can be produced independently from the
+ * others: the content does not depend on how the Data Item is split into chunks nor on the number of threads
+ * writing it. No object is allocated while the content is produced.
+ */
+public final class PayloadGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private PayloadGenerator() {}
+
+    /**
+     * Method used to compute the seed of a Data Item from the seed of the run and from the Data Item name
+     *
+     * @param seed     seed of the run
+     * @param itemName name of the Data Item
+     * @return the seed of the Data Item
+     */
+    public static long itemSeed(long seed, String itemName) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < itemName.length(); i++) {
+            hash ^= itemName.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(seed ^ hash);
+    }
+
+    /**
+     * Method used to fill the remaining bytes of the buffer with the content of a Data Item.
+     * On return the position of the buffer is equal to its limit.
+     *
+     * @param buffer   buffer to fill
+     * @param itemSeed seed of the Data Item (see itemSeed)
+     * @param offset   position, within the Data Item, of the first byte written into the buffer
+     */
+    public static void fill(ByteBuffer buffer, long itemSeed, long offset) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        long position = offset;
+        // Leading bytes, up to the first word boundary
+        while (buffer.hasRemaining() && (position & 7) != 0) {
+            buffer.put(byteAt(itemSeed, position++));
+        }
+        long word = position >>> 3;
+        while (buffer.remaining() >= 8) {
+            buffer.putLong(wordAt(itemSeed, word++));
+        }
+        // Trailing bytes of the last, partial, word
+        position = word << 3;
+        while (buffer.hasRemaining()) {
+            buffer.put(byteAt(itemSeed, position++));
+        }
+
+        buffer.order(order);
+    }
+
+    /**
+     * @return the value of the 8 bytes word at the given index of the Data Item
+     */
+    static long wordAt(long itemSeed, long word) {
+        return mix(itemSeed + word * GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return the value of the byte at the given position of the Data Item
+     */
+    static byte byteAt(long itemSeed, long position) {
+        return (byte) (wordAt(itemSeed, position >>> 3) >>> ((position & 7) << 3));
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
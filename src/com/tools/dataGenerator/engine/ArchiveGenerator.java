@@ -0,0 +1,240 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.catalog.TimeSeries;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.checksum.Crc32c;
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.content.PayloadGenerator;
+import com.tools.dataGenerator.packaging.ArchiveFormat;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * This class generates the Data Items of a GenerationJob directly into an archive (tar, tar.gz or zip, see
+ * ArchiveFormat), for the deliverables that are an archive: the content of the Data Items is written into the
+ * archive stream as it is produced, so no file is written to the output directory and read back, and no temporary
+ * disk space is needed besides the archive itself.
+ * <p>
+ * The sparse Data Items are stored as sparse entries in the tar formats: only their header is written, whatever
+ * their size. In the zip format their zeros are compressed. The RANDOM Data Items are stored without compression in
+ * the zip format, since they cannot be compressed. The tar.gz archives are compressed by the workers of the job
+ * (see ParallelGzipOutputStream).
+ * <p>
+ * The checksums of the job are computed while the Data Items are written, and added to the archive next to each
+ * Data Item (Ex: NAME.md5) or, with the sidecar output, as one entry per algorithm at the end of the archive
+ * (Ex: MD5SUMS). The archive is written to a temporary file renamed once complete: a cancelled or failed run leaves
+ * no partial archive. The archive is always generated as a whole: the Manifest of the incremental runs is not used.
+ */
+public class ArchiveGenerator {
+
+    /**
+     * Size of the buffer the content of the Data Items is produced into: 1 MiB
+     */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    /**
+     * Method used to generate the Data Items of a job into an archive. The output directory of the job is not used
+     *
+     * @param job     the job to run
+     * @param archive path of the archive to create, its format is given by its extension (see ArchiveFormat)
+     * @return the outcome of the run
+     * @throws IOException if the archive cannot be written. The partial archive is deleted
+     */
+    public GenerationResult run(GenerationJob job, Path archive) throws IOException {
+        ArchiveFormat format = ArchiveFormat.fromFileName(archive);
+        Path target = archive.toAbsolutePath().normalize();
+        Files.createDirectories(target.getParent());
+        Path partial = target.resolveSibling(target.getFileName() + PARTIAL_SUFFIX);
+
+        GenerationProgress progress = job.getProgress();
+        GenerationStatistics statistics = new GenerationStatistics();
+        Map<ChecksumAlgorithm, StringBuilder> sidecars = new EnumMap<>(ChecksumAlgorithm.class);
+        byte[] buffer = new byte[WRITE_BUFFER_SIZE];
+        long modTime = System.currentTimeMillis();
+        long bytes = 0;
+
+        long start = System.nanoTime();
+        boolean moved = false;
+        try {
+            boolean finished = false;
+            ArchiveOutputStream out = format.open(partial, job.getWorkers());
+            try {
+                for (DataItem item : TimeSeries.expandAll(job.getDataItems())) {
+                    if (progress.isCancelled()) {
+                        break;
+                    }
+                    Map<ChecksumAlgorithm, String> checksums = writeItem(out, format, item, job, modTime, buffer,
+                            statistics);
+                    if (checksums == null) {
+                        break;
+                    }
+                    for (Map.Entry<ChecksumAlgorithm, String> checksum : checksums.entrySet()) {
+                        String line = ChecksumWriter.formatLine(checksum.getValue(), item.getItemName());
+                        if (job.getChecksumOutput() == ChecksumOutput.PER_FILE) {
+                            writeSmallEntry(out, format, item.getItemName() + "." + checksum.getKey().getExtension(),
+                                    line, modTime);
+                        } else {
+                            sidecars.computeIfAbsent(checksum.getKey(), algorithm -> new StringBuilder())
+                                    .append(line);
+                        }
+                    }
+                    progress.itemCreated();
+                    bytes += item.getSizeInBytes();
+                }
+                if (!progress.isCancelled()) {
+                    for (Map.Entry<ChecksumAlgorithm, StringBuilder> sidecar : sidecars.entrySet()) {
+                        writeSmallEntry(out, format, sidecar.getKey().getSidecarName(), sidecar.getValue().toString(),
+                                modTime);
+                    }
+                    out.finish();
+                    finished = true;
+                }
+            } finally {
+                close(out, finished);
+            }
+            if (finished) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+                moved = true;
+            }
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(partial);
+            }
+        }
+
+        return new GenerationResult(progress.getCreatedItems(), 0, bytes, System.nanoTime() - start, new TreeMap<>(),
+                progress.isCancelled(), statistics);
+    }
+
+    /**
+     * Method used to write a Data Item into the archive
+     *
+     * @return the checksums of the Data Item formatted as hexadecimal strings, or null if the job has been cancelled
+     * while the Data Item was written
+     */
+    private static Map<ChecksumAlgorithm, String> writeItem(ArchiveOutputStream out, ArchiveFormat format,
+                                                            DataItem item, GenerationJob job, long modTime,
+                                                            byte[] buffer, GenerationStatistics statistics)
+            throws IOException {
+        String name = item.getItemName();
+        long size = item.getSizeInBytes();
+        boolean sparse = job.getContentMode(item) == ContentMode.SPARSE;
+        ContentProfile contentProfile = job.getContentProfile(item);
+        long itemSeed = PayloadGenerator.itemSeed(job.getSeed(), name);
+        GenerationProgress progress = job.getProgress();
+
+        List<ChecksumAlgorithm> digestAlgorithms = new ArrayList<>();
+        List<MessageDigest> digests = new ArrayList<>();
+        for (ChecksumAlgorithm algorithm : job.getChecksums()) {
+            if (!algorithm.isCombinable()) {
+                digestAlgorithms.add(algorithm);
+                digests.add(algorithm.newMessageDigest());
+            }
+        }
+        CRC32C crc = job.getChecksums().contains(ChecksumAlgorithm.CRC32C) ? new CRC32C() : null;
+
+        ItemWriteEvent event = new ItemWriteEvent();
+        event.begin();
+        long begin = System.nanoTime();
+        boolean sparseEntry = sparse && size > 0 && format.supportsSparseEntries();
+        if (sparseEntry) {
+            format.putSparseEntry(out, name, size, modTime);
+        } else {
+            out.putArchiveEntry(format.newEntry(name, size, modTime, job.getContentMode(item) != ContentMode.RANDOM));
+        }
+        if (sparse) {
+            Arrays.fill(buffer, (byte) 0);
+        }
+
+        if (sparseEntry && digests.isEmpty() && crc == null) {
+            progress.bytesWritten(size);
+        } else {
+            // The content of a sparse entry is produced only to compute its checksums
+            ByteBuffer content = ByteBuffer.wrap(buffer);
+            int length;
+            for (long position = 0; position < size; position += length) {
+                length = (int) Math.min(buffer.length, size - position);
+                if (!sparse) {
+                    content.clear().limit(length);
+                    ItemWriter.fill(content, contentProfile, itemSeed, position);
+                }
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, length);
+                }
+                if (crc != null) {
+                    crc.update(buffer, 0, length);
+                }
+                if (!sparseEntry) {
+                    out.write(buffer, 0, length);
+                }
+                progress.bytesWritten(length);
+                if (progress.isCancelled()) {
+                    return null;
+                }
+            }
+        }
+        if (!sparseEntry) {
+            out.closeArchiveEntry();
+        }
+        long writeNanos = System.nanoTime() - begin;
+        event.end();
+        if (event.shouldCommit()) {
+            event.item = name;
+            event.offset = 0;
+            event.bytes = size;
+            event.commit();
+        }
+        statistics.itemCompleted(writeNanos, 0, writeNanos, 0, 0);
+
+        Map<ChecksumAlgorithm, String> checksums = new EnumMap<>(ChecksumAlgorithm.class);
+        for (int i = 0; i < digests.size(); i++) {
+            checksums.put(digestAlgorithms.get(i), ItemWriter.toHex(digests.get(i).digest()));
+        }
+        if (crc != null) {
+            checksums.put(ChecksumAlgorithm.CRC32C, Crc32c.toHex((int) crc.getValue()));
+        }
+        return checksums;
+    }
+
+    /**
+     * Method used to add an entry whose content is a short text (Ex: a checksum file)
+     */
+    private static void writeSmallEntry(ArchiveOutputStream out, ArchiveFormat format, String name, String content,
+                                        long modTime) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        out.putArchiveEntry(format.newEntry(name, bytes.length, modTime, true));
+        out.write(bytes);
+        out.closeArchiveEntry();
+    }
+
+    /**
+     * Method used to close the archive. An archive left with an open entry by a cancellation or a failure cannot be
+     * finished: the error is ignored since the partial archive is deleted
+     */
+    private static void close(ArchiveOutputStream out, boolean finished) throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (finished) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * This class contains the outcome of the planning of a generation run (see CapacityPlanner): what the run is going to
+ * write on each file system, the room left on it, the estimated duration of the run, and the reasons to refuse it.
+ */
+public class CapacityPlan {
+
+    /**
+     * This class describes what a run writes on a file system, shared by the volumes of the job it holds
+     */
+    public static class FileSystem {
+
+        private final String mName;
+        private final List<Path> mDirectories = new ArrayList<>();
+        private long mItems;
+        private long mBytes;
+        private long mFiles;
+        private final long mUsableBytes;
+        private final long mReservedBytes;
+        private final long mFreeInodes;
+        private final long mReservedInodes;
+
+        /**
+         * Constructor
+         *
+         * @param name           name of the file system (Ex: /dev/sda1)
+         * @param usableBytes    bytes available on the file system
+         * @param reservedBytes  bytes of the file system that the run must leave free
+         * @param freeInodes     files that can still be created on the file system, -1 when unknown
+         * @param reservedInodes files of the file system that the run must leave free
+         */
+        FileSystem(String name, long usableBytes, long reservedBytes, long freeInodes, long reservedInodes) {
+            mName = name;
+            mUsableBytes = usableBytes;
+            mReservedBytes = reservedBytes;
+            mFreeInodes = freeInodes;
+            mReservedInodes = reservedInodes;
+        }
+
+        void addDirectory(Path directory) {
+            mDirectories.add(directory);
+        }
+
+        void add(long items, long bytes, long files) {
+            mItems += items;
+            mBytes += bytes;
+            mFiles += files;
+        }
+
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * @return the volumes of the job on this file system
+         */
+        public List<Path> getDirectories() {
+            return Collections.unmodifiableList(mDirectories);
+        }
+
+        /**
+         * @return the number of Data Items written on the file system
+         */
+        public long getItems() {
+            return mItems;
+        }
+
+        /**
+         * @return the bytes the run takes on the file system, net of the files it overwrites. Sparse Data Items take
+         * none
+         */
+        public long getBytes() {
+            return Math.max(mBytes, 0);
+        }
+
+        /**
+         * @return the number of files the run creates on the file system
+         */
+        public long getFiles() {
+            return mFiles;
+        }
+
+        public long getUsableBytes() {
+            return mUsableBytes;
+        }
+
+        public long getReservedBytes() {
+            return mReservedBytes;
+        }
+
+        /**
+         * @return the number of files that can still be created on the file system, -1 when unknown
+         */
+        public long getFreeInodes() {
+            return mFreeInodes;
+        }
+
+        public long getReservedInodes() {
+            return mReservedInodes;
+        }
+
+        /**
+         * @return true if the run leaves at least the reserved bytes free
+         */
+        public boolean hasSpace() {
+            return getBytes() <= mUsableBytes - mReservedBytes;
+        }
+
+        /**
+         * @return true if the run leaves at least the reserved inodes free, or if the free inodes are unknown
+         */
+        public boolean hasInodes() {
+            return mFreeInodes < 0 || mFiles <= mFreeInodes - mReservedInodes;
+        }
+    }
+
+    private final List<FileSystem> mFileSystems;
+    private final long mItems;
+    private final long mBytes;
+    private final long mEstimatedNanos;
+    private final String mEstimateSource;
+    private final List<String> mWarnings;
+
+    /**
+     * Constructor
+     *
+     * @param fileSystems    file systems written by the run
+     * @param items          number of Data Items to generate, not counting those already complete
+     * @param bytes          size in bytes of the Data Items to generate
+     * @param estimatedNanos estimated duration of the run, -1 when unknown
+     * @param estimateSource how the duration has been estimated (Ex: throughput probe), null when unknown
+     * @param warnings       conditions that do not prevent the run (Ex: free inodes unknown)
+     */
+    CapacityPlan(List<FileSystem> fileSystems, long items, long bytes, long estimatedNanos, String estimateSource,
+                 List<String> warnings) {
+        mFileSystems = Collections.unmodifiableList(new ArrayList<>(fileSystems));
+        mItems = items;
+        mBytes = bytes;
+        mEstimatedNanos = estimatedNanos;
+        mEstimateSource = estimateSource;
+        mWarnings = Collections.unmodifiableList(new ArrayList<>(warnings));
+    }
+
+    public List<FileSystem> getFileSystems() {
+        return mFileSystems;
+    }
+
+    /**
+     * @return the number of Data Items to generate, not counting those already completed by a previous run
+     */
+    public long getItems() {
+        return mItems;
+    }
+
+    /**
+     * @return the size in bytes of the Data Items to generate
+     */
+    public long getBytes() {
+        return mBytes;
+    }
+
+    /**
+     * @return the estimated duration of the run, -1 when it cannot be estimated
+     */
+    public long getEstimatedNanos() {
+        return mEstimatedNanos;
+    }
+
+    /**
+     * @return how the duration has been estimated, null when it has not
+     */
+    public String getEstimateSource() {
+        return mEstimateSource;
+    }
+
+    public List<String> getWarnings() {
+        return mWarnings;
+    }
+
+    /**
+     * @return the reasons to refuse the run: the file systems it would fill beyond their reserve. Empty when the run
+     * can start
+     */
+    public List<String> getProblems() {
+        List<String> problems = new ArrayList<>();
+        for (FileSystem fileSystem : mFileSystems) {
+            if (!fileSystem.hasSpace()) {
+                problems.add(String.format(Locale.ROOT, "%s needs %s on %s, only %s available beyond the %s reserved",
+                        fileSystem.getDirectories().get(0), megabytes(fileSystem.getBytes()), fileSystem.getName(),
+                        megabytes(Math.max(fileSystem.getUsableBytes() - fileSystem.getReservedBytes(), 0)),
+                        megabytes(fileSystem.getReservedBytes())));
+            }
+            if (!fileSystem.hasInodes()) {
+                problems.add(String.format(Locale.ROOT, "%s needs %d files on %s, only %d inodes available beyond the"
+                                + " %d reserved", fileSystem.getDirectories().get(0), fileSystem.getFiles(),
+                        fileSystem.getName(), Math.max(fileSystem.getFreeInodes() - fileSystem.getReservedInodes(), 0),
+                        fileSystem.getReservedInodes()));
+            }
+        }
+        return problems;
+    }
+
+    /**
+     * @return true if the run fits on every file system
+     */
+    public boolean isAdmitted() {
+        return getProblems().isEmpty();
+    }
+
+    /**
+     * @return the plan as text, one line for the run then one line per file system (Ex: Plan: 120 Data Items,
+     * 4200.0 MB to write, estimated 12.5 s from the throughput probe)
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Plan: %d Data Items, %s to write", mItems, megabytes(mBytes)));
+        if (mEstimatedNanos >= 0) {
+            text.append(String.format(Locale.ROOT, ", estimated %.1f s from %s", mEstimatedNanos / 1e9,
+                    mEstimateSource));
+        }
+        for (FileSystem fileSystem : mFileSystems) {
+            text.append(String.format(Locale.ROOT, "%n  %s: %s and %d files on %s, %s available",
+                    fileSystem.getDirectories().size() == 1 ? fileSystem.getDirectories().get(0).toString()
+                            : fileSystem.getDirectories().toString(),
+                    megabytes(fileSystem.getBytes()), fileSystem.getFiles(), fileSystem.getName(),
+                    megabytes(fileSystem.getUsableBytes())));
+            if (fileSystem.getFreeInodes() >= 0) {
+                text.append(", ").append(fileSystem.getFreeInodes()).append(" inodes free");
+            }
+        }
+        return text.toString();
+    }
+
+    private static String megabytes(long bytes) {
+        return String.format(Locale.ROOT, "%.1f MB", bytes / (double) DataItem.SIZE_MB);
+    }
+}
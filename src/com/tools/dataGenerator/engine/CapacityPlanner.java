@@ -0,0 +1,367 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.catalog.TimeSeries;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * This class plans a generation run before it starts, so that a run that cannot fit on its file systems is refused
+ * instead of failing once they are full, and so that the generators do not fill a file system shared with others.
+ * <p>
+ * The Data Items of the job are placed on the volumes by the PlacementPolicy of the job, as the Generator does, and
+ * those already completed by a previous run are left out (see Manifest). The bytes and the files of the run are then
+ * summed for each file system and compared with the usable space and the free inodes of the file system, a fraction
+ * of which is reserved. The free inodes are read with df, the JDK not giving them: they are not checked where df is
+ * not available. Sparse Data Items take no space, only an inode, unless their materializer allocates their files (see
+ * StandardMaterializer.ZERO_FILL). The Data Items hard linked to the first Data Item of their template (see
+ * CloneMethod.HARD_LINK) take neither space nor inode; the clones made by the other methods are counted as copies.
+ * <p>
+ * The duration of the run is estimated from the throughput of the last run with the same settings recorded in a
+ * report (see RunReport), or else from a short probe: a few small and large Data Items are generated with the
+ * settings of the job in a temporary directory on the file system of the first volume, which gives the time spent
+ * per file and per byte. Without fsync the probe measures the page cache, so the estimate of a run larger than the
+ * memory is optimistic.
+ */
+public class CapacityPlanner {
+
+    /**
+     * Default fraction of the space and of the inodes of each file system left free by the run: 5 %
+     */
+    public static final double DEFAULT_RESERVE = 0.05;
+
+    /**
+     * The duration is not probed for the runs writing fewer bytes and Data Items: they take about as long as the probe
+     */
+    private static final long MIN_PROBED_BYTES = 256L << 20;
+    private static final long MIN_PROBED_ITEMS = 10_000;
+
+    /**
+     * Small Data Items of the probe, measuring the time spent per file: 128 Data Items of 4 kB
+     */
+    private static final int PROBE_FILES = 128;
+    private static final double PROBE_FILE_MB = 0.004;
+
+    /**
+     * Large Data Items of the probe, measuring the time spent per byte: one per worker, between 4 and 16, of 8 MB
+     */
+    private static final int MIN_PROBE_ITEMS = 4;
+    private static final int MAX_PROBE_ITEMS = 16;
+    private static final double PROBE_ITEM_MB = 8;
+    private static final String PROBE_PREFIX = ".datagenerator-probe";
+
+    /**
+     * Bytes of a line of the Manifest, and of a line of a sidecar checksum file (up to 64 hexadecimal digits for
+     * SHA-256), besides the name of the Data Item
+     */
+    private static final int MANIFEST_LINE_BYTES = 64;
+    private static final int SIDECAR_LINE_BYTES = 68;
+
+    /**
+     * Block size assumed when the file system does not give its own: 4 KiB
+     */
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
+
+    private static final long DF_TIMEOUT_SECONDS = 5;
+
+    private double mReserve = DEFAULT_RESERVE;
+    private boolean mProbe = true;
+    private Path mReport;
+
+    /**
+     * @param reserve fraction of the space and of the inodes of each file system that the run must leave free,
+     *                between 0 and 1
+     */
+    public void setReserve(double reserve) {
+        if (!(reserve >= 0 && reserve < 1)) {
+            throw new IllegalArgumentException("The reserve must be between 0 and 100 %: " + reserve * 100);
+        }
+        mReserve = reserve;
+    }
+
+    /**
+     * @param probe false to never probe the throughput: the duration is then estimated from the report only
+     */
+    public void setProbe(boolean probe) {
+        mProbe = probe;
+    }
+
+    /**
+     * @param report report of the previous runs (see RunReport), used to estimate the duration instead of the probe
+     *               when it records a run with the same settings. Null for none
+     */
+    public void setReport(Path report) {
+        mReport = report;
+    }
+
+    /**
+     * Method used to plan a job. Nothing is written on the file systems of the job, except the temporary directory
+     * of the probe
+     *
+     * @param job the job to plan
+     * @return the plan of the job
+     * @throws IOException          if the volumes or their Manifest cannot be read
+     * @throws InterruptedException if the calling thread is interrupted while the throughput is probed
+     */
+    public CapacityPlan plan(GenerationJob job) throws IOException, InterruptedException {
+        List<Path> directories = job.getVolumes();
+        List<String> warnings = new ArrayList<>();
+        Map<FileStore, CapacityPlan.FileSystem> fileSystems = new LinkedHashMap<>();
+        CapacityPlan.FileSystem[] volumeFileSystems = new CapacityPlan.FileSystem[directories.size()];
+        long[] blockSizes = new long[directories.size()];
+        Manifest[] manifests = new Manifest[directories.size()];
+        for (int i = 0; i < directories.size(); i++) {
+            Path existing = existingAncestor(directories.get(i));
+            FileStore store = Files.getFileStore(existing);
+            CapacityPlan.FileSystem fileSystem = fileSystems.get(store);
+            if (fileSystem == null) {
+                fileSystem = newFileSystem(store, existing, warnings);
+                fileSystems.put(store, fileSystem);
+            }
+            fileSystem.addDirectory(directories.get(i));
+            volumeFileSystems[i] = fileSystem;
+            blockSizes[i] = blockSize(store);
+            manifests[i] = Manifest.readOnly(directories.get(i), job.getManifestName());
+        }
+
+        int checksumFiles = job.getChecksumOutput() == ChecksumOutput.PER_FILE ? job.getChecksums().size() : 0;
+        int sidecarLines = job.getChecksumOutput() == ChecksumOutput.SIDECAR ? job.getChecksums().size() : 0;
+        PlacementPolicy placementPolicy = job.getPlacementPolicy();
+        long[] assignedBytes = new long[directories.size()];
+        List<Set<String>> cloneKeys = new ArrayList<>(directories.size());
+        for (int i = 0; i < directories.size(); i++) {
+            cloneKeys.add(new HashSet<>());
+        }
+        long items = 0;
+        long bytes = 0;
+        long index = 0;
+        Iterator<DataItem> dataItems = TimeSeries.expandAll(job.getDataItems()).iterator();
+        while (dataItems.hasNext()) {
+            DataItem item = dataItems.next();
+            long size = item.getSizeInBytes();
+            int selected = placementPolicy.select(item, index++, assignedBytes);
+            assignedBytes[selected] += size;
+            Path path = directories.get(selected).resolve(item.getItemName());
+            Manifest manifest = manifests[selected];
+            if (job.isIncremental() && manifest.isComplete(item, job, path)) {
+                continue;
+            }
+            long blockSize = blockSizes[selected];
+            int nameBytes = item.getItemName().length();
+            boolean linked = job.getCloneMethod() == CloneMethod.HARD_LINK && job.isCloned(item)
+                    && !cloneKeys.get(selected).add(job.getCloneKey(item));
+            long itemBytes = isHoles(item, job) || linked ? 0 : roundUp(size, blockSize);
+            itemBytes += MANIFEST_LINE_BYTES + nameBytes + (long) sidecarLines * (SIDECAR_LINE_BYTES + nameBytes);
+            long itemFiles = 0;
+            // A Data Item written again reuses its file and the blocks of its previous content
+            long recorded = manifest.recordedBytes(item, path);
+            if (recorded < 0) {
+                itemFiles = (linked ? 0 : 1) + checksumFiles;
+                itemBytes += checksumFiles * blockSize;
+            } else {
+                itemBytes -= roundUp(recorded, blockSize);
+            }
+            volumeFileSystems[selected].add(1, itemBytes, itemFiles);
+            items++;
+            bytes += size;
+        }
+
+        long estimatedNanos = -1;
+        String estimateSource = null;
+        double throughput = mReport != null ? RunReport.readThroughput(job, mReport) : 0;
+        if (job instanceof FeedJob) {
+            // The duration of a feed is given by its schedule
+        } else if (throughput > 0) {
+            estimatedNanos = (long) (bytes / (throughput * DataItem.SIZE_MB) * 1e9);
+            estimateSource = String.format("the previous runs (%.1f MB/s)", throughput);
+        } else if (mProbe && items > 0 && (bytes >= MIN_PROBED_BYTES || items >= MIN_PROBED_ITEMS)) {
+            try {
+                long[] probe = probe(job, existingAncestor(directories.get(0)));
+                estimatedNanos = items * probe[0] + (long) (bytes * (probe[1] / 1e9));
+                estimateSource = probe[1] == 0 ? String.format("the throughput probe (%.0f files/s)", 1e9 / probe[0])
+                        : String.format("the throughput probe (%.0f files/s, %.1f MB/s)", 1e9 / probe[0],
+                        1e9 / probe[1]);
+            } catch (IOException e) {
+                warnings.add("The throughput cannot be probed next to " + directories.get(0) + ": " + e.getMessage());
+            }
+        }
+        return new CapacityPlan(new ArrayList<>(fileSystems.values()), items, bytes, estimatedNanos, estimateSource,
+                warnings);
+    }
+
+    /**
+     * @return the file system with its usable space, free inodes and reserves
+     */
+    private CapacityPlan.FileSystem newFileSystem(FileStore store, Path directory, List<String> warnings)
+            throws IOException {
+        long[] inodes = readInodes(directory);
+        if (inodes == null) {
+            warnings.add("The free inodes of " + store.name() + " are unknown: the number of files is not checked");
+        }
+        return new CapacityPlan.FileSystem(store.name(), store.getUsableSpace(),
+                (long) (store.getTotalSpace() * mReserve), inodes == null ? -1 : inodes[1],
+                inodes == null ? 0 : (long) (inodes[0] * mReserve));
+    }
+
+    /**
+     * Method used to generate a few Data Items with the settings of the job, to measure the time spent per file
+     * and per byte. The probe is deleted once measured
+     *
+     * @param job       the job to plan
+     * @param directory directory the probe is written in
+     * @return the time per file and the time per MB, in nanoseconds
+     */
+    private static long[] probe(GenerationJob job, Path directory) throws IOException, InterruptedException {
+        Path probeDirectory = Files.createTempDirectory(directory, PROBE_PREFIX);
+        try {
+            List<DataItem> files = new ArrayList<>(PROBE_FILES);
+            for (int i = 0; i < PROBE_FILES; i++) {
+                files.add(new DataItem("file-" + i, PROBE_FILE_MB));
+            }
+            int largeCount = Math.min(Math.max(job.getWorkers(), MIN_PROBE_ITEMS), MAX_PROBE_ITEMS);
+            List<DataItem> large = new ArrayList<>(largeCount);
+            for (int i = 0; i < largeCount; i++) {
+                large.add(new DataItem("item-" + i, PROBE_ITEM_MB));
+            }
+            // The first run loads and compiles the code of the generation: it is not measured
+            runProbe(job, probeDirectory.resolve("warm-up"), files);
+            long filesNanos = runProbe(job, probeDirectory.resolve("files"), files);
+            long largeNanos = runProbe(job, probeDirectory.resolve("items"), large);
+            long nanosPerFile = Math.max(filesNanos / PROBE_FILES, 1);
+            // What remains once the time spent per file is removed is spent writing the bytes
+            long writeNanos = Math.max(largeNanos - largeCount * nanosPerFile, 0);
+            return new long[]{nanosPerFile, (long) (writeNanos / (largeCount * PROBE_ITEM_MB))};
+        } finally {
+            delete(probeDirectory);
+        }
+    }
+
+    /**
+     * @return the duration of the generation of the probe Data Items with the settings of the job
+     */
+    private static long runProbe(GenerationJob job, Path directory, List<DataItem> dataItems)
+            throws IOException, InterruptedException {
+        GenerationJob probe = new GenerationJob(directory, dataItems);
+        probe.setWorkers(job.getWorkers());
+        probe.setContentMode(job.getContentMode());
+        probe.setContentProfile(job.getContentProfile());
+        probe.setSeed(job.getSeed());
+        probe.setChunkSize(job.getChunkSize());
+        probe.setMemoryMapped(job.isMemoryMapped());
+        probe.setMaterializer(job.getMaterializer());
+        probe.setSyncPolicy(job.getSyncPolicy());
+        probe.setChecksums(job.getChecksums());
+        probe.setChecksumOutput(job.getChecksumOutput());
+        probe.setIncremental(false);
+        GenerationResult result = new Generator().run(probe);
+        if (!result.getFailures().isEmpty()) {
+            Exception failure = result.getFailures().values().iterator().next();
+            throw failure instanceof IOException ? (IOException) failure : new IOException(failure);
+        }
+        return result.getElapsedNanos();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Method used to read the inodes of the file system of a directory with df
+     *
+     * @return the total and the free inodes, or null when they are unknown (Ex: no df, or a file system without a
+     * fixed number of inodes)
+     */
+    private static long[] readInodes(Path directory) {
+        try {
+            Process process = new ProcessBuilder("df", "-P", "-i", directory.toString())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+            String last = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                    StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    last = line;
+                }
+            }
+            if (!process.waitFor(DF_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroy();
+                return null;
+            }
+            if (process.exitValue() != 0 || last == null) {
+                return null;
+            }
+            // Filesystem Inodes IUsed IFree IUse% Mounted-on: counted from the end, as the name of the file system
+            // may contain spaces
+            String[] fields = last.trim().split("\\s+");
+            if (fields.length < 6) {
+                return null;
+            }
+            long total = Long.parseLong(fields[fields.length - 5]);
+            long free = Long.parseLong(fields[fields.length - 3]);
+            return total > 0 ? new long[]{total, free} : null;
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @return the directory, or its closest ancestor that exists: the volumes are created by the run
+     */
+    static Path existingAncestor(Path directory) {
+        Path existing = directory.toAbsolutePath();
+        while (existing.getParent() != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing;
+    }
+
+    private static long blockSize(FileStore store) {
+        try {
+            return store.getBlockSize();
+        } catch (IOException | UnsupportedOperationException e) {
+            return DEFAULT_BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * @return true if the file of a Data Item takes no block: its content is zeros, left as holes by its materializer
+     */
+    private static boolean isHoles(DataItem item, GenerationJob job) {
+        if (job.getContentMode(item) != ContentMode.SPARSE) {
+            return false;
+        }
+        try {
+            return job.getMaterializer(item) == StandardMaterializer.SPARSE;
+        } catch (IllegalArgumentException e) {
+            // Unknown materializer: the Data Item will fail, its bytes are counted as the worst case
+            return false;
+        }
+    }
+
+    private static long roundUp(long bytes, long blockSize) {
+        return (bytes + blockSize - 1) / blockSize * blockSize;
+    }
+}
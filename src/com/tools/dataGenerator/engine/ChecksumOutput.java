@@ -0,0 +1,15 @@
+package com.tools.dataGenerator.engine;
+
+/**
+ * This enum lists where the checksums of the Data Items are written
+ */
+public enum ChecksumOutput {
+    /**
+     * One file next to each Data Item, named after the Data Item and the algorithm (Ex: NAME.md5)
+     */
+    PER_FILE,
+    /**
+     * One file per algorithm in the output directory, listing every Data Item (Ex: MD5SUMS)
+     */
+    SIDECAR
+}
@@ -0,0 +1,186 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class writes the checksums of the Data Items computed by the ItemWriter, in the format of md5sum and
+ * sha256sum (Ex: d41d8cd98f00b204e9800998ecf8427e  NAME), either next to each Data Item or in sidecar files
+ * listing every Data Item of the output directory (see ChecksumOutput).
+ * <p>
+ * The sidecar files are appended while the Data Items are completed. When the Data Items of a previous run are
+ * regenerated, the sidecar files are rewritten on close to keep only the last checksum of each Data Item: the lines
+ * of the previous runs are streamed into the new file, and only the names of the Data Items of this run are kept in
+ * memory.
+ */
+class ChecksumWriter implements Closeable {
+
+    private static final String TEMPORARY_SUFFIX = ".part";
+
+    private final Path mDirectory;
+    private final ChecksumOutput mOutput;
+    private final boolean mAtomic;
+    private final Map<ChecksumAlgorithm, Writer> mSidecars = new EnumMap<>(ChecksumAlgorithm.class);
+    /**
+     * Size of each sidecar file before this run appended to it
+     */
+    private final Map<ChecksumAlgorithm, Long> mPreviousBytes = new EnumMap<>(ChecksumAlgorithm.class);
+    /**
+     * Names of the Data Items appended to the sidecar files by this run
+     */
+    private final Set<String> mNames = new HashSet<>();
+
+    /**
+     * Constructor
+     *
+     * @param directory the output directory of the run
+     * @param output    where the checksums are written
+     * @param atomic    true to write the per-file checksums under a temporary name renamed once complete, so that
+     *                  a service watching the directory never reads a partial checksum file
+     */
+    ChecksumWriter(Path directory, ChecksumOutput output, boolean atomic) {
+        mDirectory = directory;
+        mOutput = output;
+        mAtomic = atomic;
+    }
+
+    /**
+     * Method used to write the checksums of a Data Item
+     *
+     * @param item      the Data Item
+     * @param checksums the checksums of the Data Item, formatted as hexadecimal strings
+     */
+    void write(DataItem item, Map<ChecksumAlgorithm, String> checksums) throws IOException {
+        for (Map.Entry<ChecksumAlgorithm, String> checksum : checksums.entrySet()) {
+            String line = formatLine(checksum.getValue(), item.getItemName());
+            if (mOutput == ChecksumOutput.PER_FILE) {
+                Path path = mDirectory.resolve(item.getItemName() + "." + checksum.getKey().getExtension());
+                writeFile(path, line);
+            } else {
+                appendSidecar(checksum.getKey(), item.getItemName(), line);
+            }
+        }
+    }
+
+    /**
+     * @return the line of a checksum, in the format of md5sum and sha256sum
+     */
+    static String formatLine(String checksum, String name) {
+        return checksum + "  " + name + "\n";
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Writer writer : mSidecars.values()) {
+            writer.close();
+        }
+        for (ChecksumAlgorithm algorithm : mSidecars.keySet()) {
+            removeDuplicates(mDirectory.resolve(algorithm.getSidecarName()), mPreviousBytes.get(algorithm), mNames);
+        }
+        mSidecars.clear();
+        mPreviousBytes.clear();
+        mNames.clear();
+    }
+
+    private void writeFile(Path path, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        if (!mAtomic) {
+            Files.write(path, bytes);
+            return;
+        }
+        Path temporary = path.resolveSibling("." + path.getFileName() + TEMPORARY_SUFFIX);
+        Files.write(temporary, bytes);
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private synchronized void appendSidecar(ChecksumAlgorithm algorithm, String name, String line)
+            throws IOException {
+        Writer writer = mSidecars.get(algorithm);
+        if (writer == null) {
+            Path sidecar = mDirectory.resolve(algorithm.getSidecarName());
+            mPreviousBytes.put(algorithm, Files.exists(sidecar) ? Files.size(sidecar) : 0L);
+            writer = Files.newBufferedWriter(sidecar, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            mSidecars.put(algorithm, writer);
+        }
+        mNames.add(name);
+        writer.write(line);
+        writer.flush();
+    }
+
+    /**
+     * Method used to keep only the last line of each Data Item in a sidecar file: the lines of the previous runs for
+     * the Data Items of this run are removed, the file being read and rewritten line by line
+     *
+     * @param previousBytes size of the file before this run appended to it
+     * @param names         names of the Data Items appended by this run
+     */
+    private static void removeDuplicates(Path sidecar, long previousBytes, Set<String> names) throws IOException {
+        if (previousBytes == 0 || !containsAny(sidecar, previousBytes, names)) {
+            return;
+        }
+        Path compacted = sidecar.resolveSibling(sidecar.getFileName() + TEMPORARY_SUFFIX);
+        try (BufferedReader reader = Files.newBufferedReader(sidecar, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            long read = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // The lines of this run are kept, the Data Items taking the position of their last line
+                boolean previous = read < previousBytes;
+                read += lineBytes(line);
+                if (!previous || !names.contains(name(line))) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        }
+        Files.move(compacted, sidecar, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return true if a line written before this run in a sidecar file is the one of a Data Item of this run
+     */
+    private static boolean containsAny(Path sidecar, long previousBytes, Set<String> names) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(sidecar, StandardCharsets.UTF_8)) {
+            long read = 0;
+            String line;
+            while (read < previousBytes && (line = reader.readLine()) != null) {
+                read += lineBytes(line);
+                if (names.contains(name(line))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the name of the Data Item of a line of a sidecar file, or null if the line is not a checksum
+     */
+    private static String name(String line) {
+        int separator = line.indexOf("  ");
+        return separator > 0 ? line.substring(separator + 2) : null;
+    }
+
+    /**
+     * @return the size of a line in the sidecar file, with its line feed
+     */
+    private static long lineBytes(String line) {
+        return line.getBytes(StandardCharsets.UTF_8).length + 1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.tools.dataGenerator.engine;
+
+/**
+ * This enum lists how a Data Item is created from another one with the same content when the job clones its Data
+ * Items (see GenerationJob.setCloneMethod). When the method is not supported by the file system, or fails, the Data
+ * Item is copied with TRANSFER instead.
+ */
+public enum CloneMethod {
+    /**
+     * The file is a hard link to the first Data Item with the same content: no byte is written and no block is taken.
+     * All the Data Items linked share the same file, so modifying one of them modifies the others
+     */
+    HARD_LINK,
+    /**
+     * The file is a copy-on-write clone of the first Data Item with the same content (cp --reflink=always, Ex: on
+     * Btrfs or XFS): no byte is written, and the blocks are shared until one of the files is modified
+     */
+    REFLINK,
+    /**
+     * The file is copied from the first Data Item with the same content with FileChannel.transferTo: the bytes are
+     * copied by the kernel, without being generated again nor going through the JVM
+     */
+    TRANSFER
+}
@@ -0,0 +1,244 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class defines the messages exchanged over TCP between the Coordinator and the ClusterWorker processes.
+ * <p>
+ * Each message is a type byte followed by its fields, written with DataOutputStream:
+ * <ul>
+ * <li>HELLO (worker): protocol version, name of the worker</li>
+ * <li>JOB (coordinator): settings of the job, shared by all the work units</li>
+ * <li>UNIT (coordinator): identifier and Data Items of a work unit (name, dimension, content profile,
+ * materializer)</li>
+ * <li>PROGRESS (worker): identifier of the work unit being generated, bytes written so far</li>
+ * <li>RESULT (worker): identifier of the work unit, Data Items created and skipped, bytes, duration, and the name
+ * and error of each Data Item that failed</li>
+ * <li>STOP (coordinator): no more work unit, with the reason</li>
+ * </ul>
+ * A worker handles one work unit at a time: the coordinator sends the next UNIT, or STOP, after each RESULT.
+ */
+final class ClusterProtocol {
+
+    static final int VERSION = 3;
+
+    static final byte HELLO = 'H';
+    static final byte JOB = 'J';
+    static final byte UNIT = 'U';
+    static final byte PROGRESS = 'P';
+    static final byte RESULT = 'R';
+    static final byte STOP = 'S';
+
+    private static final String NO_PROFILE = "";
+    private static final String NO_MATERIALIZER = "";
+    private static final String NO_CLONE = "";
+
+    private ClusterProtocol() {}
+
+    /**
+     * Method used to send the settings of a job. The Data Items, the workers and the volumes are not sent
+     */
+    static void writeJob(DataOutputStream out, GenerationJob job) throws IOException {
+        out.writeByte(JOB);
+        out.writeUTF(job.getOutputDirectory().toString());
+        out.writeUTF(job.getContentMode().name());
+        out.writeUTF(job.getContentProfile().toString());
+        out.writeLong(job.getSeed());
+        out.writeLong(job.getChunkSize());
+        out.writeBoolean(job.isMemoryMapped());
+        out.writeUTF(job.getMaterializer() == null ? NO_MATERIALIZER : job.getMaterializer().getName());
+        out.writeUTF(job.getSyncPolicy().name());
+        out.writeUTF(job.getCloneMethod() == null ? NO_CLONE : job.getCloneMethod().name());
+        out.writeBoolean(job.isIncremental());
+        out.writeUTF(job.getChecksums().stream().map(Enum::name).collect(Collectors.joining(",")));
+        out.writeUTF(job.getChecksumOutput().name());
+        out.flush();
+    }
+
+    /**
+     * Method used to read the settings of a job, after its type byte
+     */
+    static Settings readJob(DataInputStream in) throws IOException {
+        Settings settings = new Settings();
+        settings.mOutputDirectory = Paths.get(in.readUTF());
+        settings.mContentMode = ContentMode.valueOf(in.readUTF());
+        settings.mContentProfile = ContentProfile.parse(in.readUTF());
+        settings.mSeed = in.readLong();
+        settings.mChunkSize = in.readLong();
+        settings.mMemoryMapped = in.readBoolean();
+        settings.mMaterializer = in.readUTF();
+        settings.mSyncPolicy = SyncPolicy.valueOf(in.readUTF());
+        String cloneMethod = in.readUTF();
+        settings.mCloneMethod = cloneMethod.equals(NO_CLONE) ? null : CloneMethod.valueOf(cloneMethod);
+        settings.mIncremental = in.readBoolean();
+        String checksums = in.readUTF();
+        if (!checksums.isEmpty()) {
+            for (String checksum : checksums.split(",")) {
+                settings.mChecksums.add(ChecksumAlgorithm.valueOf(checksum));
+            }
+        }
+        settings.mChecksumOutput = ChecksumOutput.valueOf(in.readUTF());
+        return settings;
+    }
+
+    static void writeUnit(DataOutputStream out, WorkUnit unit) throws IOException {
+        out.writeByte(UNIT);
+        out.writeLong(unit.getId());
+        out.writeInt(unit.getDataItems().size());
+        for (DataItem item : unit.getDataItems()) {
+            out.writeUTF(item.getItemName());
+            out.writeDouble(item.getDimesion());
+            out.writeUTF(item.getContentProfile() == null ? NO_PROFILE : item.getContentProfile().toString());
+            out.writeUTF(item.getMaterializer() == null ? NO_MATERIALIZER : item.getMaterializer());
+        }
+        out.flush();
+    }
+
+    /**
+     * Method used to read the Data Items of a work unit, after its type byte and identifier
+     */
+    static List<DataItem> readUnitItems(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<DataItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            double dimension = in.readDouble();
+            String profile = in.readUTF();
+            String materializer = in.readUTF();
+            DataItem item = new DataItem(name, dimension, null, profile.equals(NO_PROFILE) ? null
+                    : ContentProfile.parse(profile));
+            item.setMaterializer(materializer.equals(NO_MATERIALIZER) ? null : materializer);
+            items.add(item);
+        }
+        return items;
+    }
+
+    static void writeProgress(DataOutputStream out, long unitId, long bytesWritten) throws IOException {
+        out.writeByte(PROGRESS);
+        out.writeLong(unitId);
+        out.writeLong(bytesWritten);
+        out.flush();
+    }
+
+    /**
+     * Method used to send the outcome of a work unit
+     *
+     * @param failures error of each Data Item that failed, by name
+     */
+    static void writeResult(DataOutputStream out, long unitId, long createdItems, long skippedItems,
+                            long skippedBytes, long bytes, long elapsedNanos, Map<String, String> failures)
+            throws IOException {
+        out.writeByte(RESULT);
+        out.writeLong(unitId);
+        out.writeLong(createdItems);
+        out.writeLong(skippedItems);
+        out.writeLong(skippedBytes);
+        out.writeLong(bytes);
+        out.writeLong(elapsedNanos);
+        out.writeInt(failures.size());
+        for (Map.Entry<String, String> failure : failures.entrySet()) {
+            out.writeUTF(failure.getKey());
+            out.writeUTF(failure.getValue());
+        }
+        out.flush();
+    }
+
+    /**
+     * Method used to read the outcome of a work unit, after its type byte
+     */
+    static UnitResult readResult(DataInputStream in) throws IOException {
+        UnitResult result = new UnitResult();
+        result.mUnitId = in.readLong();
+        result.mCreatedItems = in.readLong();
+        result.mSkippedItems = in.readLong();
+        result.mSkippedBytes = in.readLong();
+        result.mBytes = in.readLong();
+        result.mElapsedNanos = in.readLong();
+        int failures = in.readInt();
+        for (int i = 0; i < failures; i++) {
+            result.mFailures.put(in.readUTF(), in.readUTF());
+        }
+        return result;
+    }
+
+    static void writeStop(DataOutputStream out, String reason) throws IOException {
+        out.writeByte(STOP);
+        out.writeUTF(reason);
+        out.flush();
+    }
+
+    /**
+     * Outcome of a work unit received by the coordinator
+     */
+    static final class UnitResult {
+
+        long mUnitId;
+        long mCreatedItems;
+        long mSkippedItems;
+        long mSkippedBytes;
+        long mBytes;
+        long mElapsedNanos;
+        final Map<String, String> mFailures = new HashMap<>();
+    }
+
+    /**
+     * Settings of a job received by a worker
+     */
+    static final class Settings {
+
+        private Path mOutputDirectory;
+        private ContentMode mContentMode;
+        private ContentProfile mContentProfile;
+        private long mSeed;
+        private long mChunkSize;
+        private boolean mMemoryMapped;
+        private String mMaterializer;
+        private SyncPolicy mSyncPolicy;
+        private CloneMethod mCloneMethod;
+        private boolean mIncremental;
+        private final Set<ChecksumAlgorithm> mChecksums = EnumSet.noneOf(ChecksumAlgorithm.class);
+        private ChecksumOutput mChecksumOutput;
+
+        Path getOutputDirectory() {
+            return mOutputDirectory;
+        }
+
+        /**
+         * Method used to create the job generating the Data Items of a work unit with these settings
+         *
+         * @param outputDirectory directory where the Data Items are created
+         * @param dataItems       Data Items of the work unit
+         * @return the job, without workers count and Manifest name
+         */
+        GenerationJob newJob(Path outputDirectory, List<DataItem> dataItems) {
+            GenerationJob job = new GenerationJob(outputDirectory, dataItems);
+            job.setContentMode(mContentMode);
+            job.setContentProfile(mContentProfile);
+            job.setSeed(mSeed);
+            job.setChunkSize(mChunkSize);
+            job.setMemoryMapped(mMemoryMapped);
+            job.setMaterializer(mMaterializer.equals(NO_MATERIALIZER) ? null : Materializer.forName(mMaterializer));
+            job.setSyncPolicy(mSyncPolicy);
+            job.setCloneMethod(mCloneMethod);
+            job.setIncremental(mIncremental);
+            job.setChecksums(mChecksums);
+            job.setChecksumOutput(mChecksumOutput);
+            return job;
+        }
+    }
+}
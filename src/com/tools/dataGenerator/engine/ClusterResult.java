@@ -0,0 +1,47 @@
+package com.tools.dataGenerator.engine;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class contains the outcome of a run spread across several ClusterWorker processes (see Coordinator).
+ * The timings of the Data Items are measured by the workers and not sent to the coordinator: the statistics of the
+ * result are empty
+ */
+public class ClusterResult extends GenerationResult {
+
+    private final int mWorkers;
+    private final long mRetriedUnits;
+    private final Map<String, Long> mWorkerBytes;
+
+    /**
+     * Constructor
+     *
+     * @param result       the outcome of the generation of the Data Items, aggregated over the workers
+     * @param workers      number of workers that have connected during the run
+     * @param retriedUnits number of work units handed again to a worker after a failure or a lost worker
+     * @param workerBytes  bytes written by each worker, by name
+     */
+    ClusterResult(GenerationResult result, int workers, long retriedUnits, Map<String, Long> workerBytes) {
+        super(result.getCreatedItems(), result.getSkippedItems(), result.getBytes(), result.getElapsedNanos(),
+                result.getFailures(), result.isCancelled(), result.getStatistics());
+        mWorkers = workers;
+        mRetriedUnits = retriedUnits;
+        mWorkerBytes = Collections.unmodifiableMap(workerBytes);
+    }
+
+    public int getWorkers() {
+        return mWorkers;
+    }
+
+    public long getRetriedUnits() {
+        return mRetriedUnits;
+    }
+
+    /**
+     * @return the bytes written by each worker, by name, including the Data Items that failed afterwards
+     */
+    public Map<String, Long> getWorkerBytes() {
+        return mWorkerBytes;
+    }
+}
@@ -0,0 +1,203 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class generates the work units handed by a Coordinator, one after the other, with a Generator: the settings
+ * of the job (content, seed, checksums, ...) are those given to the coordinator.
+ * <p>
+ * The worker keeps its own Manifest in the output directory (Ex: .datagenerator-manifest.node1), so that several
+ * workers can share the output directory: the name of the worker must be unique among the workers of a run and
+ * stable across the runs for the incremental runs to find their Manifest.
+ */
+public class ClusterWorker {
+
+    /**
+     * Interval between two progress reports sent to the coordinator: 1 s
+     */
+    private static final long PROGRESS_INTERVAL_MILLIS = 1_000;
+
+    /**
+     * Time during which the worker tries to connect to a coordinator not started yet: 60 s
+     */
+    private static final long CONNECT_TIMEOUT_MILLIS = 60_000;
+    private static final long CONNECT_RETRY_MILLIS = 500;
+
+    private final String mHost;
+    private final int mPort;
+    private final String mName;
+    private int mWorkers = Runtime.getRuntime().availableProcessors();
+    private Path mOutputDirectory;
+
+    /**
+     * Constructor
+     *
+     * @param host host name or address of the coordinator
+     * @param port TCP port of the coordinator
+     * @param name name of the worker, made of letters, digits, '.', '_' and '-' (Ex: the host name)
+     */
+    public ClusterWorker(String host, int port, String name) {
+        if (!name.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("The name of a worker can only contain letters, digits, '.', '_'"
+                    + " and '-': " + name);
+        }
+        mHost = host;
+        mPort = port;
+        mName = name;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    public int getWorkers() {
+        return mWorkers;
+    }
+
+    /**
+     * @param workers number of threads writing the Data Items of a work unit
+     */
+    public void setWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+        mWorkers = workers;
+    }
+
+    /**
+     * @return the directory where the Data Items are created, or null to use the output directory of the job
+     */
+    public Path getOutputDirectory() {
+        return mOutputDirectory;
+    }
+
+    /**
+     * @param outputDirectory directory where the Data Items are created (Ex: a local disk), or null to use the
+     *                        output directory of the job given to the coordinator
+     */
+    public void setOutputDirectory(Path outputDirectory) {
+        mOutputDirectory = outputDirectory;
+    }
+
+    /**
+     * Method used to generate work units until the coordinator has no more
+     *
+     * @return the number of work units generated
+     * @throws IOException          if the coordinator cannot be reached, rejects the worker or is lost
+     * @throws InterruptedException if the thread is interrupted
+     */
+    public long run() throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor(
+                Generator.newThreadFactory("cluster-" + mName + "-"));
+        try (Socket socket = connect()) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeByte(ClusterProtocol.HELLO);
+            out.writeInt(ClusterProtocol.VERSION);
+            out.writeUTF(mName);
+            out.flush();
+
+            byte type = in.readByte();
+            if (type == ClusterProtocol.STOP) {
+                throw new IOException("Rejected by the coordinator: " + in.readUTF());
+            }
+            if (type != ClusterProtocol.JOB) {
+                throw new IOException("Unexpected message from the coordinator: " + (char) type);
+            }
+            ClusterProtocol.Settings settings = ClusterProtocol.readJob(in);
+            Path outputDirectory = mOutputDirectory != null ? mOutputDirectory : settings.getOutputDirectory();
+
+            long units = 0;
+            while ((type = in.readByte()) == ClusterProtocol.UNIT) {
+                long unitId = in.readLong();
+                List<DataItem> dataItems = ClusterProtocol.readUnitItems(in);
+                GenerationJob job = settings.newJob(outputDirectory, dataItems);
+                job.setWorkers(mWorkers);
+                job.setManifestName(Manifest.FILE_NAME + "." + mName);
+                generate(executor, job, unitId, out);
+                units++;
+            }
+            if (type != ClusterProtocol.STOP) {
+                throw new IOException("Unexpected message from the coordinator: " + (char) type);
+            }
+            in.readUTF();
+            return units;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return a connection to the coordinator, retried while the coordinator is not listening yet
+     */
+    private Socket connect() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CONNECT_TIMEOUT_MILLIS);
+        while (true) {
+            try {
+                return new Socket(mHost, mPort);
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(CONNECT_RETRY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Method used to generate a work unit, reporting its progress and then its outcome to the coordinator
+     */
+    private static void generate(ExecutorService executor, GenerationJob job, long unitId, DataOutputStream out)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Future<GenerationResult> future = executor.submit(() -> new Generator().run(job));
+        GenerationResult result = null;
+        Throwable error = null;
+        while (result == null && error == null) {
+            try {
+                result = future.get(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                ClusterProtocol.writeProgress(out, unitId, job.getProgress().getBytesWritten());
+            } catch (ExecutionException e) {
+                error = e.getCause();
+            } catch (InterruptedException e) {
+                job.getProgress().cancel();
+                throw e;
+            }
+        }
+        GenerationProgress progress = job.getProgress();
+        ClusterProtocol.writeProgress(out, unitId, progress.getBytesWritten());
+
+        Map<String, String> failures = new HashMap<>();
+        if (result != null) {
+            result.getFailures().forEach((name, failure) -> failures.put(name, failure.toString()));
+            ClusterProtocol.writeResult(out, unitId, result.getCreatedItems(), result.getSkippedItems(),
+                    progress.getSkippedBytes(), result.getBytes(), result.getElapsedNanos(), failures);
+        } else {
+            // The output directory or the Manifest cannot be created: no Data Item of the unit has been generated
+            for (DataItem item : job.getDataItems()) {
+                failures.put(item.getItemName(), error.toString());
+            }
+            ClusterProtocol.writeResult(out, unitId, 0, 0, 0, 0, System.nanoTime() - start, failures);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.tools.dataGenerator.engine;
+
+/**
+ * This enum lists how the content of the Data Items is produced
+ */
+public enum ContentMode {
+    /**
+     * Only the length of the file is set: the file is sparse and contains no data
+     */
+    SPARSE,
+    /**
+     * The file is filled with deterministic pseudo-random bytes derived from the seed of the run
+     */
+    RANDOM,
+    /**
+     * The file is filled with deterministic content reaching a target compression ratio and fraction of duplicate
+     * blocks (see ContentProfile)
+     */
+    PROFILED
+}
@@ -0,0 +1,424 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.catalog.TimeSeries;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * This class runs a GenerationJob on several ClusterWorker processes, on this machine or on others: it splits the
+ * Data Items of the job into work units, hands them to the workers connected over TCP (see ClusterProtocol), and
+ * tracks their completion.
+ * <p>
+ * The work units are built as the workers ask for them, from at most getUnitItems Data Items and getUnitBytes bytes,
+ * so that the fastest workers generate the most. The Data Items of a work unit that failed, or whose worker
+ * disconnected or stopped answering, are handed again to a worker, up to getMaxAttempts times. The progress of the
+ * job (see GenerationJob.getProgress) aggregates the progress reported by all the workers.
+ * <p>
+ * Each worker writes to the output directory of the job, or to its own (see ClusterWorker.setOutputDirectory), with
+ * its own Manifest: the workers can share a file system, and an incremental rerun skips the Data Items completed by
+ * any worker, whichever the worker they are handed to.
+ */
+public class Coordinator {
+
+    public static final int DEFAULT_UNIT_ITEMS = 16;
+
+    /**
+     * Default maximum size of a work unit: 1 GiB, a few seconds of generation for a worker
+     */
+    public static final long DEFAULT_UNIT_BYTES = 1L << 30;
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    /**
+     * Time without message after which a worker is considered lost: the workers report their progress every second
+     */
+    private static final int READ_TIMEOUT_MILLIS = 30_000;
+
+    /**
+     * Interval between two checks of the cancellation of the job
+     */
+    private static final long CANCEL_CHECK_MILLIS = 100;
+
+    /**
+     * Time given to the connections to send STOP to their worker at the end of the run
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    private final GenerationJob mJob;
+    private final int mPort;
+    private int mUnitItems = DEFAULT_UNIT_ITEMS;
+    private long mUnitBytes = DEFAULT_UNIT_BYTES;
+    private int mMaxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private ServerSocket mServer;
+
+    /**
+     * Bytes written by each worker that has connected
+     */
+    private final Map<String, AtomicLong> mWorkerBytes = new ConcurrentHashMap<>();
+    private final List<Thread> mHandlers = Collections.synchronizedList(new ArrayList<>());
+
+    // Guarded by this
+    private Iterator<DataItem> mDataItems;
+    private final Deque<WorkUnit> mRetries = new ArrayDeque<>();
+    private final Set<String> mConnectedWorkers = new HashSet<>();
+    private final Map<String, Exception> mFailures = new TreeMap<>();
+    private long mNextUnitId;
+    private int mUnitsInFlight;
+    private long mRetriedUnits;
+    private long mCreatedItems;
+    private long mSkippedItems;
+    private long mBytes;
+
+    /**
+     * Constructor
+     *
+     * @param job  the job to run. Its workers and volumes are not used: each ClusterWorker has its own
+     * @param port TCP port the workers connect to, 0 to use any free port (see bind)
+     */
+    public Coordinator(GenerationJob job, int port) {
+        if (job.getChecksumOutput() == ChecksumOutput.SIDECAR && !job.getChecksums().isEmpty()) {
+            throw new IllegalArgumentException("The sidecar checksum files cannot be shared by several workers,"
+                    + " use the per-file checksum output");
+        }
+        mJob = job;
+        mPort = port;
+    }
+
+    public int getUnitItems() {
+        return mUnitItems;
+    }
+
+    /**
+     * @param unitItems maximum number of Data Items of a work unit
+     */
+    public void setUnitItems(int unitItems) {
+        if (unitItems < 1) {
+            throw new IllegalArgumentException("A work unit needs at least one Data Item: " + unitItems);
+        }
+        mUnitItems = unitItems;
+    }
+
+    public long getUnitBytes() {
+        return mUnitBytes;
+    }
+
+    /**
+     * @param unitBytes maximum size of a work unit in bytes. A larger Data Item makes a work unit on its own
+     */
+    public void setUnitBytes(long unitBytes) {
+        if (unitBytes < 1) {
+            throw new IllegalArgumentException("The size of a work unit must be positive: " + unitBytes);
+        }
+        mUnitBytes = unitBytes;
+    }
+
+    public int getMaxAttempts() {
+        return mMaxAttempts;
+    }
+
+    /**
+     * @param maxAttempts number of times a Data Item is handed to a worker before being reported as failed
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("The number of attempts must be positive: " + maxAttempts);
+        }
+        mMaxAttempts = maxAttempts;
+    }
+
+    /**
+     * Method used to open the port the workers connect to. Called by run if needed
+     *
+     * @return the port, useful when the coordinator has been created with port 0
+     * @throws IOException if the port cannot be opened
+     */
+    public synchronized int bind() throws IOException {
+        if (mServer == null) {
+            ServerSocket server = new ServerSocket();
+            server.setReuseAddress(true);
+            server.bind(new InetSocketAddress(mPort));
+            mServer = server;
+        }
+        return mServer.getLocalPort();
+    }
+
+    /**
+     * @return the number of workers currently connected
+     */
+    public synchronized int getConnectedWorkers() {
+        return mConnectedWorkers.size();
+    }
+
+    /**
+     * @return the bytes written so far by each worker that has connected, by name
+     */
+    public Map<String, Long> getWorkerBytes() {
+        Map<String, Long> workerBytes = new TreeMap<>();
+        mWorkerBytes.forEach((name, bytes) -> workerBytes.put(name, bytes.get()));
+        return workerBytes;
+    }
+
+    /**
+     * Method used to run the job: returns once every Data Item has been generated or has failed, or once the job
+     * has been cancelled and the work units in progress have been completed
+     *
+     * @return the outcome of the run
+     * @throws IOException          if the port cannot be opened
+     * @throws InterruptedException if the thread is interrupted while waiting for the workers
+     */
+    public ClusterResult run() throws IOException, InterruptedException {
+        bind();
+        synchronized (this) {
+            mDataItems = TimeSeries.expandAll(mJob.getDataItems()).iterator();
+        }
+        long start = System.nanoTime();
+        Thread acceptor = new Thread(this::acceptWorkers, "coordinator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        try {
+            synchronized (this) {
+                while (!isDone()) {
+                    wait(CANCEL_CHECK_MILLIS);
+                }
+                // The workers waiting for a work unit are sent STOP
+                notifyAll();
+            }
+        } finally {
+            mServer.close();
+        }
+        long deadline = System.nanoTime() + STOP_TIMEOUT_MILLIS * 1_000_000;
+        synchronized (mHandlers) {
+            for (Thread handler : mHandlers) {
+                handler.join(Math.max(1, (deadline - System.nanoTime()) / 1_000_000));
+            }
+        }
+        synchronized (this) {
+            GenerationResult result = new GenerationResult(mCreatedItems, mSkippedItems, mBytes,
+                    System.nanoTime() - start, new TreeMap<>(mFailures), mJob.getProgress().isCancelled(),
+                    new GenerationStatistics());
+            return new ClusterResult(result, mWorkerBytes.size(), mRetriedUnits, getWorkerBytes());
+        }
+    }
+
+    private boolean isDone() {
+        return mUnitsInFlight == 0 && (mJob.getProgress().isCancelled()
+                || (!mDataItems.hasNext() && mRetries.isEmpty()));
+    }
+
+    private void acceptWorkers() {
+        while (true) {
+            Socket socket;
+            try {
+                socket = mServer.accept();
+            } catch (IOException e) {
+                // Closed at the end of the run
+                return;
+            }
+            Thread handler = new Thread(() -> serve(socket), "coordinator-" + socket.getRemoteSocketAddress());
+            handler.setDaemon(true);
+            mHandlers.add(handler);
+            handler.start();
+        }
+    }
+
+    /**
+     * Method used to hand work units to a worker until no work unit is left
+     */
+    private void serve(Socket socket) {
+        String name = null;
+        WorkUnit unit = null;
+        AtomicLong workerBytes = null;
+        long unitBytes = 0;
+        try (Socket connection = socket) {
+            connection.setSoTimeout(READ_TIMEOUT_MILLIS);
+            connection.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+
+            if (in.readByte() != ClusterProtocol.HELLO || in.readInt() != ClusterProtocol.VERSION) {
+                ClusterProtocol.writeStop(out, "Unsupported protocol version, expected "
+                        + ClusterProtocol.VERSION);
+                return;
+            }
+            String workerName = in.readUTF();
+            if (!connected(workerName)) {
+                ClusterProtocol.writeStop(out, "Another worker named " + workerName + " is connected");
+                return;
+            }
+            name = workerName;
+            workerBytes = mWorkerBytes.computeIfAbsent(name, key -> new AtomicLong());
+            ClusterProtocol.writeJob(out, mJob);
+
+            while ((unit = nextUnit()) != null) {
+                ClusterProtocol.writeUnit(out, unit);
+                unitBytes = 0;
+                ClusterProtocol.UnitResult result = null;
+                while (result == null) {
+                    byte type = in.readByte();
+                    if (type == ClusterProtocol.PROGRESS) {
+                        in.readLong();
+                        long written = in.readLong();
+                        mJob.getProgress().bytesWritten(written - unitBytes);
+                        workerBytes.addAndGet(written - unitBytes);
+                        unitBytes = written;
+                    } else if (type == ClusterProtocol.RESULT) {
+                        result = ClusterProtocol.readResult(in);
+                    } else {
+                        throw new IOException("Unexpected message from " + name + ": " + (char) type);
+                    }
+                }
+                if (result.mUnitId != unit.getId()) {
+                    throw new IOException("Result of the work unit " + result.mUnitId + " received from " + name
+                            + " instead of " + unit.getId());
+                }
+                completed(name, unit, result, workerBytes, unitBytes);
+                unit = null;
+            }
+            ClusterProtocol.writeStop(out, mJob.getProgress().isCancelled() ? "Generation cancelled"
+                    : "Generation completed");
+        } catch (IOException e) {
+            // The worker is lost: its work unit is handed to another worker
+        } finally {
+            disconnected(name, unit, workerBytes, unitBytes);
+        }
+    }
+
+    /**
+     * @return false if a worker with the same name is already connected
+     */
+    private synchronized boolean connected(String name) {
+        return mConnectedWorkers.add(name);
+    }
+
+    /**
+     * Method used to hand the work unit of a worker lost to another worker. The bytes the lost worker reported for
+     * it are withdrawn from the progress of the job and from the worker, since they are written again
+     *
+     * @param workerBytes bytes written by the worker, or null if it has not been identified
+     * @param unitBytes   bytes reported for the work unit by the worker
+     */
+    private synchronized void disconnected(String name, WorkUnit unit, AtomicLong workerBytes, long unitBytes) {
+        if (name != null) {
+            mConnectedWorkers.remove(name);
+        }
+        if (unit != null) {
+            mJob.getProgress().bytesWritten(-unitBytes);
+            if (workerBytes != null) {
+                workerBytes.addAndGet(-unitBytes);
+            }
+            mUnitsInFlight--;
+            retry(unit.getDataItems(), unit.getAttempt(), item -> new IOException("Worker " + name + " lost"));
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return the next work unit, waiting for the work units in progress to complete if the remaining Data Items
+     * are theirs, or null if no work unit is left
+     */
+    private synchronized WorkUnit nextUnit() {
+        try {
+            while (true) {
+                if (mJob.getProgress().isCancelled()) {
+                    return null;
+                }
+                WorkUnit unit = mRetries.poll();
+                if (unit == null && mDataItems.hasNext()) {
+                    unit = newUnit();
+                }
+                if (unit != null) {
+                    mUnitsInFlight++;
+                    return unit;
+                }
+                if (mUnitsInFlight == 0) {
+                    return null;
+                }
+                wait(CANCEL_CHECK_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private WorkUnit newUnit() {
+        List<DataItem> dataItems = new ArrayList<>();
+        long bytes = 0;
+        while (mDataItems.hasNext() && dataItems.size() < mUnitItems && bytes < mUnitBytes) {
+            DataItem item = mDataItems.next();
+            dataItems.add(item);
+            bytes += item.getSizeInBytes();
+        }
+        return new WorkUnit(mNextUnitId++, dataItems, 1);
+    }
+
+    /**
+     * Method used to record the outcome of a work unit. The bytes reported for the unit while it was generated are
+     * replaced by the bytes of the Data Items created: the partial bytes of the failed Data Items are withdrawn,
+     * since they are written again when the Data Items are retried
+     *
+     * @param workerBytes bytes written by the worker
+     * @param unitBytes   bytes reported for the work unit by the worker
+     */
+    private synchronized void completed(String name, WorkUnit unit, ClusterProtocol.UnitResult result,
+                                        AtomicLong workerBytes, long unitBytes) {
+        mUnitsInFlight--;
+        mCreatedItems += result.mCreatedItems;
+        mSkippedItems += result.mSkippedItems;
+        mBytes += result.mBytes;
+        GenerationProgress progress = mJob.getProgress();
+        progress.bytesWritten(result.mBytes - unitBytes);
+        workerBytes.addAndGet(result.mBytes - unitBytes);
+        progress.itemsCreated(result.mCreatedItems);
+        progress.itemsSkipped(result.mSkippedItems, result.mSkippedBytes);
+        if (!result.mFailures.isEmpty()) {
+            List<DataItem> failed = new ArrayList<>();
+            for (DataItem item : unit.getDataItems()) {
+                if (result.mFailures.containsKey(item.getItemName())) {
+                    failed.add(item);
+                }
+            }
+            retry(failed, unit.getAttempt(),
+                    item -> new IOException(name + ": " + result.mFailures.get(item.getItemName())));
+        }
+        notifyAll();
+    }
+
+    /**
+     * Method used to hand Data Items again to a worker, or to report them as failed once out of attempts
+     *
+     * @param error error reported for each Data Item out of attempts
+     */
+    private void retry(List<DataItem> dataItems, int attempt, Function<DataItem, Exception> error) {
+        if (attempt < mMaxAttempts && !mJob.getProgress().isCancelled()) {
+            mRetriedUnits++;
+            mRetries.add(new WorkUnit(mNextUnitId++, Collections.unmodifiableList(dataItems), attempt + 1));
+            return;
+        }
+        for (DataItem item : dataItems) {
+            mFailures.put(item.getItemName(), error.apply(item));
+        }
+        mJob.getProgress().itemsFailed(dataItems.size());
+    }
+}
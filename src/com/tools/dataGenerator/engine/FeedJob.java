@@ -0,0 +1,120 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * This class describes a feed run: the Data Items of the job are delivered into a drop directory over time, like
+ * the products of a real downlink, instead of being created all at once (see Feeder).
+ * <p>
+ * By default the Data Items are scheduled by the sensing time found in their name, relative to the first one. A
+ * fixed cadence can be used instead. In both cases the schedule is accelerated by the speed-up factor, and the
+ * average throughput can be capped.
+ */
+public class FeedJob extends GenerationJob {
+
+    /**
+     * Listener notified when a Data Item is released later than the lag threshold of the job
+     */
+    @FunctionalInterface
+    public interface LagListener {
+
+        /**
+         * @param item     the late Data Item
+         * @param lagNanos delay between the scheduled release of the Data Item and its actual release
+         */
+        void lagging(DataItem item, long lagNanos);
+    }
+
+    private double mSpeedUp = 1;
+    private Duration mCadence;
+    private double mMaxThroughput;
+    private Duration mLagThreshold = Duration.ofSeconds(1);
+    private LagListener mLagListener;
+
+    /**
+     * Constructor
+     *
+     * @param dropDirectory directory where the Data Items are delivered
+     * @param dataItems     Data Items to deliver
+     */
+    public FeedJob(Path dropDirectory, Iterable<DataItem> dataItems) {
+        super(dropDirectory, dataItems);
+    }
+
+    public double getSpeedUp() {
+        return mSpeedUp;
+    }
+
+    /**
+     * @param speedUp factor dividing the intervals of the schedule (Ex: 60 delivers one hour of products in a minute)
+     */
+    public void setSpeedUp(double speedUp) {
+        if (!(speedUp > 0) || Double.isInfinite(speedUp)) {
+            throw new IllegalArgumentException("The speed-up factor must be positive: " + speedUp);
+        }
+        mSpeedUp = speedUp;
+    }
+
+    /**
+     * @return the fixed interval between two Data Items, or null when they are scheduled by sensing time
+     */
+    public Duration getCadence() {
+        return mCadence;
+    }
+
+    /**
+     * @param cadence fixed interval between two Data Items, delivered in the order of the job, or null to schedule
+     *                them by the sensing time found in their name
+     */
+    public void setCadence(Duration cadence) {
+        if (cadence != null && (cadence.isNegative() || cadence.isZero())) {
+            throw new IllegalArgumentException("The cadence must be positive: " + cadence);
+        }
+        mCadence = cadence;
+    }
+
+    /**
+     * @return the cap on the average throughput expressed in MB/s, 0 when the throughput is not capped
+     */
+    public double getMaxThroughput() {
+        return mMaxThroughput;
+    }
+
+    /**
+     * @param maxThroughput cap on the average throughput expressed in MB/s, 0 to disable it
+     */
+    public void setMaxThroughput(double maxThroughput) {
+        if (!(maxThroughput >= 0) || Double.isInfinite(maxThroughput)) {
+            throw new IllegalArgumentException("The maximum throughput must be positive or 0: " + maxThroughput);
+        }
+        mMaxThroughput = maxThroughput;
+    }
+
+    public Duration getLagThreshold() {
+        return mLagThreshold;
+    }
+
+    /**
+     * @param lagThreshold delay after which a Data Item released behind schedule is reported as late
+     */
+    public void setLagThreshold(Duration lagThreshold) {
+        if (lagThreshold.isNegative()) {
+            throw new IllegalArgumentException("The lag threshold cannot be negative: " + lagThreshold);
+        }
+        mLagThreshold = lagThreshold;
+    }
+
+    public LagListener getLagListener() {
+        return mLagListener;
+    }
+
+    /**
+     * @param lagListener listener notified, from the scheduling thread, for each late Data Item, or null
+     */
+    public void setLagListener(LagListener lagListener) {
+        mLagListener = lagListener;
+    }
+}
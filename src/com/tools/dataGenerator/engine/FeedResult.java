@@ -0,0 +1,52 @@
+package com.tools.dataGenerator.engine;
+
+/**
+ * This class contains the outcome of a feed run, including how closely the schedule has been kept
+ */
+public class FeedResult extends GenerationResult {
+
+    private final long mReleasedItems;
+    private final long mLateItems;
+    private final long mMaxLagNanos;
+    private final long mTotalLagNanos;
+
+    /**
+     * Constructor
+     *
+     * @param result        the outcome of the generation of the Data Items
+     * @param releasedItems number of Data Items released by the scheduler
+     * @param lateItems     number of Data Items released later than the lag threshold
+     * @param maxLagNanos   largest delay between the scheduled and the actual release of a Data Item
+     * @param totalLagNanos sum of the delays of the released Data Items
+     */
+    FeedResult(GenerationResult result, long releasedItems, long lateItems, long maxLagNanos, long totalLagNanos) {
+        super(result.getCreatedItems(), result.getSkippedItems(), result.getBytes(), result.getElapsedNanos(),
+                result.getFailures(), result.isCancelled(), result.getStatistics());
+        mReleasedItems = releasedItems;
+        mLateItems = lateItems;
+        mMaxLagNanos = maxLagNanos;
+        mTotalLagNanos = totalLagNanos;
+    }
+
+    public long getReleasedItems() {
+        return mReleasedItems;
+    }
+
+    /**
+     * @return the number of Data Items released later than the lag threshold of the job
+     */
+    public long getLateItems() {
+        return mLateItems;
+    }
+
+    public long getMaxLagNanos() {
+        return mMaxLagNanos;
+    }
+
+    /**
+     * @return the mean delay between the scheduled and the actual release of the Data Items
+     */
+    public long getMeanLagNanos() {
+        return mReleasedItems == 0 ? 0 : mTotalLagNanos / mReleasedItems;
+    }
+}
@@ -0,0 +1,239 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.catalog.TimeSeries;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class delivers the Data Items of a FeedJob into a drop directory over time, to load-test the services
+ * ingesting them.
+ * <p>
+ * A single scheduling thread (the caller of run) releases each Data Item at its scheduled time to a pool of worker
+ * threads. Each Data Item is written by one worker under a temporary hidden name (.NAME.part) in the drop directory,
+ * then atomically renamed, so that the ingestion service never sees a partial file. The checksums of the job are
+ * delivered once their Data Item has been renamed.
+ * <p>
+ * The scheduled time of a Data Item is the latest of:
+ * <ul>
+ * <li>its position in the schedule: sensing time relative to the first Data Item, or index times the cadence,
+ * divided by the speed-up factor</li>
+ * <li>the time needed to write the bytes released before it at the maximum throughput of the job</li>
+ * </ul>
+ * A Data Item is released only when a worker is free: when the storage cannot keep up, the Data Items are released
+ * late. The lag of each Data Item is measured, reported to the LagListener of the job when above its threshold, and
+ * summarized in the FeedResult.
+ */
+public class Feeder {
+
+    /**
+     * Below this delay the scheduling thread spins instead of parking, to keep the release jitter low
+     */
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Longest time the scheduling thread is parked before checking whether the job has been cancelled
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final String TEMPORARY_PREFIX = ".";
+    private static final String TEMPORARY_SUFFIX = ".part";
+
+    /**
+     * Method used to run a feed job. The method returns once every Data Item of the job has been delivered
+     *
+     * @param job the job to run
+     * @return the outcome of the run
+     * @throws IOException          if the drop directory cannot be created
+     * @throws InterruptedException if the calling thread is interrupted while the job is running
+     */
+    public FeedResult run(FeedJob job) throws IOException, InterruptedException {
+        Path dropDirectory = job.getOutputDirectory();
+        Files.createDirectories(dropDirectory);
+
+        int workers = job.getWorkers();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, Generator.newThreadFactory("feed-worker-"));
+        Semaphore freeWorkers = new Semaphore(workers);
+
+        GenerationProgress progress = job.getProgress();
+        GenerationStatistics statistics = new GenerationStatistics();
+        AtomicLong bytes = new AtomicLong();
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+
+        boolean bySensingTime = job.getCadence() == null;
+        Iterable<DataItem> dataItems = bySensingTime
+                ? TimeSeries.expandBySensingTime(job.getDataItems())
+                : TimeSeries.expandAll(job.getDataItems());
+        double speedUp = job.getSpeedUp();
+        long cadenceNanos = bySensingTime ? 0 : job.getCadence().toNanos();
+        double nanosPerByte = job.getMaxThroughput() > 0
+                ? TimeUnit.SECONDS.toNanos(1) / (job.getMaxThroughput() * DataItem.SIZE_MB) : 0;
+        long lagThreshold = job.getLagThreshold().toNanos();
+        FeedJob.LagListener lagListener = job.getLagListener();
+
+        long released = 0;
+        long releasedBytes = 0;
+        long lateItems = 0;
+        long maxLag = 0;
+        long totalLag = 0;
+        long origin = TimeSeries.NO_SENSING_TIME;
+
+        long start = System.nanoTime();
+        try (ChecksumWriter checksums = new ChecksumWriter(dropDirectory, job.getChecksumOutput(), true)) {
+            for (DataItem item : dataItems) {
+                if (progress.isCancelled()) {
+                    break;
+                }
+                long offset;
+                if (bySensingTime) {
+                    long sensingTime = TimeSeries.getSensingTime(item.getItemName());
+                    if (sensingTime != TimeSeries.NO_SENSING_TIME && origin == TimeSeries.NO_SENSING_TIME) {
+                        origin = sensingTime;
+                    }
+                    // The Data Items without sensing time are sorted first and released immediately
+                    offset = sensingTime == TimeSeries.NO_SENSING_TIME
+                            ? 0 : (long) ((sensingTime - origin) * 1e9 / speedUp);
+                } else {
+                    offset = (long) (released * (double) cadenceNanos / speedUp);
+                }
+                long scheduled = start + Math.max(offset, (long) (releasedBytes * nanosPerByte));
+
+                if (!waitUntil(scheduled, progress)) {
+                    break;
+                }
+                freeWorkers.acquire();
+                long lag = Math.max(0, System.nanoTime() - scheduled);
+                released++;
+                releasedBytes += item.getSizeInBytes();
+                totalLag += lag;
+                maxLag = Math.max(maxLag, lag);
+                if (lag > lagThreshold) {
+                    lateItems++;
+                    if (lagListener != null) {
+                        lagListener.lagging(item, lag);
+                    }
+                }
+
+                executor.execute(() -> {
+                    try {
+                        if (deliver(dropDirectory, item, job, statistics, checksums, failures)) {
+                            progress.itemCreated();
+                            bytes.addAndGet(item.getSizeInBytes());
+                        }
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } finally {
+            // No-op when every Data Item has been handled, stops the workers when the run has been interrupted
+            executor.shutdownNow();
+        }
+
+        GenerationResult result = new GenerationResult(progress.getCreatedItems(), 0, bytes.get(),
+                System.nanoTime() - start, new TreeMap<>(failures), progress.isCancelled(), statistics);
+        return new FeedResult(result, released, lateItems, maxLag, totalLag);
+    }
+
+    /**
+     * Method used to write a Data Item under its temporary name and to rename it into the drop directory
+     *
+     * @return true if the Data Item has been delivered
+     */
+    private static boolean deliver(Path dropDirectory, DataItem item, GenerationJob job,
+                                   GenerationStatistics statistics, ChecksumWriter checksums,
+                                   Map<String, Exception> failures) {
+        Path target = dropDirectory.resolve(item.getItemName());
+        // The temporary file is next to the target, so that the rename stays in the same directory
+        Path temporary = target.resolveSibling(TEMPORARY_PREFIX + target.getFileName() + TEMPORARY_SUFFIX);
+        ItemWriter writer;
+        try {
+            writer = new ItemWriter(temporary, item, job, statistics);
+        } catch (IllegalArgumentException e) {
+            // Unknown materializer of the entry
+            failures.put(item.getItemName(), e);
+            job.getProgress().itemFailed();
+            return false;
+        }
+        boolean created = false;
+        Exception failure = null;
+        // Every chunk is handled, even after a failure, so that the writer closes and deletes the partial file
+        for (int chunk = 0; chunk < writer.getChunks(); chunk++) {
+            try {
+                created = writer.writeChunk(chunk);
+            } catch (CancellationException e) {
+                // The partial file is deleted by the writer: a cancelled Data Item is not a failure
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (created) {
+            try {
+                if (job.getSyncPolicy() == SyncPolicy.BATCHED) {
+                    // The Data Items are delivered one at a time: each one is on the device before it is delivered
+                    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                        channel.force(false);
+                    }
+                }
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                checksums.write(item, writer.getChecksums());
+            } catch (IOException e) {
+                created = false;
+                failure = e;
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+        }
+        if (failure != null) {
+            failures.put(item.getItemName(), failure);
+            job.getProgress().itemFailed();
+        }
+        return created;
+    }
+
+    /**
+     * Method used to wait until the given System.nanoTime value: the thread is parked for most of the delay and
+     * spins for the last SPIN_NANOS
+     *
+     * @return false if the job has been cancelled while waiting
+     */
+    private static boolean waitUntil(long deadline, GenerationProgress progress) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            if (progress.isCancelled()) {
+                return false;
+            }
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(Math.min(remaining - SPIN_NANOS, MAX_PARK_NANOS));
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        return true;
+    }
+}
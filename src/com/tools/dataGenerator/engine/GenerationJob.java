@@ -0,0 +1,359 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.content.PayloadGenerator;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class describes a generation run: which Data Items have to be created, where and with how many
+ * parallel writers.
+ * The Data Items are consumed as an Iterable so that they can be produced lazily while the generation runs.
+ */
+public class GenerationJob {
+
+    /**
+     * Default size of the chunks written in parallel for the Data Items with content: 64 MiB
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 64L << 20;
+
+    private final Path mOutputDirectory;
+    private final Iterable<DataItem> mDataItems;
+    private List<Path> mVolumes = Collections.emptyList();
+    private PlacementPolicy mPlacementPolicy = PlacementPolicy.SIZE_BALANCED;
+    private int mWorkers = Runtime.getRuntime().availableProcessors();
+    private ContentMode mContentMode = ContentMode.SPARSE;
+    private ContentProfile mContentProfile = ContentProfile.DEFAULT;
+    private long mSeed;
+    private long mChunkSize = DEFAULT_CHUNK_SIZE;
+    private boolean mMemoryMapped;
+    private Materializer mMaterializer;
+    private SyncPolicy mSyncPolicy = SyncPolicy.NONE;
+    private CloneMethod mCloneMethod;
+    private boolean mIncremental = true;
+    private Set<ChecksumAlgorithm> mChecksums = Collections.emptySet();
+    private ChecksumOutput mChecksumOutput = ChecksumOutput.PER_FILE;
+    private String mManifestName = Manifest.FILE_NAME;
+    private final GenerationProgress mProgress = new GenerationProgress();
+
+    /**
+     * Constructor
+     *
+     * @param outputDirectory directory where the Data Items are created
+     * @param dataItems       Data Items to create
+     */
+    public GenerationJob(Path outputDirectory, Iterable<DataItem> dataItems) {
+        mOutputDirectory = outputDirectory;
+        mDataItems = dataItems;
+    }
+
+    public Path getOutputDirectory() {
+        return mOutputDirectory;
+    }
+
+    public Iterable<DataItem> getDataItems() {
+        return mDataItems;
+    }
+
+    /**
+     * @return the directories the Data Items are spread across: the output directory when no volume has been set
+     */
+    public List<Path> getVolumes() {
+        return mVolumes.isEmpty() ? Collections.singletonList(mOutputDirectory) : mVolumes;
+    }
+
+    /**
+     * @param volumes directories, usually on different devices or mount points, the Data Items are spread across
+     *                according to the placement policy. Each volume is written by its own workers
+     */
+    public void setVolumes(List<Path> volumes) {
+        mVolumes = Collections.unmodifiableList(new ArrayList<>(volumes));
+    }
+
+    public PlacementPolicy getPlacementPolicy() {
+        return mPlacementPolicy;
+    }
+
+    /**
+     * @param placementPolicy how the Data Items are spread across the volumes
+     */
+    public void setPlacementPolicy(PlacementPolicy placementPolicy) {
+        mPlacementPolicy = placementPolicy;
+    }
+
+    /**
+     * @return the progress of the job, also used to cancel it
+     */
+    public GenerationProgress getProgress() {
+        return mProgress;
+    }
+
+    public int getWorkers() {
+        return mWorkers;
+    }
+
+    /**
+     * @param workers number of threads writing the Data Items in parallel on each volume
+     */
+    public void setWorkers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("The number of workers must be at least 1: " + workers);
+        }
+        mWorkers = workers;
+    }
+
+    public ContentMode getContentMode() {
+        return mContentMode;
+    }
+
+    /**
+     * @param contentMode how the content of the Data Items is produced
+     */
+    public void setContentMode(ContentMode contentMode) {
+        mContentMode = contentMode;
+    }
+
+    /**
+     * @return how the content of a Data Item is produced: PROFILED when the Data Item has its own profile, the
+     * content mode of the job otherwise
+     */
+    public ContentMode getContentMode(DataItem dataItem) {
+        return dataItem.getContentProfile() != null ? ContentMode.PROFILED : mContentMode;
+    }
+
+    public ContentProfile getContentProfile() {
+        return mContentProfile;
+    }
+
+    /**
+     * @param contentProfile profile of the content of the Data Items without their own profile, used when the
+     *                       content mode is PROFILED
+     */
+    public void setContentProfile(ContentProfile contentProfile) {
+        mContentProfile = contentProfile;
+    }
+
+    /**
+     * @return the profile of the content of a Data Item, or null when its content is not PROFILED
+     */
+    public ContentProfile getContentProfile(DataItem dataItem) {
+        if (dataItem.getContentProfile() != null) {
+            return dataItem.getContentProfile();
+        }
+        return mContentMode == ContentMode.PROFILED ? mContentProfile : null;
+    }
+
+    public long getSeed() {
+        return mSeed;
+    }
+
+    /**
+     * @param seed seed of the pseudo-random content. Two runs with the same seed produce identical Data Items
+     */
+    public void setSeed(long seed) {
+        mSeed = seed;
+    }
+
+    public long getChunkSize() {
+        return mChunkSize;
+    }
+
+    /**
+     * @param chunkSize size in bytes of the chunks written in parallel when a Data Item is larger than a chunk
+     */
+    public void setChunkSize(long chunkSize) {
+        if (chunkSize < 1 || chunkSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The chunk size must be between 1 and " + Integer.MAX_VALUE + " bytes: "
+                    + chunkSize);
+        }
+        mChunkSize = chunkSize;
+    }
+
+    public boolean isMemoryMapped() {
+        return mMemoryMapped;
+    }
+
+    /**
+     * @param memoryMapped true to write the content through memory mapped chunks instead of positional writes, when
+     *                     no materializer is selected (see setMaterializer)
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        mMemoryMapped = memoryMapped;
+    }
+
+    /**
+     * @return the materializer selected for the run, or null when it depends on the content of each Data Item
+     */
+    public Materializer getMaterializer() {
+        return mMaterializer;
+    }
+
+    /**
+     * @param materializer how the files of the Data Items without their own materializer are written, or null for
+     *                     the default: SPARSE for the sparse Data Items, MMAP or POSITIONAL for the other ones
+     */
+    public void setMaterializer(Materializer materializer) {
+        mMaterializer = materializer;
+    }
+
+    /**
+     * @return how the file of a Data Item is written: the materializer of the Data Item, or else the one of the job,
+     * or else the default for its content
+     * @throws IllegalArgumentException if the materializer of the Data Item is unknown
+     */
+    public Materializer getMaterializer(DataItem dataItem) {
+        if (dataItem.getMaterializer() != null) {
+            return Materializer.forName(dataItem.getMaterializer());
+        }
+        if (mMaterializer != null) {
+            return mMaterializer;
+        }
+        if (getContentMode(dataItem) == ContentMode.SPARSE) {
+            return StandardMaterializer.SPARSE;
+        }
+        return mMemoryMapped ? StandardMaterializer.MMAP : StandardMaterializer.POSITIONAL;
+    }
+
+    /**
+     * @return true if the content of the Data Items is forced to the storage device during the run
+     */
+    public boolean isSync() {
+        return mSyncPolicy != SyncPolicy.NONE;
+    }
+
+    /**
+     * @param sync true to force the content of each Data Item to the storage device before closing it, so that the
+     *             run measures the device and not the page cache (see SyncPolicy.PER_FILE)
+     */
+    public void setSync(boolean sync) {
+        mSyncPolicy = sync ? SyncPolicy.PER_FILE : SyncPolicy.NONE;
+    }
+
+    public SyncPolicy getSyncPolicy() {
+        return mSyncPolicy;
+    }
+
+    /**
+     * @param syncPolicy when the content of the Data Items is forced to the storage device
+     */
+    public void setSyncPolicy(SyncPolicy syncPolicy) {
+        mSyncPolicy = syncPolicy;
+    }
+
+    /**
+     * @return how the Data Items are cloned, or null when each Data Item is written
+     */
+    public CloneMethod getCloneMethod() {
+        return mCloneMethod;
+    }
+
+    /**
+     * @param cloneMethod how a Data Item is created from the first Data Item of its volume with the same template,
+     *                    or null to write each Data Item (the default). The template of a Data Item is its name with
+     *                    its digits masked, its size and its content: the Data Items of a product type differing only
+     *                    by their dates or counters then have the same content and are written once per volume
+     */
+    public void setCloneMethod(CloneMethod cloneMethod) {
+        mCloneMethod = cloneMethod;
+    }
+
+    /**
+     * @return true if the content of a Data Item depends on its template instead of its name, so that it can be
+     * cloned (see setCloneMethod): the sparse and empty Data Items are always written
+     */
+    public boolean isCloned(DataItem dataItem) {
+        return mCloneMethod != null && dataItem.getSizeInBytes() > 0 && getContentMode(dataItem) != ContentMode.SPARSE;
+    }
+
+    /**
+     * @return the template of a cloned Data Item: the Data Items of a volume with the same template have the same
+     * content (Ex: S#A_OPER_AUX_ORBRES_#_#:1048576:RANDOM)
+     */
+    public String getCloneKey(DataItem dataItem) {
+        ContentProfile profile = getContentProfile(dataItem);
+        return maskDigits(dataItem.getItemName()) + ':' + dataItem.getSizeInBytes() + ':'
+                + (profile == null ? getContentMode(dataItem).name() : profile.toString());
+    }
+
+    /**
+     * @return the seed of the content of a Data Item (see PayloadGenerator.itemSeed): derived from its name, or from
+     * its name with its digits masked when it is cloned
+     */
+    public long getItemSeed(DataItem dataItem) {
+        String name = dataItem.getItemName();
+        return PayloadGenerator.itemSeed(mSeed, isCloned(dataItem) ? maskDigits(name) : name);
+    }
+
+    /**
+     * @return a name with each run of digits replaced by '#' (Ex: S1A_20250101T000000 gives S#A_#T#)
+     */
+    private static String maskDigits(String name) {
+        StringBuilder masked = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                masked.append(c);
+            } else if (i == 0 || name.charAt(i - 1) < '0' || name.charAt(i - 1) > '9') {
+                masked.append('#');
+            }
+        }
+        return masked.toString();
+    }
+
+    public String getManifestName() {
+        return mManifestName;
+    }
+
+    /**
+     * @param manifestName name of the Manifest in the output directory. The processes writing into the same
+     *                     directory (see ClusterWorker) each use their own Manifest
+     */
+    public void setManifestName(String manifestName) {
+        mManifestName = manifestName;
+    }
+
+    public boolean isIncremental() {
+        return mIncremental;
+    }
+
+    /**
+     * @param incremental true to skip the Data Items already completed by a previous run in the output directory
+     *                    (see Manifest), false to generate every Data Item again
+     */
+    public void setIncremental(boolean incremental) {
+        mIncremental = incremental;
+    }
+
+    /**
+     * @return the checksums computed for each Data Item, empty by default
+     */
+    public Set<ChecksumAlgorithm> getChecksums() {
+        return mChecksums;
+    }
+
+    /**
+     * @param checksums checksums computed for each Data Item while it is written
+     */
+    public void setChecksums(Set<ChecksumAlgorithm> checksums) {
+        mChecksums = checksums.isEmpty() ? Collections.emptySet()
+                : Collections.unmodifiableSet(EnumSet.copyOf(checksums));
+    }
+
+    public ChecksumOutput getChecksumOutput() {
+        return mChecksumOutput;
+    }
+
+    /**
+     * @param checksumOutput where the checksums of the Data Items are written
+     */
+    public void setChecksumOutput(ChecksumOutput checksumOutput) {
+        mChecksumOutput = checksumOutput;
+    }
+}
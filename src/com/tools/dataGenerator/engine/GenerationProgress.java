@@ -0,0 +1,95 @@
+package com.tools.dataGenerator.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps trace of the progress of a running generation job and is used to cancel it.
+ * <p>
+ * The counters are updated by the worker threads and can be read at any time from any thread (Ex: by a Swing
+ * timer refreshing a progress bar). Cancellation is cooperative: the workers check it between two buffers, stop
+ * writing and delete the files they did not complete.
+ */
+public class GenerationProgress {
+
+    private final AtomicLong mCreatedItems = new AtomicLong();
+    private final AtomicLong mFailedItems = new AtomicLong();
+    private final AtomicLong mSkippedItems = new AtomicLong();
+    private final AtomicLong mSkippedBytes = new AtomicLong();
+    private final AtomicLong mBytesWritten = new AtomicLong();
+    private volatile boolean mCancelled;
+
+    /**
+     * @return the number of Data Items completely written
+     */
+    public long getCreatedItems() {
+        return mCreatedItems.get();
+    }
+
+    /**
+     * @return the number of Data Items that could not be written
+     */
+    public long getFailedItems() {
+        return mFailedItems.get();
+    }
+
+    /**
+     * @return the number of Data Items already completed by a previous run, and not generated again
+     */
+    public long getSkippedItems() {
+        return mSkippedItems.get();
+    }
+
+    /**
+     * @return the number of bytes of the Data Items already completed by a previous run
+     */
+    public long getSkippedBytes() {
+        return mSkippedBytes.get();
+    }
+
+    /**
+     * @return the number of bytes written so far, including the bytes of the Data Items not yet completed
+     */
+    public long getBytesWritten() {
+        return mBytesWritten.get();
+    }
+
+    /**
+     * Method used to request the cancellation of the job
+     */
+    public void cancel() {
+        mCancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    void itemCreated() {
+        mCreatedItems.incrementAndGet();
+    }
+
+    void itemsCreated(long items) {
+        mCreatedItems.addAndGet(items);
+    }
+
+    void itemFailed() {
+        mFailedItems.incrementAndGet();
+    }
+
+    void itemsFailed(long items) {
+        mFailedItems.addAndGet(items);
+    }
+
+    void itemSkipped(long bytes) {
+        itemsSkipped(1, bytes);
+    }
+
+    void itemsSkipped(long items, long bytes) {
+        mSkippedItems.addAndGet(items);
+        mSkippedBytes.addAndGet(bytes);
+    }
+
+    void bytesWritten(long bytes) {
+        mBytesWritten.addAndGet(bytes);
+    }
+}
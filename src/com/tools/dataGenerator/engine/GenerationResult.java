@@ -0,0 +1,88 @@
+package com.tools.dataGenerator.engine;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * This class contains the outcome of a generation run
+ */
+public class GenerationResult {
+
+    private final long mCreatedItems;
+    private final long mSkippedItems;
+    private final long mBytes;
+    private final long mElapsedNanos;
+    private final Map<String, Exception> mFailures;
+    private final boolean mCancelled;
+    private final GenerationStatistics mStatistics;
+
+    /**
+     * Constructor
+     *
+     * @param createdItems number of Data Items successfully created
+     * @param skippedItems number of Data Items already completed by a previous run
+     * @param bytes        number of bytes of the created Data Items
+     * @param elapsedNanos duration of the run
+     * @param failures     Data Items that could not be created, with the error that occurred
+     * @param cancelled    true if the run has been cancelled before every Data Item was created
+     * @param statistics   timings of the created Data Items
+     */
+    GenerationResult(long createdItems, long skippedItems, long bytes, long elapsedNanos,
+                     Map<String, Exception> failures, boolean cancelled, GenerationStatistics statistics) {
+        mCreatedItems = createdItems;
+        mSkippedItems = skippedItems;
+        mBytes = bytes;
+        mElapsedNanos = elapsedNanos;
+        mFailures = Collections.unmodifiableMap(failures);
+        mCancelled = cancelled;
+        mStatistics = statistics;
+    }
+
+    public long getCreatedItems() {
+        return mCreatedItems;
+    }
+
+    /**
+     * @return the number of Data Items already completed by a previous run, and not generated again
+     */
+    public long getSkippedItems() {
+        return mSkippedItems;
+    }
+
+    public long getBytes() {
+        return mBytes;
+    }
+
+    public long getElapsedNanos() {
+        return mElapsedNanos;
+    }
+
+    public Map<String, Exception> getFailures() {
+        return mFailures;
+    }
+
+    /**
+     * @return true if every Data Item of the job has been created
+     */
+    public boolean isSuccessful() {
+        return mFailures.isEmpty() && !mCancelled;
+    }
+
+    public boolean isCancelled() {
+        return mCancelled;
+    }
+
+    /**
+     * @return the timings of the created Data Items (latency percentiles, time spent in each phase)
+     */
+    public GenerationStatistics getStatistics() {
+        return mStatistics;
+    }
+
+    /**
+     * @return the throughput of the run expressed in MB/s
+     */
+    public double getThroughput() {
+        return mElapsedNanos == 0 ? 0 : (mBytes / 1_000_000.0) / (mElapsedNanos / 1_000_000_000.0);
+    }
+}
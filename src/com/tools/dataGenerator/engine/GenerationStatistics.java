@@ -0,0 +1,109 @@
+package com.tools.dataGenerator.engine;
+
+import java.util.Arrays;
+
+/**
+ * This class collects the timings of the Data Items created during a generation run.
+ * <p>
+ * The latency of a Data Item is measured from the creation of its file to its close, so it includes the time
+ * spent waiting for a worker between two chunks. The time spent in each phase (create, write, sync, close) is summed
+ * over every Data Item: the chunks being written in parallel, the write time can exceed the duration of the run.
+ * Only the latencies are kept for each Data Item (8 bytes), the percentiles are computed when requested.
+ */
+public class GenerationStatistics {
+
+    private long[] mLatencies = new long[1024];
+    private int mCount;
+    private boolean mSorted = true;
+    private long mCreateNanos;
+    private long mWriteNanos;
+    private long mSyncNanos;
+    private long mCloseNanos;
+
+    /**
+     * Method used to record the timings of a Data Item successfully created
+     *
+     * @param latencyNanos time elapsed from the creation of the file to its close
+     * @param createNanos  time spent creating the file
+     * @param writeNanos   time spent writing the chunks of the file
+     * @param syncNanos    time spent forcing the content to the storage device
+     * @param closeNanos   time spent closing the file
+     */
+    synchronized void itemCompleted(long latencyNanos, long createNanos, long writeNanos, long syncNanos,
+                                    long closeNanos) {
+        if (mCount == mLatencies.length) {
+            mLatencies = Arrays.copyOf(mLatencies, mCount * 2);
+        }
+        mLatencies[mCount++] = latencyNanos;
+        mSorted = false;
+        mCreateNanos += createNanos;
+        mWriteNanos += writeNanos;
+        mSyncNanos += syncNanos;
+        mCloseNanos += closeNanos;
+    }
+
+    /**
+     * Method used to record the time spent forcing a batch of Data Items to the storage device (see
+     * SyncPolicy.BATCHED)
+     *
+     * @param syncNanos time spent forcing the batch
+     */
+    synchronized void batchSynced(long syncNanos) {
+        mSyncNanos += syncNanos;
+    }
+
+    /**
+     * @return the number of Data Items recorded
+     */
+    public synchronized int getItemCount() {
+        return mCount;
+    }
+
+    /**
+     * Method used to get a percentile of the latency of the Data Items (nearest rank)
+     *
+     * @param percentile the percentile, between 0 and 100 (Ex: 99.9)
+     * @return the latency in nanoseconds, 0 when no Data Item has been recorded
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be between 0 and 100: " + percentile);
+        }
+        if (mCount == 0) {
+            return 0;
+        }
+        if (!mSorted) {
+            Arrays.sort(mLatencies, 0, mCount);
+            mSorted = true;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * mCount);
+        return mLatencies[Math.max(rank, 1) - 1];
+    }
+
+    /**
+     * @return the mean latency of the Data Items in nanoseconds, 0 when no Data Item has been recorded
+     */
+    public synchronized long getMeanLatency() {
+        long total = 0;
+        for (int i = 0; i < mCount; i++) {
+            total += mLatencies[i];
+        }
+        return mCount == 0 ? 0 : total / mCount;
+    }
+
+    public synchronized long getCreateNanos() {
+        return mCreateNanos;
+    }
+
+    public synchronized long getWriteNanos() {
+        return mWriteNanos;
+    }
+
+    public synchronized long getSyncNanos() {
+        return mSyncNanos;
+    }
+
+    public synchronized long getCloseNanos() {
+        return mCloseNanos;
+    }
+}
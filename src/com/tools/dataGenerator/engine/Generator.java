@@ -0,0 +1,467 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.catalog.TimeSeries;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class materializes the Data Items of a GenerationJob on disk.
+ * It does not depend on Swing so that it can be used both by the DataGenerator window and by the
+ * command line interface (see GeneratorCli).
+ * <p>
+ * The Data Items are written by a pool of worker threads. Data Items larger than the chunk size of the job are
+ * split into chunks written in parallel (see ItemWriter): the idle workers take the next chunk from the queue, so
+ * a large Data Item is shared by all the workers instead of being written by one of them. Within a window of
+ * SCHEDULING_WINDOW Data Items read ahead, the largest are started first, and the small ones are written in
+ * batches by a single task. When the job has several volumes (Ex: one directory per
+ * drive), the Data Items are spread across them by the PlacementPolicy of the job, and each volume has its own pool
+ * of workers, bound on the chunks queued, Manifest and checksums, so that all the drives are written in parallel
+ * and a slow drive does not hold the workers of the others. The number of chunks waiting to be written is bounded,
+ * so that the Data Items of the job are consumed lazily and the memory used does not depend on the size of the job.
+ * Time series are expanded while they are consumed (see TimeSeries.expandAll).
+ * <p>
+ * The progress of the run is published through the GenerationProgress of the job, which is also used to cancel
+ * the run: no new Data Item is started and the Data Items being written are deleted. The timings of the Data Items
+ * are collected in the GenerationStatistics of the result and recorded as Flight Recorder events (see ItemWriter),
+ * Ex: java -XX:StartFlightRecording=filename=generation.jfr ...
+ * <p>
+ * The Data Items completed are recorded in the Manifest of the output directory. When the job is incremental, the
+ * Data Items already completed by a previous run with the same size and content are not generated again, so that
+ * a failed run can be resumed and only the entries changed in the configuration file are regenerated.
+ * The checksums of the job are computed while the Data Items are written and written by a ChecksumWriter.
+ * <p>
+ * How the file of each Data Item is written is defined by the Materializer selected for it, and when it is forced
+ * to the device by the SyncPolicy of the job. When the job clones its Data Items (see GenerationJob.setCloneMethod),
+ * only the first Data Item of each template is written on a volume: the next ones are created from it by an
+ * ItemCloner once it is complete.
+ */
+public class Generator {
+
+    /**
+     * Number of chunks that can be queued for each worker
+     */
+    private static final int QUEUED_CHUNKS_PER_WORKER = 2;
+
+    /**
+     * Number of Data Items read ahead of the workers: among them the largest ones are started first, so that a
+     * large Data Item met at the end of the catalog does not finish alone while the other workers are idle
+     */
+    private static final int SCHEDULING_WINDOW = 16_384;
+
+    /**
+     * Data Items up to this size, written by a single chunk, are small: they are written in batches, so that many
+     * small files cost one task each instead of one task and one wait on the queue each: 256 KiB
+     */
+    private static final long SMALL_ITEM_BYTES = 256 << 10;
+    private static final int BATCH_ITEMS = 64;
+    private static final long BATCH_BYTES = 4 << 20;
+
+    /**
+     * With the BATCHED sync policy, the files completed are forced to the device once a batch holds this number of
+     * files or of bytes: 1024 files, 1 GiB
+     */
+    private static final int SYNC_BATCH_FILES = 1024;
+    private static final long SYNC_BATCH_BYTES = 1L << 30;
+
+    /**
+     * Method used to run a generation job. The method returns once every Data Item of the job has been handled
+     *
+     * @param job the job to run
+     * @return the outcome of the run. Data Items that could not be created are listed in the failures
+     * @throws IOException          if the output directory cannot be created or its manifest cannot be written
+     * @throws InterruptedException if the calling thread is interrupted while the job is running
+     */
+    public GenerationResult run(GenerationJob job) throws IOException, InterruptedException {
+        List<Path> directories = job.getVolumes();
+        for (Path directory : directories) {
+            Files.createDirectories(directory);
+        }
+
+        GenerationProgress progress = job.getProgress();
+        AtomicLong bytes = new AtomicLong();
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+        GenerationStatistics statistics = new GenerationStatistics();
+        PlacementPolicy placementPolicy = job.getPlacementPolicy();
+        long[] assignedBytes = new long[directories.size()];
+
+        long start = System.nanoTime();
+        List<Volume> volumes = new ArrayList<>(directories.size());
+        try {
+            for (int i = 0; i < directories.size(); i++) {
+                String prefix = directories.size() == 1 ? "generator-worker-" : "generator-volume" + i + "-worker-";
+                volumes.add(new Volume(directories.get(i), job, prefix, statistics));
+            }
+            // The Data Items are placed in the order of the catalog, then started from the largest of the window
+            PriorityQueue<Pending> window = new PriorityQueue<>();
+            Iterator<DataItem> items = TimeSeries.expandAll(job.getDataItems()).iterator();
+            long index = 0;
+            while (!progress.isCancelled()) {
+                while (window.size() < SCHEDULING_WINDOW && items.hasNext() && !progress.isCancelled()) {
+                    DataItem item = items.next();
+                    int selected = placementPolicy.select(item, index, assignedBytes);
+                    assignedBytes[selected] += item.getSizeInBytes();
+                    Volume volume = volumes.get(selected);
+                    Path path = volume.mDirectory.resolve(item.getItemName());
+                    if (job.isIncremental() && volume.mManifest.isComplete(item, job, path)) {
+                        progress.itemSkipped(item.getSizeInBytes());
+                    } else {
+                        window.add(new Pending(item, volume, index));
+                    }
+                    index++;
+                }
+                Pending next = window.poll();
+                if (next == null || progress.isCancelled()) {
+                    break;
+                }
+                Volume volume = next.mVolume;
+                DataItem item = next.mDataItem;
+                String cloneKey = job.isCloned(item) ? job.getCloneKey(item) : null;
+                ItemWriter source = cloneKey == null ? null : volume.mCloner.getSource(cloneKey);
+                if (source != null) {
+                    volume.mManifest.started(item, job);
+                    addToBatch(volume, item, () -> cloneItem(volume, source, item, job, bytes, failures), job, bytes,
+                            failures);
+                    continue;
+                }
+                ItemWriter writer;
+                try {
+                    writer = new ItemWriter(volume.mDirectory.resolve(item.getItemName()), item, job, statistics);
+                } catch (IllegalArgumentException e) {
+                    // Unknown materializer of the entry: its Data Items fail, the other ones are written
+                    if (failures.putIfAbsent(item.getItemName(), e) == null) {
+                        progress.itemFailed();
+                    }
+                    continue;
+                }
+                volume.mManifest.started(item, job);
+                if (cloneKey != null) {
+                    // The source of the next Data Items of its template is submitted at once, never held in a batch,
+                    // so that the workers waiting for it to complete never wait for a task queued after them
+                    volume.mCloner.setSource(cloneKey, writer);
+                } else if (writer.getChunks() == 1 && item.getSizeInBytes() <= SMALL_ITEM_BYTES) {
+                    addToBatch(volume, item, () -> writeChunk(volume, writer, 0, job, bytes, failures), job, bytes,
+                            failures);
+                    continue;
+                }
+                // Once started, every chunk of a Data Item is submitted so that the writer can release the file
+                for (int chunk = 0; chunk < writer.getChunks(); chunk++) {
+                    int chunkIndex = chunk;
+                    volume.mQueuedChunks.acquire();
+                    volume.mExecutor.execute(() -> {
+                        try {
+                            writeChunk(volume, writer, chunkIndex, job, bytes, failures);
+                        } finally {
+                            volume.mQueuedChunks.release();
+                        }
+                    });
+                }
+            }
+            // The small Data Items waiting in a batch are submitted even when the run has been cancelled: each of them
+            // then stops before opening its file
+            for (Volume volume : volumes) {
+                if (!volume.mBatch.isEmpty()) {
+                    submitBatch(volume, job, bytes, failures);
+                }
+            }
+            for (Volume volume : volumes) {
+                volume.mExecutor.shutdown();
+            }
+            for (Volume volume : volumes) {
+                volume.mExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            IOException closeFailure = null;
+            for (Volume volume : volumes) {
+                try {
+                    volume.close();
+                } catch (IOException e) {
+                    if (closeFailure == null) {
+                        closeFailure = e;
+                    } else {
+                        closeFailure.addSuppressed(e);
+                    }
+                }
+            }
+            if (closeFailure != null) {
+                throw closeFailure;
+            }
+        }
+
+        return new GenerationResult(progress.getCreatedItems(), progress.getSkippedItems(), bytes.get(),
+                System.nanoTime() - start, new TreeMap<>(failures), progress.isCancelled(), statistics);
+    }
+
+    /**
+     * Method used to add a small Data Item, or a Data Item cloned, to the batch of a volume, and to submit the batch
+     * once it is full
+     *
+     * @param task task writing or cloning the Data Item
+     */
+    private static void addToBatch(Volume volume, DataItem item, Runnable task, GenerationJob job, AtomicLong bytes,
+                                   Map<String, Exception> failures) throws InterruptedException {
+        volume.mBatch.add(task);
+        volume.mBatchBytes += item.getSizeInBytes();
+        if (volume.mBatch.size() == BATCH_ITEMS || volume.mBatchBytes >= BATCH_BYTES) {
+            submitBatch(volume, job, bytes, failures);
+        }
+    }
+
+    /**
+     * Method used to submit the Data Items waiting in the batch of a volume as a single task, written one after the
+     * other by the same worker
+     */
+    private static void submitBatch(Volume volume, GenerationJob job, AtomicLong bytes,
+                                    Map<String, Exception> failures) throws InterruptedException {
+        List<Runnable> batch = new ArrayList<>(volume.mBatch);
+        volume.mBatch.clear();
+        volume.mBatchBytes = 0;
+        volume.mQueuedChunks.acquire();
+        volume.mExecutor.execute(() -> {
+            try {
+                for (Runnable task : batch) {
+                    task.run();
+                }
+            } finally {
+                volume.mQueuedChunks.release();
+            }
+        });
+    }
+
+    /**
+     * Method used to write a chunk of a Data Item on a worker thread. The last chunk written records the Data Item
+     * in the checksums and the Manifest of the volume
+     */
+    private static void writeChunk(Volume volume, ItemWriter writer, int chunk, GenerationJob job, AtomicLong bytes,
+                                   Map<String, Exception> failures) {
+        DataItem item = writer.getDataItem();
+        GenerationProgress progress = job.getProgress();
+        try {
+            if (writer.writeChunk(chunk)) {
+                volume.mChecksums.write(item, writer.getChecksums());
+                volume.mManifest.completed(item, job);
+                if (job.getSyncPolicy() == SyncPolicy.BATCHED) {
+                    volume.syncLater(item);
+                }
+                progress.itemCreated();
+                bytes.addAndGet(item.getSizeInBytes());
+            }
+        } catch (CancellationException e) {
+            // The partial file is deleted by the writer: a cancelled Data Item is not a failure
+        } catch (IOException | RuntimeException e) {
+            // Only the first failing chunk of a Data Item is reported
+            if (failures.putIfAbsent(item.getItemName(), e) == null) {
+                progress.itemFailed();
+            }
+        }
+    }
+
+    /**
+     * Method used to create a Data Item from the Data Item of its template written first, on a worker thread, once
+     * that one is complete: its checksums are the ones of the source
+     */
+    private static void cloneItem(Volume volume, ItemWriter source, DataItem item, GenerationJob job, AtomicLong bytes,
+                                  Map<String, Exception> failures) {
+        GenerationProgress progress = job.getProgress();
+        try {
+            Map<ChecksumAlgorithm, String> checksums = source.awaitCompletion();
+            if (progress.isCancelled()) {
+                return;
+            }
+            long start = System.nanoTime();
+            Path target = volume.mDirectory.resolve(item.getItemName());
+            if (item.getItemName().indexOf('/') >= 0) {
+                // A name with '/' is created in a subdirectory of the output directory, as in an archive
+                Files.createDirectories(target.getParent());
+            }
+            volume.mCloner.clone(source.getPath(), target);
+            long cloneNanos = System.nanoTime() - start;
+            volume.mStatistics.itemCompleted(cloneNanos, 0, cloneNanos, 0, 0);
+            progress.bytesWritten(item.getSizeInBytes());
+            volume.mChecksums.write(item, checksums);
+            volume.mManifest.completed(item, job);
+            if (job.getSyncPolicy() == SyncPolicy.BATCHED) {
+                volume.syncLater(item);
+            }
+            progress.itemCreated();
+            bytes.addAndGet(item.getSizeInBytes());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // A source not written because the run has been cancelled is not a failure of its clones
+            if (!progress.isCancelled() && failures.putIfAbsent(item.getItemName(), e) == null) {
+                progress.itemFailed();
+            }
+        }
+    }
+
+    /**
+     * @param prefix prefix of the names of the threads, followed by their number
+     * @return a factory creating daemon worker threads, so that a running job never prevents the JVM from exiting
+     */
+    static ThreadFactory newThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A Data Item of the scheduling window, placed on its volume and waiting to be started. The largest Data Items
+     * come first, the Data Items of the same size in the order of the catalog
+     */
+    private static final class Pending implements Comparable<Pending> {
+
+        private final DataItem mDataItem;
+        private final Volume mVolume;
+        private final long mIndex;
+
+        private Pending(DataItem dataItem, Volume volume, long index) {
+            mDataItem = dataItem;
+            mVolume = volume;
+            mIndex = index;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int result = Long.compare(other.mDataItem.getSizeInBytes(), mDataItem.getSizeInBytes());
+            return result != 0 ? result : Long.compare(mIndex, other.mIndex);
+        }
+    }
+
+    /**
+     * A directory of the job with its own workers, Manifest and checksums: the Data Items queued for a slow volume
+     * never hold the workers of the other volumes. With the BATCHED sync policy, the volume forces its files to the
+     * device in batches, and the remaining ones when it is closed
+     */
+    private static final class Volume implements Closeable {
+
+        private final Path mDirectory;
+        private final ExecutorService mExecutor;
+        private final Semaphore mQueuedChunks;
+        private final Manifest mManifest;
+        private final ChecksumWriter mChecksums;
+        /**
+         * Tasks of the small Data Items and of the Data Items cloned, started but not submitted yet, used by the
+         * thread reading the catalog only
+         */
+        private final List<Runnable> mBatch = new ArrayList<>();
+        private long mBatchBytes;
+        private final GenerationStatistics mStatistics;
+        /**
+         * Cloner of the Data Items, null when the job does not clone them
+         */
+        private final ItemCloner mCloner;
+        /**
+         * Names of the Data Items completed but not forced to the device yet, guarded by the list
+         */
+        private final List<String> mUnsynced = new ArrayList<>();
+        private long mUnsyncedBytes;
+        private IOException mSyncFailure;
+
+        private Volume(Path directory, GenerationJob job, String threadPrefix, GenerationStatistics statistics)
+                throws IOException {
+            mDirectory = directory;
+            mStatistics = statistics;
+            mCloner = job.getCloneMethod() == null ? null
+                    : new ItemCloner(job.getCloneMethod(), job.getSyncPolicy() == SyncPolicy.PER_FILE);
+            mManifest = Manifest.open(directory, job.getManifestName());
+            mChecksums = new ChecksumWriter(directory, job.getChecksumOutput(), false);
+            mExecutor = Executors.newFixedThreadPool(job.getWorkers(), newThreadFactory(threadPrefix));
+            mQueuedChunks = new Semaphore(job.getWorkers() * QUEUED_CHUNKS_PER_WORKER);
+        }
+
+        /**
+         * Method used to close the volume. No-op for the workers when every Data Item has been handled, stops them
+         * when the run has been interrupted
+         */
+        @Override
+        public void close() throws IOException {
+            mExecutor.shutdownNow();
+            try {
+                List<String> names;
+                synchronized (mUnsynced) {
+                    names = new ArrayList<>(mUnsynced);
+                    mUnsynced.clear();
+                }
+                sync(names);
+                synchronized (mUnsynced) {
+                    if (mSyncFailure != null) {
+                        throw mSyncFailure;
+                    }
+                }
+            } finally {
+                try {
+                    mChecksums.close();
+                } finally {
+                    mManifest.close();
+                }
+            }
+        }
+
+        /**
+         * Method used to add a Data Item completed to the batch of files to force to the device. The worker filling
+         * the batch forces it
+         */
+        private void syncLater(DataItem item) {
+            List<String> names;
+            synchronized (mUnsynced) {
+                mUnsynced.add(item.getItemName());
+                mUnsyncedBytes += item.getSizeInBytes();
+                if (mUnsynced.size() < SYNC_BATCH_FILES && mUnsyncedBytes < SYNC_BATCH_BYTES) {
+                    return;
+                }
+                names = new ArrayList<>(mUnsynced);
+                mUnsynced.clear();
+                mUnsyncedBytes = 0;
+            }
+            sync(names);
+        }
+
+        /**
+         * Method used to force files of the volume to the device. The first failure is kept and thrown when the
+         * volume is closed: the Data Items have already been recorded as completed
+         */
+        private void sync(List<String> names) {
+            if (names.isEmpty()) {
+                return;
+            }
+            long start = System.nanoTime();
+            for (String name : names) {
+                try (FileChannel channel = FileChannel.open(mDirectory.resolve(name), StandardOpenOption.WRITE)) {
+                    channel.force(false);
+                } catch (IOException e) {
+                    synchronized (mUnsynced) {
+                        if (mSyncFailure == null) {
+                            mSyncFailure = new IOException("Cannot force " + name + " to the device", e);
+                        }
+                    }
+                }
+            }
+            mStatistics.batchSynced(System.nanoTime() - start);
+        }
+    }
+}
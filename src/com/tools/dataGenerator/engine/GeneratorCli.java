@@ -0,0 +1,580 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.Catalog;
+import com.tools.dataGenerator.catalog.CatalogCache;
+import com.tools.dataGenerator.catalog.CatalogErrors;
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.packaging.ArchiveFormat;
+import com.tools.dataGenerator.packaging.TarGzPackager;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Command line interface used to generate the Data Items listed in a configuration file without starting the
+ * DataGenerator window. It can be used on headless machines (Ex: from cron or CI jobs).
+ * <p>
+ * Usage: GeneratorCli [--workers N] [--content sparse|random|profiled] [--profile ratio=R,dup=F] [--seed N]
+ * [--chunk-size MB] [--mmap] [--materializer NAME] [--fsync] [--fsync-policy none|per-file|batched] [--full]
+ * [--clone hard-link|reflink|transfer]
+ * [--checksum md5,sha256,crc32c] [--checksum-output per-file|sidecar]
+ * [--volume DIRECTORY]... [--placement round-robin|size-balanced|name-hash]
+ * [--report FILE] [--tar ARCHIVE] [--feed [--speed-up X] [--cadence DURATION] [--max-rate MB/s]]
+ * [--plan] [--force] [--reserve PERCENT] [--no-probe] CATALOG OUTPUT_DIRECTORY
+ * <br>
+ * or: GeneratorCli [options] --archive ARCHIVE CATALOG
+ * <br>
+ * or: GeneratorCli [options] --coordinator PORT CATALOG OUTPUT_DIRECTORY
+ * <br>
+ * or: GeneratorCli [--workers N] --worker HOST:PORT [--name NAME] [OUTPUT_DIRECTORY]
+ * <p>
+ * The Data Items already completed by a previous run in OUTPUT_DIRECTORY are not generated again (see Manifest),
+ * unless --full is given.
+ * With --profile the content reaches the given compression ratio and fraction of duplicate 4 KiB blocks (see
+ * ContentProfile); the Data Items with a profile in the configuration file keep their own.
+ * With --checksum the given checksums are computed while the Data Items are written, and written next to each Data
+ * Item (Ex: NAME.md5) or, with --checksum-output sidecar, in one file per algorithm (Ex: MD5SUMS).
+ * With --materializer the files of the Data Items are written by the given Materializer (Ex: sparse, zero-fill,
+ * positional, gather, mmap, buffered-stream, see StandardMaterializer), unless their entry in the configuration file
+ * selects its own; --mmap selects mmap for the Data Items with content.
+ * With --fsync the content of each Data Item is forced to the storage device before closing it; --fsync-policy
+ * batched forces them in batches and at the end of the run instead (see SyncPolicy).
+ * With --clone the Data Items with content differing only by the digits of their names (Ex: the products of a time
+ * series) have the same content: only the first one of each volume is written, the next ones are hard links to it,
+ * copy-on-write clones of it or copies of it made by the kernel (see CloneMethod). It cannot be used with --feed nor
+ * --archive.
+ * With --report the report of the run is written to the given file, as JSON or as CSV (see RunReport).
+ * With --volume the Data Items are spread across OUTPUT_DIRECTORY and the given directories (Ex: one per drive)
+ * by the --placement policy, each directory being written by its own --workers threads.
+ * With --tar the generated Data Items are packaged into the given tar.gz file once created.
+ * With --archive the Data Items are generated directly into the given .tar, .tar.gz or .zip file, without writing
+ * them to disk first (see ArchiveGenerator).
+ * With --feed the Data Items are delivered into OUTPUT_DIRECTORY over time (see Feeder): by sensing time, or every
+ * --cadence (ISO-8601 duration, Ex: PT2S), accelerated by --speed-up and capped to --max-rate MB/s on average.
+ * Before generating, the run is planned (see CapacityPlanner): it is refused when it does not fit on the file
+ * systems of its volumes beyond a reserve of --reserve percent of their space and inodes (5 by default), unless
+ * --force is given. Its duration is estimated from the --report of the previous runs, or from a short throughput
+ * probe unless --no-probe is given. With --plan the plan is displayed and nothing is generated.
+ * With --coordinator the Data Items are generated by the --worker processes connecting to PORT, on this machine or
+ * on others (see Coordinator). Each worker writes to OUTPUT_DIRECTORY, or to its own OUTPUT_DIRECTORY when given,
+ * with --workers threads; its --name (by default the host name) must be unique among the workers.
+ */
+public final class GeneratorCli {
+
+    private static final int EXIT_FAILURE = 1;
+    private static final int EXIT_USAGE = 2;
+
+    /**
+     * Minimum interval between two reports of a feed lagging behind schedule: 1 s
+     */
+    private static final long LAG_REPORT_INTERVAL = 1_000_000_000L;
+
+    /**
+     * Interval between two reports of the progress of the workers of a coordinator: 5 s
+     */
+    private static final long CLUSTER_REPORT_MILLIS = 5_000;
+
+    private static final String USAGE = "Usage: GeneratorCli [--workers N] [--content sparse|random|profiled]"
+            + " [--profile ratio=R,dup=F] [--seed N] [--chunk-size MB] [--mmap] [--materializer NAME]"
+            + " [--fsync] [--fsync-policy none|per-file|batched] [--full] [--clone hard-link|reflink|transfer]"
+            + " [--checksum md5,sha256,crc32c] [--checksum-output per-file|sidecar]"
+            + " [--volume DIRECTORY]... [--placement round-robin|size-balanced|name-hash]"
+            + " [--report FILE] [--tar ARCHIVE]"
+            + " [--feed [--speed-up X] [--cadence DURATION] [--max-rate MB/s]]"
+            + " [--plan] [--force] [--reserve PERCENT] [--no-probe] CATALOG OUTPUT_DIRECTORY\n"
+            + "   or: GeneratorCli [options] --archive ARCHIVE CATALOG\n"
+            + "   or: GeneratorCli [options] --coordinator PORT CATALOG OUTPUT_DIRECTORY\n"
+            + "   or: GeneratorCli [--workers N] --worker HOST:PORT [--name NAME] [OUTPUT_DIRECTORY]";
+
+    private GeneratorCli() {}
+
+    /**
+     * Main method
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Method used to run the command line interface
+     *
+     * @param args command line arguments
+     * @return the exit code of the process
+     */
+    static int run(String[] args) {
+        List<String> positional = new ArrayList<>();
+        int workers = Runtime.getRuntime().availableProcessors();
+        ContentMode contentMode = ContentMode.SPARSE;
+        ContentProfile contentProfile = ContentProfile.DEFAULT;
+        long seed = 0;
+        long chunkSize = GenerationJob.DEFAULT_CHUNK_SIZE;
+        boolean memoryMapped = false;
+        Materializer materializer = null;
+        SyncPolicy syncPolicy = SyncPolicy.NONE;
+        CloneMethod cloneMethod = null;
+        boolean incremental = true;
+        Set<ChecksumAlgorithm> checksums = EnumSet.noneOf(ChecksumAlgorithm.class);
+        ChecksumOutput checksumOutput = ChecksumOutput.PER_FILE;
+        Path report = null;
+        Path archive = null;
+        Path directArchive = null;
+        List<Path> volumes = new ArrayList<>();
+        PlacementPolicy placementPolicy = PlacementPolicy.SIZE_BALANCED;
+        boolean feed = false;
+        double speedUp = 1;
+        Duration cadence = null;
+        double maxRate = 0;
+        int coordinatorPort = -1;
+        String coordinatorAddress = null;
+        String workerName = null;
+        boolean planOnly = false;
+        boolean force = false;
+        double reserve = CapacityPlanner.DEFAULT_RESERVE;
+        boolean probe = true;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--workers":
+                        workers = Integer.parseInt(nextArgument(args, ++i));
+                        break;
+                    case "--content":
+                        contentMode = parseEnum(ContentMode.class, args[i], nextArgument(args, ++i));
+                        break;
+                    case "--profile":
+                        contentProfile = ContentProfile.parse(nextArgument(args, ++i));
+                        contentMode = ContentMode.PROFILED;
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(nextArgument(args, ++i));
+                        break;
+                    case "--chunk-size":
+                        chunkSize = (long) (Double.parseDouble(nextArgument(args, ++i)) * DataItem.SIZE_MB);
+                        break;
+                    case "--mmap":
+                        memoryMapped = true;
+                        break;
+                    case "--materializer":
+                        materializer = Materializer.forName(nextArgument(args, ++i));
+                        break;
+                    case "--fsync":
+                        syncPolicy = SyncPolicy.PER_FILE;
+                        break;
+                    case "--fsync-policy":
+                        syncPolicy = parseEnum(SyncPolicy.class, args[i], nextArgument(args, ++i));
+                        break;
+                    case "--clone":
+                        cloneMethod = parseEnum(CloneMethod.class, args[i], nextArgument(args, ++i));
+                        break;
+                    case "--full":
+                        incremental = false;
+                        break;
+                    case "--checksum":
+                        for (String algorithm : nextArgument(args, ++i).split(",")) {
+                            checksums.add(ChecksumAlgorithm.parse(algorithm));
+                        }
+                        break;
+                    case "--checksum-output":
+                        checksumOutput = parseEnum(ChecksumOutput.class, args[i], nextArgument(args, ++i));
+                        break;
+                    case "--volume":
+                        volumes.add(Paths.get(nextArgument(args, ++i)));
+                        break;
+                    case "--placement":
+                        placementPolicy = parseEnum(PlacementPolicy.class, args[i], nextArgument(args, ++i));
+                        break;
+                    case "--report":
+                        report = Paths.get(nextArgument(args, ++i));
+                        break;
+                    case "--tar":
+                        archive = Paths.get(nextArgument(args, ++i));
+                        break;
+                    case "--archive":
+                        directArchive = Paths.get(nextArgument(args, ++i));
+                        break;
+                    case "--feed":
+                        feed = true;
+                        break;
+                    case "--speed-up":
+                        speedUp = Double.parseDouble(nextArgument(args, ++i));
+                        break;
+                    case "--cadence":
+                        cadence = Duration.parse(nextArgument(args, ++i));
+                        break;
+                    case "--max-rate":
+                        maxRate = Double.parseDouble(nextArgument(args, ++i));
+                        break;
+                    case "--coordinator":
+                        coordinatorPort = Integer.parseInt(nextArgument(args, ++i));
+                        break;
+                    case "--worker":
+                        coordinatorAddress = nextArgument(args, ++i);
+                        break;
+                    case "--name":
+                        workerName = nextArgument(args, ++i);
+                        break;
+                    case "--plan":
+                        planOnly = true;
+                        break;
+                    case "--force":
+                        force = true;
+                        break;
+                    case "--reserve":
+                        reserve = Double.parseDouble(nextArgument(args, ++i)) / 100;
+                        break;
+                    case "--no-probe":
+                        probe = false;
+                        break;
+                    case "--help":
+                        System.out.println(USAGE);
+                        return 0;
+                    default:
+                        positional.add(args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        if (coordinatorAddress != null) {
+            return runWorker(coordinatorAddress, workerName, workers, positional);
+        }
+        boolean cluster = coordinatorPort >= 0;
+        if (positional.size() != (directArchive == null ? 2 : 1) || workers < 1 || chunkSize < 1
+                || chunkSize > Integer.MAX_VALUE || (feed && archive != null)
+                || (directArchive != null && (feed || archive != null))
+                || (cloneMethod != null && (feed || directArchive != null))
+                || (!volumes.isEmpty() && (feed || archive != null || directArchive != null))
+                || workerName != null || coordinatorPort > 0xFFFF || !(reserve >= 0 && reserve < 1)
+                || (planOnly && (cluster || directArchive != null))
+                || (cluster && (feed || directArchive != null || !volumes.isEmpty()))) {
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (directArchive != null) {
+            try {
+                ArchiveFormat.fromFileName(directArchive);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        Path catalog = Paths.get(positional.get(0));
+        Path outputDirectory = directArchive == null ? Paths.get(positional.get(1))
+                : directArchive.toAbsolutePath().getParent();
+
+        CatalogErrors errors = new CatalogErrors();
+        Catalog dataItems;
+        try {
+            dataItems = CatalogCache.open(catalog, errors);
+        } catch (IOException e) {
+            System.err.println("Cannot read the configuration file " + catalog + ": " + e.getMessage());
+            return EXIT_FAILURE;
+        }
+        for (int i = 0; i < errors.size(); i++) {
+            System.err.println("Wrong entry in the configuration file, " + errors.format(i));
+        }
+
+        GenerationJob job;
+        try {
+            job = feed ? newFeedJob(outputDirectory, dataItems, speedUp, cadence, maxRate)
+                    : new GenerationJob(outputDirectory, dataItems);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        if (!volumes.isEmpty()) {
+            volumes.add(0, outputDirectory);
+            job.setVolumes(volumes);
+        }
+        job.setPlacementPolicy(placementPolicy);
+        job.setWorkers(workers);
+        job.setContentMode(contentMode);
+        job.setContentProfile(contentProfile);
+        job.setSeed(seed);
+        job.setChunkSize(chunkSize);
+        job.setMemoryMapped(memoryMapped);
+        job.setMaterializer(materializer);
+        job.setSyncPolicy(syncPolicy);
+        job.setCloneMethod(cloneMethod);
+        job.setIncremental(incremental);
+        job.setChecksums(checksums);
+        job.setChecksumOutput(checksumOutput);
+
+        // The workers of a cluster write on their own file systems, an archive is a single file
+        if (!cluster && directArchive == null) {
+            CapacityPlanner planner = new CapacityPlanner();
+            planner.setReserve(reserve);
+            planner.setProbe(probe);
+            planner.setReport(report);
+            CapacityPlan plan;
+            try {
+                plan = planner.plan(job);
+            } catch (IOException e) {
+                System.err.println("Cannot plan the run in " + outputDirectory + ": " + e.getMessage());
+                return EXIT_FAILURE;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Generation interrupted");
+                return EXIT_FAILURE;
+            }
+            System.out.println(plan);
+            for (String warning : plan.getWarnings()) {
+                System.err.println("Warning: " + warning);
+            }
+            for (String problem : plan.getProblems()) {
+                System.err.println((force ? "Warning: " : "Refused: ") + problem);
+            }
+            if (planOnly) {
+                return plan.isAdmitted() ? 0 : EXIT_FAILURE;
+            }
+            if (!plan.isAdmitted() && !force) {
+                System.err.println("The run does not fit: free some space, lower --reserve or use --force");
+                return EXIT_FAILURE;
+            }
+        }
+
+        GenerationResult result;
+        try {
+            if (directArchive != null) {
+                result = new ArchiveGenerator().run(job, directArchive);
+            } else if (cluster) {
+                result = runCoordinator(job, coordinatorPort);
+            } else {
+                result = feed ? new Feeder().run((FeedJob) job) : new Generator().run(job);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return EXIT_USAGE;
+        } catch (IOException e) {
+            System.err.println("Cannot " + (directArchive != null ? "create the archive " + directArchive
+                    : cluster ? "listen on port " + coordinatorPort
+                    : "create the output directory " + outputDirectory) + ": " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Generation interrupted");
+            return EXIT_FAILURE;
+        }
+
+        for (Map.Entry<String, Exception> failure : result.getFailures().entrySet()) {
+            System.err.println("Cannot create " + failure.getKey() + ": " + failure.getValue());
+        }
+        System.out.printf("%d Data Items created (%.1f MB) in %.1f s, %.1f MB/s%n",
+                result.getCreatedItems(), result.getBytes() / (double) DataItem.SIZE_MB,
+                result.getElapsedNanos() / 1e9, result.getThroughput());
+        if (result.getSkippedItems() > 0) {
+            System.out.printf("%d Data Items already up to date%n", result.getSkippedItems());
+        }
+        GenerationStatistics statistics = result.getStatistics();
+        if (statistics.getItemCount() > 0) {
+            System.out.printf("Data Item latency: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+                    statistics.getLatencyPercentile(50) / 1e6, statistics.getLatencyPercentile(99) / 1e6,
+                    statistics.getLatencyPercentile(100) / 1e6);
+        }
+        if (result instanceof ClusterResult) {
+            ClusterResult clusterResult = (ClusterResult) result;
+            System.out.printf("%d workers, %d work units retried%n", clusterResult.getWorkers(),
+                    clusterResult.getRetriedUnits());
+            for (Map.Entry<String, Long> worker : clusterResult.getWorkerBytes().entrySet()) {
+                System.out.printf("  %s: %.1f MB%n", worker.getKey(), worker.getValue() / (double) DataItem.SIZE_MB);
+            }
+        }
+        if (result instanceof FeedResult) {
+            FeedResult feedResult = (FeedResult) result;
+            System.out.printf("Feed lag: mean %.1f ms, max %.1f ms, %d Data Items late%n",
+                    feedResult.getMeanLagNanos() / 1e6, feedResult.getMaxLagNanos() / 1e6,
+                    feedResult.getLateItems());
+        }
+
+        if (report != null) {
+            try {
+                RunReport.write(job, result, report);
+            } catch (IOException e) {
+                System.err.println("Cannot write the report " + report + ": " + e.getMessage());
+                return EXIT_FAILURE;
+            }
+        }
+
+        if (!result.isSuccessful()) {
+            return EXIT_FAILURE;
+        }
+
+        if (archive != null) {
+            try {
+                long start = System.nanoTime();
+                new TarGzPackager().createArchive(outputDirectory, archive);
+                System.out.printf("Archive %s created in %.1f s%n", archive, (System.nanoTime() - start) / 1e9);
+            } catch (IOException e) {
+                System.err.println("Cannot create the archive " + archive + ": " + e.getMessage());
+                return EXIT_FAILURE;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Method used to run a job on the workers connecting to the given port, reporting their aggregate throughput
+     * on the standard output every CLUSTER_REPORT_MILLIS
+     */
+    private static ClusterResult runCoordinator(GenerationJob job, int port) throws IOException,
+            InterruptedException {
+        Coordinator coordinator = new Coordinator(job, port);
+        System.out.println("Coordinator listening on port " + coordinator.bind());
+        Thread reporter = new Thread(() -> {
+            GenerationProgress progress = job.getProgress();
+            long lastBytes = 0;
+            long last = System.nanoTime();
+            try {
+                while (true) {
+                    Thread.sleep(CLUSTER_REPORT_MILLIS);
+                    long bytes = progress.getBytesWritten();
+                    long now = System.nanoTime();
+                    System.out.printf("%d workers, %d Data Items created, %.1f MB, %.1f MB/s%n",
+                            coordinator.getConnectedWorkers(), progress.getCreatedItems(),
+                            bytes / (double) DataItem.SIZE_MB, (bytes - lastBytes) / 1e6 / ((now - last) / 1e9));
+                    lastBytes = bytes;
+                    last = now;
+                }
+            } catch (InterruptedException e) {
+                // End of the run
+            }
+        }, "coordinator-reporter");
+        reporter.setDaemon(true);
+        reporter.start();
+        try {
+            return coordinator.run();
+        } finally {
+            reporter.interrupt();
+        }
+    }
+
+    /**
+     * Method used to generate the work units handed by a coordinator
+     *
+     * @param address    host and port of the coordinator (Ex: node0:7100)
+     * @param name       name of the worker, null to use the host name
+     * @param positional the output directory of the worker, if any
+     * @return the exit code of the process
+     */
+    private static int runWorker(String address, String name, int workers, List<String> positional) {
+        int separator = address.lastIndexOf(':');
+        if (separator < 1 || positional.size() > 1 || workers < 1) {
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        ClusterWorker worker;
+        try {
+            worker = new ClusterWorker(address.substring(0, separator),
+                    Integer.parseInt(address.substring(separator + 1)), name != null ? name : hostName());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+        worker.setWorkers(workers);
+        if (!positional.isEmpty()) {
+            worker.setOutputDirectory(Paths.get(positional.get(0)));
+        }
+        try {
+            long start = System.nanoTime();
+            long units = worker.run();
+            System.out.printf("Worker %s: %d work units generated in %.1f s%n", worker.getName(), units,
+                    (System.nanoTime() - start) / 1e9);
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Worker " + worker.getName() + " stopped: " + e.getMessage());
+            return EXIT_FAILURE;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Generation interrupted");
+            return EXIT_FAILURE;
+        }
+    }
+
+    /**
+     * @return the name of this machine, used as the default name of a worker
+     */
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "worker";
+        }
+    }
+
+    /**
+     * @return a feed job reporting on the standard error, at most once per second, when it lags behind schedule
+     */
+    private static FeedJob newFeedJob(Path dropDirectory, Iterable<DataItem> dataItems, double speedUp,
+                                      Duration cadence, double maxRate) {
+        FeedJob job = new FeedJob(dropDirectory, dataItems);
+        job.setSpeedUp(speedUp);
+        job.setCadence(cadence);
+        job.setMaxThroughput(maxRate);
+        long[] lastReport = {System.nanoTime() - LAG_REPORT_INTERVAL};
+        job.setLagListener((item, lagNanos) -> {
+            long now = System.nanoTime();
+            if (now - lastReport[0] >= LAG_REPORT_INTERVAL) {
+                lastReport[0] = now;
+                System.err.printf("Feed lagging %.1f s behind schedule at %s%n", lagNanos / 1e9,
+                        item.getItemName());
+            }
+        });
+        return job;
+    }
+
+    /**
+     * @return the value of the option at the given index
+     * @throws IllegalArgumentException when the option has no value
+     */
+    private static String nextArgument(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * Method used to parse the value of an option naming a constant of an enum, in any case and with '-' for '_'
+     * (Ex: random for RANDOM). The value is converted with Locale.ROOT, so that it is parsed whatever the locale
+     *
+     * @param type   the enum
+     * @param option name of the option, reported when the value is not valid
+     * @param value  value of the option
+     * @return the constant
+     * @throws IllegalArgumentException if the value is not a constant of the enum
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String option, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            String expected = Arrays.stream(type.getEnumConstants())
+                    .map(constant -> constant.name().toLowerCase(Locale.ROOT).replace('_', '-'))
+                    .collect(Collectors.joining("|"));
+            throw new IllegalArgumentException("Invalid value for option " + option + ": " + value + " (expected "
+                    + expected + ")", e);
+        }
+    }
+}
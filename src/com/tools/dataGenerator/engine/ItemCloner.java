@@ -0,0 +1,122 @@
+package com.tools.dataGenerator.engine;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class creates the Data Items of a volume from the first Data Item of the volume with the same template,
+ * instead of writing their content again (see GenerationJob.setCloneMethod). The first Data Item of each template is
+ * the source of the next ones: it is written as usual, then the next ones are linked, cloned or copied from its file.
+ * <p>
+ * When the CloneMethod of the job fails, the Data Item is copied with FileChannel.transferTo instead. A file system
+ * not supporting copy-on-write clones is remembered, so that cp is not started again for each Data Item.
+ */
+final class ItemCloner {
+
+    /**
+     * Maximum time given to cp to clone a file: 60 s
+     */
+    private static final long REFLINK_TIMEOUT_SECONDS = 60;
+
+    private final CloneMethod mMethod;
+    private final boolean mSync;
+    /**
+     * Writer of the source of each clone key, used by the thread reading the catalog only
+     */
+    private final Map<String, ItemWriter> mSources = new HashMap<>();
+    private volatile boolean mReflinkUnsupported;
+
+    /**
+     * Constructor
+     *
+     * @param method how the Data Items are created from their source
+     * @param sync   true to force the content of the Data Items copied to the storage device
+     */
+    ItemCloner(CloneMethod method, boolean sync) {
+        mMethod = method;
+        mSync = sync;
+    }
+
+    /**
+     * @return the writer of the source of a clone key, or null if no Data Item of the key has been started yet
+     */
+    ItemWriter getSource(String cloneKey) {
+        return mSources.get(cloneKey);
+    }
+
+    /**
+     * Method used to record the writer of the first Data Item of a clone key, the source of the next ones
+     */
+    void setSource(String cloneKey, ItemWriter writer) {
+        mSources.put(cloneKey, writer);
+    }
+
+    /**
+     * Method used to create a Data Item from its source. The file of the Data Item is replaced: it is never written
+     * in place, since it can be a link to the file of another Data Item
+     *
+     * @param source file of the source, complete
+     * @param target file of the Data Item
+     * @throws IOException          if the file cannot be created
+     * @throws InterruptedException if the thread is interrupted while cp is cloning the file
+     */
+    void clone(Path source, Path target) throws IOException, InterruptedException {
+        Files.deleteIfExists(target);
+        if (mMethod == CloneMethod.HARD_LINK) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                // Links not supported, or too many links to the source: the file is copied
+            }
+        } else if (mMethod == CloneMethod.REFLINK && !mReflinkUnsupported) {
+            if (reflink(source, target)) {
+                return;
+            }
+            mReflinkUnsupported = true;
+            Files.deleteIfExists(target);
+        }
+        transfer(source, target);
+    }
+
+    /**
+     * Method used to clone a file with cp, the JDK having no API for it
+     *
+     * @return true if the file has been cloned, false if cp or the file system cannot clone it
+     */
+    private static boolean reflink(Path source, Path target) throws InterruptedException {
+        try {
+            Process process = new ProcessBuilder("cp", "--reflink=always", "--", source.toString(), target.toString())
+                    .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (!process.waitFor(REFLINK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            // No cp on this system
+            return false;
+        }
+    }
+
+    private void transfer(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            if (mSync) {
+                out.force(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tools.dataGenerator.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the close of the file of a Data Item, and its deletion when it was not completed
+ */
+@Name("com.tools.dataGenerator.ItemClose")
+@Label("Data Item Close")
+@Category({"DataGenerator", "Generation"})
+@Description("Close of the file of a Data Item")
+class ItemCloseEvent extends jdk.jfr.Event {
+
+    @Label("Data Item")
+    String item;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Deleted")
+    @Description("True when the Data Item failed or was cancelled and its partial file has been deleted")
+    boolean deleted;
+}
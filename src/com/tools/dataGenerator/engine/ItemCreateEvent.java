@@ -0,0 +1,24 @@
+package com.tools.dataGenerator.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the creation of the file of a Data Item and the allocation of its length
+ */
+@Name("com.tools.dataGenerator.ItemCreate")
+@Label("Data Item Create")
+@Category({"DataGenerator", "Generation"})
+@Description("Creation of the file of a Data Item")
+class ItemCreateEvent extends jdk.jfr.Event {
+
+    @Label("Data Item")
+    String item;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
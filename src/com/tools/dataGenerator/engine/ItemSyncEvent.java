@@ -0,0 +1,24 @@
+package com.tools.dataGenerator.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the force of the content of a Data Item to the storage device
+ */
+@Name("com.tools.dataGenerator.ItemSync")
+@Label("Data Item Sync")
+@Category({"DataGenerator", "Generation"})
+@Description("Force of the content of a Data Item to the storage device")
+class ItemSyncEvent extends jdk.jfr.Event {
+
+    @Label("Data Item")
+    String item;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,28 @@
+package com.tools.dataGenerator.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the write of a chunk of a Data Item
+ */
+@Name("com.tools.dataGenerator.ItemWrite")
+@Label("Data Item Write")
+@Category({"DataGenerator", "Generation"})
+@Description("Write of a chunk of a Data Item")
+class ItemWriteEvent extends jdk.jfr.Event {
+
+    @Label("Data Item")
+    String item;
+
+    @Label("Offset")
+    @DataAmount
+    long offset;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytes;
+}
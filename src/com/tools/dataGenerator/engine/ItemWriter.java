@@ -0,0 +1,467 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.checksum.Crc32c;
+import com.tools.dataGenerator.content.ContentProfile;
+import com.tools.dataGenerator.content.PayloadGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.zip.CRC32C;
+
+/**
+ * This class writes the file of a single Data Item, through the Materializer selected for it by the job.
+ * <p>
+ * The file is split into chunks that can be written by different worker threads at the same time, unless the
+ * materializer writes the files sequentially. The file is created by the first chunk that is written and closed by
+ * the last one, so that no worker ever waits for another.
+ * When a chunk fails, or the job is cancelled, the partial file is deleted once every chunk has been handled.
+ * <p>
+ * Each phase (create, write of a chunk, sync, close) is timed and recorded as a Flight Recorder event. The timings
+ * of the Data Items successfully created are collected in the GenerationStatistics of the run.
+ * <p>
+ * The checksums of the job are computed from the buffers being written, so that the file is never read back:
+ * <ul>
+ * <li>the CRC32C of each chunk is computed by the worker writing it, and the CRC32C of the chunks are combined once
+ * the file is complete</li>
+ * <li>the message digests (MD5, SHA-256) consume the bytes in order: each buffer is digested when it is the next
+ * one of the file. The parts written out of order by the other workers are digested once the file is complete,
+ * from their content generated again (the content is a deterministic function of the position, see
+ * PayloadGenerator and ContentProfile): it costs CPU time but no I/O</li>
+ * </ul>
+ */
+class ItemWriter {
+
+    private final Path mPath;
+    private final DataItem mDataItem;
+    private final ContentMode mContentMode;
+    private final ContentProfile mContentProfile;
+    private final Materializer mMaterializer;
+    private final boolean mSync;
+    /**
+     * True if the content is zeros already in the file created: nothing is written
+     */
+    private final boolean mZeroFilled;
+    private final long mItemSeed;
+    private final long mChunkSize;
+    private final int mChunks;
+    private final GenerationProgress mProgress;
+    private final GenerationStatistics mStatistics;
+    private final boolean mCrc32c;
+    private final int[] mChunkCrcs;
+    private final List<ChecksumAlgorithm> mDigestAlgorithms = new ArrayList<>();
+    private final List<MessageDigest> mDigests = new ArrayList<>();
+
+    private Materializer.Target mTarget;
+    private int mPendingChunks;
+    private boolean mFailed;
+    /**
+     * True once every chunk has been handled, and mSucceeded true if the file has been written
+     */
+    private boolean mDone;
+    private boolean mSucceeded;
+    private long mOpenedAt;
+    private long mCreateNanos;
+    private long mWriteNanos;
+    /**
+     * Position of the next byte to digest: the buffer starting at this position is digested by the worker writing
+     * it, the workers writing the other buffers do not wait
+     */
+    private volatile long mDigestPosition;
+    private Map<ChecksumAlgorithm, String> mChecksums = Collections.emptyMap();
+
+    /**
+     * Constructor
+     *
+     * @param path       path of the file to write
+     * @param dataItem   the Data Item to write
+     * @param job        the job the Data Item belongs to
+     * @param statistics statistics of the run, where the timings of the Data Item are recorded once created
+     * @throws IllegalArgumentException if the materializer of the Data Item is unknown
+     */
+    ItemWriter(Path path, DataItem dataItem, GenerationJob job, GenerationStatistics statistics) {
+        mPath = path;
+        mDataItem = dataItem;
+        mContentMode = job.getContentMode(dataItem);
+        mContentProfile = job.getContentProfile(dataItem);
+        mMaterializer = job.getMaterializer(dataItem);
+        mSync = job.getSyncPolicy() == SyncPolicy.PER_FILE;
+        mZeroFilled = mContentMode == ContentMode.SPARSE && mMaterializer.isZeroFilled();
+        mItemSeed = job.getItemSeed(dataItem);
+        mChunkSize = job.getChunkSize();
+        mProgress = job.getProgress();
+        mStatistics = statistics;
+
+        long size = dataItem.getSizeInBytes();
+        mChunks = mZeroFilled || !mMaterializer.isParallel() || size == 0 ? 1
+                : (int) ((size + mChunkSize - 1) / mChunkSize);
+        mPendingChunks = mChunks;
+
+        mCrc32c = job.getChecksums().contains(ChecksumAlgorithm.CRC32C);
+        mChunkCrcs = mCrc32c ? new int[mChunks] : null;
+        for (ChecksumAlgorithm algorithm : job.getChecksums()) {
+            if (!algorithm.isCombinable()) {
+                mDigestAlgorithms.add(algorithm);
+                mDigests.add(algorithm.newMessageDigest());
+            }
+        }
+    }
+
+    DataItem getDataItem() {
+        return mDataItem;
+    }
+
+    Path getPath() {
+        return mPath;
+    }
+
+    /**
+     * @return the number of chunks the file is split into
+     */
+    int getChunks() {
+        return mChunks;
+    }
+
+    /**
+     * @return the checksums of the file formatted as hexadecimal strings, available once the file is complete
+     */
+    Map<ChecksumAlgorithm, String> getChecksums() {
+        return mChecksums;
+    }
+
+    /**
+     * Method used to wait until every chunk of the file has been handled, by the Data Items cloned from this one (see
+     * ItemCloner)
+     *
+     * @return the checksums of the file
+     * @throws IOException          if the file has not been written
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    synchronized Map<ChecksumAlgorithm, String> awaitCompletion() throws IOException, InterruptedException {
+        while (!mDone) {
+            wait();
+        }
+        if (!mSucceeded) {
+            throw new IOException("The Data Item cloned has not been written: " + mDataItem.getItemName());
+        }
+        return mChecksums;
+    }
+
+    /**
+     * Method used to write a chunk of the file
+     *
+     * @param chunk index of the chunk to write
+     * @return true when this was the last chunk of the file and the whole file has been successfully written
+     * @throws IOException           if the chunk cannot be written
+     * @throws CancellationException if the job has been cancelled
+     */
+    boolean writeChunk(int chunk) throws IOException {
+        boolean written = false;
+        long writeNanos = 0;
+        try {
+            checkCancelled();
+            Materializer.Target target = open();
+            if (target != null && mZeroFilled) {
+                mProgress.bytesWritten(mDataItem.getSizeInBytes());
+            } else if (target != null) {
+                long offset = chunk * mChunkSize;
+                // A file written sequentially is a single chunk, whatever its size
+                long length = mChunks == 1 ? mDataItem.getSizeInBytes()
+                        : Math.min(mChunkSize, mDataItem.getSizeInBytes() - offset);
+                ItemWriteEvent event = new ItemWriteEvent();
+                event.begin();
+                CRC32C crc = mCrc32c ? new CRC32C() : null;
+                long start = System.nanoTime();
+                target.write(offset, length, (buffer, position) -> fillChunk(buffer, position, crc));
+                writeNanos = System.nanoTime() - start;
+                if (crc != null) {
+                    // Published to the last chunk by the lock of complete
+                    mChunkCrcs[chunk] = (int) crc.getValue();
+                }
+                event.end();
+                if (event.shouldCommit()) {
+                    event.item = mDataItem.getItemName();
+                    event.offset = offset;
+                    event.bytes = length;
+                    event.commit();
+                }
+            }
+            written = true;
+        } finally {
+            written = complete(written, writeNanos);
+        }
+        return written;
+    }
+
+    /**
+     * Method used to create the file the first time a chunk is written
+     *
+     * @return the file, or null when another chunk has already failed
+     */
+    private synchronized Materializer.Target open() throws IOException {
+        if (mTarget == null && !mFailed) {
+            ItemCreateEvent event = new ItemCreateEvent();
+            event.begin();
+            mOpenedAt = System.nanoTime();
+            if (mDataItem.getItemName().indexOf('/') >= 0) {
+                // A name with '/' is created in a subdirectory of the output directory, as in an archive
+                Files.createDirectories(mPath.getParent());
+            }
+            // The file is replaced rather than written in place: it can be a link to the file of another Data Item
+            // cloned by a previous run (see ItemCloner)
+            Files.deleteIfExists(mPath);
+            mTarget = mMaterializer.create(mPath, mDataItem.getSizeInBytes(), mChunks);
+            mCreateNanos = System.nanoTime() - mOpenedAt;
+            event.end();
+            if (event.shouldCommit()) {
+                event.item = mDataItem.getItemName();
+                event.bytes = mDataItem.getSizeInBytes();
+                event.commit();
+            }
+        }
+        return mTarget;
+    }
+
+    /**
+     * Method used to keep trace of the chunks written. The last chunk syncs and closes the file, and deletes it if a
+     * chunk failed
+     *
+     * @param written    true if the chunk has been successfully written
+     * @param writeNanos time spent writing the chunk
+     * @return true when the whole file has been successfully written
+     */
+    private synchronized boolean complete(boolean written, long writeNanos) throws IOException {
+        mWriteNanos += writeNanos;
+        if (!written) {
+            mFailed = true;
+        }
+        if (--mPendingChunks > 0) {
+            return false;
+        }
+        try {
+            mSucceeded = completeFile();
+            return mSucceeded;
+        } finally {
+            mDone = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Method used by the last chunk handled to sync and close the file, and to delete it if a chunk failed
+     *
+     * @return true when the whole file has been successfully written
+     */
+    private boolean completeFile() throws IOException {
+        if (mTarget == null) {
+            // The file has never been opened: nothing to clean up
+            return false;
+        }
+        long syncNanos = 0;
+        long closeNanos;
+        try {
+            if (!mFailed) {
+                completeChecksums();
+            }
+            if (mSync && !mFailed) {
+                syncNanos = sync();
+            }
+        } catch (IOException | RuntimeException e) {
+            mFailed = true;
+            throw e;
+        } finally {
+            closeNanos = close();
+        }
+        if (!mFailed) {
+            mStatistics.itemCompleted(System.nanoTime() - mOpenedAt, mCreateNanos, mWriteNanos, syncNanos,
+                    closeNanos);
+        }
+        return !mFailed;
+    }
+
+    /**
+     * Method used to force the content of the file to the storage device
+     *
+     * @return the time spent in nanoseconds
+     */
+    private long sync() throws IOException {
+        ItemSyncEvent event = new ItemSyncEvent();
+        event.begin();
+        long start = System.nanoTime();
+        mTarget.force();
+        long syncNanos = System.nanoTime() - start;
+        event.end();
+        if (event.shouldCommit()) {
+            event.item = mDataItem.getItemName();
+            event.bytes = mDataItem.getSizeInBytes();
+            event.commit();
+        }
+        return syncNanos;
+    }
+
+    /**
+     * Method used to close the file, and to delete it if it has not been completed
+     *
+     * @return the time spent in nanoseconds
+     */
+    private long close() throws IOException {
+        ItemCloseEvent event = new ItemCloseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        mTarget.close();
+        if (mFailed) {
+            Files.deleteIfExists(mPath);
+        }
+        long closeNanos = System.nanoTime() - start;
+        event.end();
+        if (event.shouldCommit()) {
+            event.item = mDataItem.getItemName();
+            event.bytes = mDataItem.getSizeInBytes();
+            event.deleted = mFailed;
+            event.commit();
+        }
+        return closeNanos;
+    }
+
+    /**
+     * Method used to complete the checksums once every chunk has been written: the CRC32C of the chunks are combined
+     * and the bytes not yet digested are generated again and digested
+     */
+    private void completeChecksums() {
+        if (mChunkCrcs == null && mDigests.isEmpty()) {
+            return;
+        }
+        long size = mDataItem.getSizeInBytes();
+        Map<ChecksumAlgorithm, String> checksums = new EnumMap<>(ChecksumAlgorithm.class);
+        CRC32C sparseCrc = mCrc32c && mContentMode == ContentMode.SPARSE ? new CRC32C() : null;
+
+        long from = mContentMode == ContentMode.SPARSE ? 0 : mDigests.isEmpty() ? size : mDigestPosition;
+        ByteBuffer buffer = StandardMaterializer.WRITE_BUFFER.get();
+        for (long position = from; position < size; position += buffer.capacity()) {
+            int length = (int) Math.min(buffer.capacity(), size - position);
+            ByteBuffer content;
+            if (mContentMode == ContentMode.SPARSE) {
+                content = StandardMaterializer.ZEROS.duplicate();
+                content.limit(length);
+            } else {
+                buffer.clear().limit(length);
+                fill(buffer, position);
+                content = buffer.flip();
+            }
+            for (MessageDigest digest : mDigests) {
+                digest.update(content.duplicate());
+            }
+            if (sparseCrc != null) {
+                sparseCrc.update(content.duplicate());
+            }
+        }
+
+        for (int i = 0; i < mDigests.size(); i++) {
+            checksums.put(mDigestAlgorithms.get(i), toHex(mDigests.get(i).digest()));
+        }
+        if (sparseCrc != null) {
+            checksums.put(ChecksumAlgorithm.CRC32C, Crc32c.toHex((int) sparseCrc.getValue()));
+        } else if (mCrc32c) {
+            int crc = mChunkCrcs[0];
+            for (int chunk = 1; chunk < mChunks; chunk++) {
+                crc = Crc32c.combine(crc, mChunkCrcs[chunk], Math.min(mChunkSize, size - chunk * mChunkSize));
+            }
+            checksums.put(ChecksumAlgorithm.CRC32C, Crc32c.toHex(crc));
+        }
+        mChecksums = checksums;
+    }
+
+    /**
+     * Method used to update the checksums with a buffer about to be written
+     *
+     * @param content  the content of the buffer, between its position and its limit
+     * @param position position of the buffer in the file
+     * @param crc      CRC32C of the chunk, or null
+     */
+    private void updateChecksums(ByteBuffer content, long position, CRC32C crc) {
+        if (crc != null) {
+            crc.update(content.duplicate());
+        }
+        if (!mDigests.isEmpty() && mDigestPosition == position) {
+            for (MessageDigest digest : mDigests) {
+                digest.update(content.duplicate());
+            }
+            mDigestPosition = position + content.remaining();
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Method used to fill a buffer of a chunk about to be written, to update the checksums and the progress from it
+     * (see Materializer.Content)
+     *
+     * @param buffer   buffer to fill, between its position and its limit
+     * @param position position, within the Data Item, of the first byte written into the buffer
+     * @param crc      CRC32C of the chunk, or null
+     */
+    private void fillChunk(ByteBuffer buffer, long position, CRC32C crc) {
+        int start = buffer.position();
+        if (mContentMode == ContentMode.SPARSE) {
+            // The checksums of the zeros are computed once the file is complete
+            while (buffer.hasRemaining()) {
+                ByteBuffer zeros = StandardMaterializer.ZEROS.duplicate();
+                zeros.limit(Math.min(zeros.capacity(), buffer.remaining()));
+                buffer.put(zeros);
+            }
+        } else {
+            fill(buffer, position);
+            updateChecksums(buffer.duplicate().position(start), position, crc);
+        }
+        mProgress.bytesWritten(buffer.position() - start);
+        checkCancelled();
+    }
+
+    /**
+     * Method used to fill the remaining bytes of the buffer with the content of the Data Item
+     *
+     * @param buffer   buffer to fill
+     * @param position position, within the Data Item, of the first byte written into the buffer
+     */
+    private void fill(ByteBuffer buffer, long position) {
+        fill(buffer, mContentProfile, mItemSeed, position);
+    }
+
+    /**
+     * Method used to fill the remaining bytes of the buffer with the content of a Data Item that is not sparse
+     *
+     * @param buffer         buffer to fill
+     * @param contentProfile profile of the content of the Data Item, or null for the RANDOM content
+     * @param itemSeed       seed of the Data Item (see PayloadGenerator.itemSeed)
+     * @param position       position, within the Data Item, of the first byte written into the buffer
+     */
+    static void fill(ByteBuffer buffer, ContentProfile contentProfile, long itemSeed, long position) {
+        if (contentProfile != null) {
+            contentProfile.fill(buffer, itemSeed, position);
+        } else {
+            PayloadGenerator.fill(buffer, itemSeed, position);
+        }
+    }
+
+    private void checkCancelled() {
+        if (mProgress.isCancelled()) {
+            throw new CancellationException("Generation cancelled");
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.content.ContentProfile;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class is the append-only manifest kept in the output directory of the generation runs, recording which Data
+ * Items have been completed. It lets a rerun generate only the Data Items that are missing, incomplete or changed.
+ * <p>
+ * Each line records the state of a Data Item (S started, C completed), its size in bytes, its content mode (followed
+ * by the content profile for the PROFILED content), the seed of its content, the checksums computed for it (- when
+ * none), the name of the Materializer that has written its file and its name, separated by tabs
+ * (Ex: C	4000000	RANDOM	42	MD5,CRC32C	positional	S6A_RO_1B_...SEN6, or
+ * C	4000000	PROFILED(ratio=2.5,dup=0.3)	42	-	mmap	S6A_RO_1B_...SEN6). The lines written before the checksums were
+ * recorded have no checksums field, and those written before the materializers were recorded (v1) no materializer
+ * field: their Data Items are considered written by the default materializer of their content, sparse or
+ * positional. A Data Item whose materializer is unknown is never complete.
+ * The last line of a Data Item wins. A completed Data Item is marked as started before being overwritten, so that a
+ * crash during the new write is detected even though its file already has the right size.
+ * A line truncated by a crash is ignored, and removed before new lines are appended. The manifest is compacted when
+ * it is opened, once the lines of the previous runs largely outnumber the Data Items.
+ * <p>
+ * Each cluster worker writes its own manifest (see ClusterWorker), and reads the other manifests of the output
+ * directory: a Data Item is complete only when every manifest recording it agrees. A Data Item generated again by
+ * another worker with different settings is therefore generated at each run until the older manifest is removed.
+ */
+public class Manifest implements Closeable {
+
+    /**
+     * Name of the manifest in the output directory. The names of the manifests of the cluster workers start with it
+     */
+    public static final String FILE_NAME = ".datagenerator-manifest";
+
+    private static final String HEADER = "# DataGenerator manifest v2";
+    private static final char STARTED = 'S';
+    private static final char COMPLETED = 'C';
+    private static final char SEPARATOR = '\t';
+    private static final String NO_CHECKSUMS = "-";
+    /**
+     * Suffix of the content of the Data Items whose content depends on their template, not on their name
+     */
+    private static final String CLONED = "+CLONED";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /**
+     * The manifest is compacted when it has this many lines for each Data Item it records
+     */
+    private static final int COMPACTION_RATIO = 4;
+
+    private final Map<String, Entry> mEntries;
+    /**
+     * Entries of the other manifests of the output directory, read-only
+     */
+    private final List<Map<String, Entry>> mPeerEntries;
+    private final Writer mWriter;
+
+    private Manifest(Map<String, Entry> entries, List<Map<String, Entry>> peerEntries, Writer writer) {
+        mEntries = entries;
+        mPeerEntries = peerEntries;
+        mWriter = writer;
+    }
+
+    /**
+     * Method used to open the manifest of an output directory, creating it if needed
+     *
+     * @param outputDirectory the output directory of the run
+     * @return the manifest, ready to record the Data Items of the run
+     * @throws IOException if the manifest cannot be read or written
+     */
+    static Manifest open(Path outputDirectory) throws IOException {
+        return open(outputDirectory, FILE_NAME);
+    }
+
+    /**
+     * Method used to open a manifest of an output directory, creating it if needed
+     *
+     * @param outputDirectory the output directory of the run
+     * @param fileName        name of the manifest in the output directory
+     * @return the manifest, ready to record the Data Items of the run
+     * @throws IOException if the manifest cannot be read or written
+     */
+    static Manifest open(Path outputDirectory, String fileName) throws IOException {
+        Path path = outputDirectory.resolve(fileName);
+        Map<String, Entry> entries = new HashMap<>();
+        long lines = read(path, entries);
+        boolean terminated = lines == 0 || endsWithNewLine(path);
+
+        List<Map<String, Entry>> peerEntries = readPeers(outputDirectory, fileName);
+
+        if (lines > (long) COMPACTION_RATIO * entries.size() + COMPACTION_RATIO) {
+            compact(path, entries);
+            terminated = true;
+        }
+
+        if (!terminated) {
+            // Appending after the truncated line would complete it with the wrong content
+            dropTruncatedLine(path);
+        }
+        boolean newFile = !Files.exists(path) || Files.size(path) == 0;
+        Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+        if (newFile) {
+            writer.write(HEADER + "\n");
+        }
+        writer.flush();
+        return new Manifest(entries, peerEntries, writer);
+    }
+
+    /**
+     * Method used to read a manifest of an output directory without creating or writing anything (Ex: to plan a
+     * run, see CapacityPlanner). The manifest returned cannot record Data Items
+     *
+     * @param outputDirectory the output directory of the run
+     * @param fileName        name of the manifest in the output directory
+     * @return the manifest, empty when the output directory or the manifest does not exist
+     * @throws IOException if the manifest cannot be read
+     */
+    static Manifest readOnly(Path outputDirectory, String fileName) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        read(outputDirectory.resolve(fileName), entries);
+        return new Manifest(entries, readPeers(outputDirectory, fileName), null);
+    }
+
+    /**
+     * @return the entries of the other manifests of the output directory: those of the other cluster workers sharing
+     * it, or of the runs without cluster
+     */
+    private static List<Map<String, Entry>> readPeers(Path outputDirectory, String fileName) throws IOException {
+        List<Map<String, Entry>> peerEntries = new ArrayList<>();
+        try (DirectoryStream<Path> peers = Files.newDirectoryStream(outputDirectory, FILE_NAME + "*")) {
+            for (Path peer : peers) {
+                String peerName = peer.getFileName().toString();
+                if (!peerName.equals(fileName) && !peerName.endsWith(TEMPORARY_SUFFIX)) {
+                    Map<String, Entry> peerEntry = new HashMap<>();
+                    read(peer, peerEntry);
+                    peerEntries.add(peerEntry);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run in this output directory
+        }
+        return peerEntries;
+    }
+
+    /**
+     * Method used to read the last state of each Data Item recorded by a manifest
+     *
+     * @return the number of lines of the manifest, 0 if it does not exist
+     */
+    private static long read(Path path, Map<String, Entry> entries) throws IOException {
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            // A last line without terminator has been truncated by a crash, or is being written by another
+            // worker: it could hold a truncated name
+            boolean terminated = endsWithNewLine(path);
+            String previous = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                if (previous != null) {
+                    parseLine(previous, entries);
+                }
+                previous = line;
+            }
+            if (previous != null && terminated) {
+                parseLine(previous, entries);
+            }
+        } catch (NoSuchFileException e) {
+            // First run in this output directory
+        }
+        return lines;
+    }
+
+    /**
+     * Method used to check whether a Data Item has already been completed by a previous run with the same size and
+     * content, and the checksums of the job, and whether its file and its checksum files are still there
+     *
+     * @param item the Data Item
+     * @param job  the job the Data Item belongs to
+     * @param file the file of the Data Item
+     * @return true when the Data Item does not need to be generated again
+     */
+    boolean isComplete(DataItem item, GenerationJob job, Path file) throws IOException {
+        Entry entry = mEntries.get(item.getItemName());
+        boolean recorded = entry != null;
+        if (recorded && !entry.isComplete(item, job)) {
+            return false;
+        }
+        for (Map<String, Entry> peerEntries : mPeerEntries) {
+            Entry peerEntry = peerEntries.get(item.getItemName());
+            if (peerEntry != null) {
+                if (!peerEntry.isComplete(item, job)) {
+                    return false;
+                }
+                recorded = true;
+            }
+        }
+        if (!recorded) {
+            return false;
+        }
+        try {
+            if (Files.size(file) != item.getSizeInBytes()) {
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+        if (job.getChecksumOutput() == ChecksumOutput.PER_FILE) {
+            // The checksum files may have been deleted, or the previous run may have written them as sidecars
+            for (ChecksumAlgorithm algorithm : job.getChecksums()) {
+                if (!Files.exists(file.resolveSibling(file.getFileName() + "." + algorithm.getExtension()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method used to get the bytes taken on disk by the file of a Data Item written by a previous run, which are
+     * reused when it is written again
+     *
+     * @param item the Data Item
+     * @param file the file of the Data Item
+     * @return the bytes of the file, 0 for a file of holes, or -1 when no file of the Data Item has been recorded
+     */
+    long recordedBytes(DataItem item, Path file) throws IOException {
+        Entry entry = mEntries.get(item.getItemName());
+        for (int i = 0; entry == null && i < mPeerEntries.size(); i++) {
+            entry = mPeerEntries.get(i).get(item.getItemName());
+        }
+        if (entry == null) {
+            return -1;
+        }
+        try {
+            long size = Files.size(file);
+            return entry.isHoles() ? 0 : Math.min(size, entry.mSize);
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Method used to record that a Data Item is going to be written. The line is needed only when the Data Item has
+     * already been recorded by a previous run
+     */
+    void started(DataItem item, GenerationJob job) throws IOException {
+        boolean recorded = mEntries.containsKey(item.getItemName());
+        for (Map<String, Entry> peerEntries : mPeerEntries) {
+            recorded |= peerEntries.containsKey(item.getItemName());
+        }
+        if (recorded) {
+            append(STARTED, item, job);
+        }
+    }
+
+    /**
+     * Method used to record that a Data Item has been completely written
+     */
+    void completed(DataItem item, GenerationJob job) throws IOException {
+        append(COMPLETED, item, job);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (mWriter != null) {
+            mWriter.close();
+        }
+    }
+
+    /**
+     * Method used to append a line, flushed immediately so that it survives a crash of the JVM
+     */
+    private synchronized void append(char state, DataItem item, GenerationJob job) throws IOException {
+        mWriter.write(formatLine(state, item.getSizeInBytes(), content(item, job), contentSeed(item, job),
+                job.getChecksums(), job.getMaterializer(item).getName(), item.getItemName()));
+        mWriter.flush();
+    }
+
+    /**
+     * @return the description of the content of a Data Item: its content mode and its content profile if any, marked
+     * when the content depends on the template of the Data Item (see GenerationJob.isCloned)
+     */
+    private static String content(DataItem item, GenerationJob job) {
+        ContentProfile profile = job.getContentProfile(item);
+        String content = profile == null ? job.getContentMode(item).name() : ContentMode.PROFILED + "(" + profile + ")";
+        return job.isCloned(item) ? content + CLONED : content;
+    }
+
+    /**
+     * @return the seed the content depends on: none for the sparse Data Items
+     */
+    private static long contentSeed(DataItem item, GenerationJob job) {
+        return job.getContentMode(item) == ContentMode.SPARSE ? 0 : job.getSeed();
+    }
+
+    private static String formatLine(char state, long size, String content, long seed,
+                                     Set<ChecksumAlgorithm> checksums, String materializer, String name) {
+        String checksumsField = checksums.isEmpty() ? NO_CHECKSUMS
+                : checksums.stream().map(Enum::name).collect(Collectors.joining(","));
+        return String.valueOf(state) + SEPARATOR + size + SEPARATOR + content + SEPARATOR + seed + SEPARATOR
+                + checksumsField + SEPARATOR + materializer + SEPARATOR + name + '\n';
+    }
+
+    private static void parseLine(String line, Map<String, Entry> entries) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), 7);
+        if (fields.length < 5 || fields[0].length() != 1 || fields[2].isEmpty()
+                || fields[fields.length - 1].isEmpty()) {
+            // Header, or line truncated by a crash
+            return;
+        }
+        char state = fields[0].charAt(0);
+        if (state != STARTED && state != COMPLETED) {
+            return;
+        }
+        try {
+            Set<ChecksumAlgorithm> checksums = EnumSet.noneOf(ChecksumAlgorithm.class);
+            if (fields.length >= 6 && !fields[4].equals(NO_CHECKSUMS)) {
+                for (String checksum : fields[4].split(",")) {
+                    checksums.add(ChecksumAlgorithm.valueOf(checksum));
+                }
+            }
+            String materializer;
+            if (fields.length == 7) {
+                materializer = fields[5];
+            } else {
+                // Line of a v1 manifest
+                materializer = fields[2].equals(ContentMode.SPARSE.name()) ? StandardMaterializer.SPARSE.getName()
+                        : StandardMaterializer.POSITIONAL.getName();
+            }
+            entries.put(fields[fields.length - 1], new Entry(state == COMPLETED, Long.parseLong(fields[1]),
+                    fields[2], Long.parseLong(fields[3]), checksums, materializer));
+        } catch (IllegalArgumentException e) {
+            // Line truncated by a crash
+        }
+    }
+
+    private static boolean endsWithNewLine(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, channel.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Method used to remove the last line of the manifest when it has no terminator
+     */
+    private static void dropTruncatedLine(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = channel.size();
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                    // Read the whole block
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        channel.truncate(start + i + 1);
+                        return;
+                    }
+                }
+                end = start;
+            }
+            channel.truncate(0);
+        }
+    }
+
+    /**
+     * Method used to rewrite the manifest with only the last line of each Data Item
+     */
+    private static void compact(Path path, Map<String, Entry> entries) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+        try (Writer writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + "\n");
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Entry value = entry.getValue();
+                writer.write(formatLine(value.mCompleted ? COMPLETED : STARTED, value.mSize, value.mContent,
+                        value.mSeed, value.mChecksums, value.mMaterializer, entry.getKey()));
+            }
+        }
+        Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Last state recorded for a Data Item
+     */
+    private static final class Entry {
+
+        private final boolean mCompleted;
+        private final long mSize;
+        private final String mContent;
+        private final long mSeed;
+        private final Set<ChecksumAlgorithm> mChecksums;
+        private final String mMaterializer;
+
+        private Entry(boolean completed, long size, String content, long seed,
+                      Set<ChecksumAlgorithm> checksums, String materializer) {
+            mCompleted = completed;
+            mSize = size;
+            mContent = content;
+            mSeed = seed;
+            mChecksums = checksums;
+            mMaterializer = materializer;
+        }
+
+        private boolean isComplete(DataItem item, GenerationJob job) {
+            if (!mCompleted || mSize != item.getSizeInBytes() || !mContent.equals(content(item, job))
+                    || mSeed != contentSeed(item, job) || !mChecksums.containsAll(job.getChecksums())) {
+                return false;
+            }
+            try {
+                return mMaterializer.equals(job.getMaterializer(item).getName());
+            } catch (IllegalArgumentException e) {
+                // Unknown materializer of the entry: the Data Item will fail
+                return false;
+            }
+        }
+
+        /**
+         * @return true if the file takes no block: its content is zeros, left as holes by its materializer
+         */
+        private boolean isHoles() {
+            return mContent.equals(ContentMode.SPARSE.name())
+                    && mMaterializer.equals(StandardMaterializer.SPARSE.getName());
+        }
+    }
+}
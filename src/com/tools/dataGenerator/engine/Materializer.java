@@ -0,0 +1,113 @@
+package com.tools.dataGenerator.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * This interface defines how the file of a Data Item is materialized on disk: how it is created, how its content
+ * is written and how it is forced to the storage device. The content itself is defined by the job (see
+ * ContentMode) and is the same whatever the materializer, so are the checksums.
+ * <p>
+ * The materializer is selected for the whole run (see GenerationJob.setMaterializer) or for a single entry of the
+ * configuration file (Ex: P4_1A_HR_____:10:materializer=mmap). The built-in materializers are listed by
+ * StandardMaterializer; other ones are found by name among the implementations declared in
+ * META-INF/services/com.tools.dataGenerator.engine.Materializer, so that a strategy can be added without changing
+ * the generator.
+ */
+public interface Materializer {
+
+    /**
+     * @return the name used to select the materializer (Ex: mmap)
+     */
+    String getName();
+
+    /**
+     * @return true if the chunks of a file can be written by several workers at the same time, false if the file
+     * must be written from start to end by a single worker
+     */
+    default boolean isParallel() {
+        return true;
+    }
+
+    /**
+     * @return true if the file created reads as zeros up to its size, so that the content of the sparse Data Items
+     * is not written
+     */
+    default boolean isZeroFilled() {
+        return false;
+    }
+
+    /**
+     * Method used to create the file of a Data Item. It is called once for each file, by the first chunk written
+     *
+     * @param path   path of the file, replaced if it exists
+     * @param size   size of the file in bytes
+     * @param chunks number of chunks the file is written in
+     * @return the file, open for writing
+     * @throws IOException if the file cannot be created
+     */
+    Target create(Path path, long size, int chunks) throws IOException;
+
+    /**
+     * The file of a Data Item being materialized. The chunks of a parallel materializer are written by different
+     * threads at the same time
+     */
+    interface Target extends Closeable {
+
+        /**
+         * Method used to write a chunk of the file
+         *
+         * @param offset  position of the chunk in the file
+         * @param length  length of the chunk, at most the chunk size of the job unless the file is a single chunk
+         * @param content content of the chunk, to be filled from offset to offset + length in ascending order
+         * @throws IOException if the chunk cannot be written
+         */
+        void write(long offset, long length, Content content) throws IOException;
+
+        /**
+         * Method used to force the content of the file to the storage device
+         *
+         * @throws IOException if the content cannot be forced
+         */
+        void force() throws IOException;
+    }
+
+    /**
+     * The content of a chunk, given by the generator
+     */
+    @FunctionalInterface
+    interface Content {
+
+        /**
+         * Method used to fill the remaining bytes of a buffer with the content of the Data Item. The buffer is then
+         * written as it is: the checksums and the progress of the run are updated from it. A CancellationException
+         * is thrown once the run has been cancelled
+         *
+         * @param buffer   buffer to fill, its position is moved to its limit
+         * @param position position, within the Data Item, of the first byte written into the buffer
+         */
+        void fill(ByteBuffer buffer, long position);
+    }
+
+    /**
+     * Method used to find a materializer by its name: a StandardMaterializer, or else one declared as a service
+     *
+     * @param name name of the materializer (Ex: zero-fill)
+     * @return the materializer
+     * @throws IllegalArgumentException if no materializer has this name
+     */
+    static Materializer forName(String name) {
+        for (StandardMaterializer materializer : StandardMaterializer.values()) {
+            if (materializer.getName().equals(name)) {
+                return materializer;
+            }
+        }
+        Materializer materializer = StandardMaterializer.findService(name);
+        if (materializer == null) {
+            throw new IllegalArgumentException("Unknown materializer: " + name);
+        }
+        return materializer;
+    }
+}
@@ -0,0 +1,59 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.content.PayloadGenerator;
+
+/**
+ * This enum lists how the Data Items are spread across the volumes of a job (see GenerationJob.setVolumes).
+ * Every policy is deterministic, so that a rerun places each Data Item on the same volume and finds it in the
+ * Manifest of that volume.
+ */
+public enum PlacementPolicy {
+    /**
+     * The Data Items are placed on the volumes in turn
+     */
+    ROUND_ROBIN {
+        @Override
+        int select(DataItem item, long index, long[] assignedBytes) {
+            return (int) (index % assignedBytes.length);
+        }
+    },
+    /**
+     * Each Data Item is placed on the volume with the fewest bytes assigned so far, so that the volumes are filled
+     * evenly, and in the same time at the same throughput, when the Data Items have different sizes
+     */
+    SIZE_BALANCED {
+        @Override
+        int select(DataItem item, long index, long[] assignedBytes) {
+            int selected = 0;
+            for (int volume = 1; volume < assignedBytes.length; volume++) {
+                if (assignedBytes[volume] < assignedBytes[selected]) {
+                    selected = volume;
+                }
+            }
+            return selected;
+        }
+    },
+    /**
+     * The volume is given by the hash of the name of the Data Item: the placement of a Data Item does not depend
+     * on the other entries of the configuration file, so adding or removing entries moves no Data Item
+     */
+    NAME_HASH {
+        @Override
+        int select(DataItem item, long index, long[] assignedBytes) {
+            // The hash of the name does not depend on the JVM, so the placement is the same on every machine
+            return (int) Long.remainderUnsigned(PayloadGenerator.itemSeed(0, item.getItemName()),
+                    assignedBytes.length);
+        }
+    };
+
+    /**
+     * Method used to select the volume of a Data Item
+     *
+     * @param item          the Data Item to place
+     * @param index         index of the Data Item in the job, starting from 0
+     * @param assignedBytes bytes of the Data Items already placed on each volume
+     * @return the index of the volume
+     */
+    abstract int select(DataItem item, long index, long[] assignedBytes);
+}
@@ -0,0 +1,369 @@
+package com.tools.dataGenerator.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class writes the machine-readable report of a generation run: settings of the job, totals, aggregate
+ * throughput, percentiles of the latency of the Data Items and time spent in each phase.
+ * <p>
+ * The format depends on the extension of the report file:
+ * <ul>
+ * <li>.csv: one row per run. The row is appended when the file already exists, so that the runs against
+ * different storage backends can be collected in a single file</li>
+ * <li>any other extension: a JSON object, the file is replaced</li>
+ * </ul>
+ */
+public final class RunReport {
+
+    /**
+     * Percentiles of the latency of the Data Items included in the report
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 100};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999", "max"};
+
+    private static final String CSV_HEADER = "timestamp,output_directory,file_system,workers,content,chunk_size,mmap,"
+            + "materializer,sync,sync_policy,created_items,skipped_items,failed_items,cancelled,bytes,skipped_bytes,"
+            + "elapsed_s,throughput_mb_s,"
+            + "latency_mean_ms,latency_p50_ms,latency_p90_ms,latency_p99_ms,latency_p999_ms,latency_max_ms,"
+            + "create_s,write_s,sync_s,close_s";
+
+    /**
+     * Settings a previous run must share with a job for its throughput to be used as an estimate, as named in the
+     * CSV header and in the JSON report
+     */
+    private static final String[] MATCHED_CSV_COLUMNS = {"file_system", "workers", "content", "chunk_size", "mmap",
+            "materializer", "sync_policy"};
+    private static final String[] MATCHED_JSON_KEYS = {"fileSystem", "workers", "content", "chunkSize",
+            "memoryMapped", "materializer", "syncPolicy"};
+
+    private RunReport() {}
+
+    /**
+     * Method used to write the report of a run
+     *
+     * @param job    the job that has been run
+     * @param result the outcome of the run
+     * @param report the report file, CSV when its name ends with .csv, JSON otherwise
+     * @throws IOException if the report cannot be written
+     */
+    public static void write(GenerationJob job, GenerationResult result, Path report) throws IOException {
+        if (report.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            boolean newFile = !Files.exists(report) || Files.size(report) == 0;
+            String content = (newFile ? CSV_HEADER + "\n" : "") + toCsvRow(job, result) + "\n";
+            Files.write(report, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        } else {
+            Files.write(report, toJson(job, result).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return the report of the run as a JSON object
+     */
+    public static String toJson(GenerationJob job, GenerationResult result) {
+        GenerationStatistics statistics = result.getStatistics();
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"timestamp\": \"").append(Instant.now()).append("\",\n");
+        json.append("  \"job\": {\n");
+        json.append("    \"outputDirectory\": \"").append(escape(job.getOutputDirectory().toString())).append("\",\n");
+        json.append("    \"fileSystem\": \"").append(escape(fileSystem(job))).append("\",\n");
+        json.append("    \"workers\": ").append(job.getWorkers()).append(",\n");
+        json.append("    \"volumes\": ").append(job.getVolumes().size()).append(",\n");
+        if (job.getVolumes().size() > 1) {
+            json.append("    \"placement\": \"").append(job.getPlacementPolicy()).append("\",\n");
+        }
+        json.append("    \"content\": \"").append(job.getContentMode()).append("\",\n");
+        if (job.getContentMode() == ContentMode.PROFILED) {
+            json.append("    \"contentProfile\": \"").append(job.getContentProfile()).append("\",\n");
+        }
+        json.append("    \"chunkSize\": ").append(job.getChunkSize()).append(",\n");
+        json.append("    \"memoryMapped\": ").append(job.isMemoryMapped()).append(",\n");
+        if (job.getMaterializer() != null) {
+            json.append("    \"materializer\": \"").append(escape(materializer(job))).append("\",\n");
+        }
+        json.append("    \"sync\": ").append(job.isSync()).append(",\n");
+        json.append("    \"syncPolicy\": \"").append(job.getSyncPolicy()).append("\",\n");
+        if (job.getCloneMethod() != null) {
+            json.append("    \"clone\": \"").append(job.getCloneMethod()).append("\",\n");
+        }
+        json.append("    \"incremental\": ").append(job.isIncremental()).append("\n");
+        json.append("  },\n");
+        json.append("  \"createdItems\": ").append(result.getCreatedItems()).append(",\n");
+        json.append("  \"skippedItems\": ").append(result.getSkippedItems()).append(",\n");
+        json.append("  \"failedItems\": ").append(result.getFailures().size()).append(",\n");
+        json.append("  \"cancelled\": ").append(result.isCancelled()).append(",\n");
+        json.append("  \"bytes\": ").append(result.getBytes()).append(",\n");
+        json.append("  \"skippedBytes\": ").append(job.getProgress().getSkippedBytes()).append(",\n");
+        json.append("  \"elapsedSeconds\": ").append(seconds(result.getElapsedNanos())).append(",\n");
+        json.append("  \"throughputMBps\": ").append(format(result.getThroughput())).append(",\n");
+        if (result instanceof ClusterResult) {
+            ClusterResult clusterResult = (ClusterResult) result;
+            json.append("  \"cluster\": {\n");
+            json.append("    \"workers\": ").append(clusterResult.getWorkers()).append(",\n");
+            json.append("    \"retriedUnits\": ").append(clusterResult.getRetriedUnits()).append(",\n");
+            json.append("    \"workerBytes\": {");
+            String separator = "\n";
+            for (Map.Entry<String, Long> worker : clusterResult.getWorkerBytes().entrySet()) {
+                json.append(separator).append("      \"").append(escape(worker.getKey())).append("\": ")
+                        .append(worker.getValue());
+                separator = ",\n";
+            }
+            json.append("\n    }\n");
+            json.append("  },\n");
+        }
+        json.append("  \"itemLatencyMs\": {\n");
+        json.append("    \"mean\": ").append(millis(statistics.getMeanLatency()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            json.append(",\n    \"").append(PERCENTILE_NAMES[i]).append("\": ")
+                    .append(millis(statistics.getLatencyPercentile(PERCENTILES[i])));
+        }
+        json.append("\n  },\n");
+        json.append("  \"phaseSeconds\": {\n");
+        json.append("    \"create\": ").append(seconds(statistics.getCreateNanos())).append(",\n");
+        json.append("    \"write\": ").append(seconds(statistics.getWriteNanos())).append(",\n");
+        json.append("    \"sync\": ").append(seconds(statistics.getSyncNanos())).append(",\n");
+        json.append("    \"close\": ").append(seconds(statistics.getCloseNanos())).append("\n");
+        json.append("  }\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    /**
+     * @return the report of the run as a CSV row, without line terminator (see CSV_HEADER for the columns)
+     */
+    public static String toCsvRow(GenerationJob job, GenerationResult result) {
+        GenerationStatistics statistics = result.getStatistics();
+        StringBuilder row = new StringBuilder(256);
+        row.append(Instant.now()).append(',');
+        row.append(csvField(job.getOutputDirectory().toString())).append(',');
+        row.append(csvField(fileSystem(job))).append(',');
+        row.append(job.getWorkers()).append(',');
+        row.append(job.getContentMode()).append(',');
+        row.append(job.getChunkSize()).append(',');
+        row.append(job.isMemoryMapped()).append(',');
+        row.append(csvField(materializer(job))).append(',');
+        row.append(job.isSync()).append(',');
+        row.append(job.getSyncPolicy()).append(',');
+        row.append(result.getCreatedItems()).append(',');
+        row.append(result.getSkippedItems()).append(',');
+        row.append(result.getFailures().size()).append(',');
+        row.append(result.isCancelled()).append(',');
+        row.append(result.getBytes()).append(',');
+        row.append(job.getProgress().getSkippedBytes()).append(',');
+        row.append(seconds(result.getElapsedNanos())).append(',');
+        row.append(format(result.getThroughput())).append(',');
+        row.append(millis(statistics.getMeanLatency()));
+        for (double percentile : PERCENTILES) {
+            row.append(',').append(millis(statistics.getLatencyPercentile(percentile)));
+        }
+        row.append(',').append(seconds(statistics.getCreateNanos()));
+        row.append(',').append(seconds(statistics.getWriteNanos()));
+        row.append(',').append(seconds(statistics.getSyncNanos()));
+        row.append(',').append(seconds(statistics.getCloseNanos()));
+        return row.toString();
+    }
+
+    /**
+     * Method used to read the throughput of the last run recorded by a report with the same settings as a job (file
+     * system of the output directory, workers, content mode, chunk size, memory mapping, materializer and sync
+     * policy), so that its duration can be estimated from the previous runs (see CapacityPlanner). The runs that
+     * mostly skipped Data Items already complete are ignored: their throughput does not measure the writes
+     *
+     * @param job    the job to run
+     * @param report the report file, CSV when its name ends with .csv, JSON otherwise
+     * @return the throughput in MB/s of the last matching run that was not cancelled, 0 when there is none
+     * @throws IOException if the report exists but cannot be read
+     */
+    public static double readThroughput(GenerationJob job, Path report) throws IOException {
+        if (!Files.isRegularFile(report)) {
+            return 0;
+        }
+        String[] settings = settings(job);
+        if (report.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv")) {
+            List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+            if (lines.isEmpty()) {
+                return 0;
+            }
+            List<String> header = parseCsvRow(lines.get(0));
+            int[] matched = new int[MATCHED_CSV_COLUMNS.length];
+            for (int i = 0; i < matched.length; i++) {
+                matched[i] = header.indexOf(MATCHED_CSV_COLUMNS[i]);
+                if (matched[i] < 0) {
+                    // Report written before the column was added
+                    return 0;
+                }
+            }
+            int cancelled = header.indexOf("cancelled");
+            int bytes = header.indexOf("bytes");
+            int skippedBytes = header.indexOf("skipped_bytes");
+            int throughput = header.indexOf("throughput_mb_s");
+            if (cancelled < 0 || bytes < 0 || skippedBytes < 0 || throughput < 0) {
+                return 0;
+            }
+            search:
+            for (int i = lines.size() - 1; i > 0; i--) {
+                List<String> row = parseCsvRow(lines.get(i));
+                if (row.size() != header.size() || !row.get(cancelled).equals("false")
+                        || !isMeasured(row.get(bytes), row.get(skippedBytes))) {
+                    continue;
+                }
+                for (int j = 0; j < matched.length; j++) {
+                    if (!row.get(matched[j]).equals(settings[j])) {
+                        continue search;
+                    }
+                }
+                return parseNumber(row.get(throughput));
+            }
+            return 0;
+        }
+        String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+        for (int i = 0; i < MATCHED_JSON_KEYS.length; i++) {
+            // The first value of a key is the one of the job (Ex: the cluster lists its own workers after it). A key
+            // left out is empty (Ex: the materializer of a run without one selected)
+            String value = jsonValue(json, MATCHED_JSON_KEYS[i]);
+            if (!escape(settings[i]).equals(value == null ? "" : value)) {
+                return 0;
+            }
+        }
+        String throughput = jsonValue(json, "throughputMBps");
+        if (throughput == null || !"false".equals(jsonValue(json, "cancelled"))
+                || !isMeasured(jsonValue(json, "bytes"), jsonValue(json, "skippedBytes"))) {
+            return 0;
+        }
+        return parseNumber(throughput);
+    }
+
+    /**
+     * @return the values of the settings of a job matched by readThroughput, as written in the reports
+     */
+    private static String[] settings(GenerationJob job) {
+        return new String[]{fileSystem(job), String.valueOf(job.getWorkers()), job.getContentMode().name(),
+                String.valueOf(job.getChunkSize()), String.valueOf(job.isMemoryMapped()), materializer(job),
+                job.getSyncPolicy().name()};
+    }
+
+    /**
+     * @return the name of the materializer selected for the run, empty when it depends on the content of each Data
+     * Item
+     */
+    private static String materializer(GenerationJob job) {
+        return job.getMaterializer() == null ? "" : job.getMaterializer().getName();
+    }
+
+    /**
+     * @return the file system of the output directory of a job (Ex: /dev/nvme0n1p2 (ext4)), empty if unknown
+     */
+    private static String fileSystem(GenerationJob job) {
+        try {
+            FileStore store = Files.getFileStore(CapacityPlanner.existingAncestor(job.getOutputDirectory()));
+            return store.name() + " (" + store.type() + ")";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    /**
+     * @return false when the Data Items skipped by a run outweigh the ones it has written
+     */
+    private static boolean isMeasured(String bytes, String skippedBytes) {
+        return bytes != null && skippedBytes != null && parseNumber(skippedBytes) <= parseNumber(bytes);
+    }
+
+    /**
+     * @return the first value of a key of a JSON report, without the quotes of a string, or null if not found
+     */
+    private static String jsonValue(String json, String key) {
+        Matcher matcher = Pattern.compile("\"" + key + "\": (?:\"((?:[^\"\\\\]|\\\\.)*)\"|([^,\\s}]+))")
+                .matcher(json);
+        if (!matcher.find()) {
+            return null;
+        }
+        return matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return the fields of a CSV row, the quotes of the quoted fields removed (see csvField)
+     */
+    private static List<String> parseCsvRow(String row) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String millis(long nanos) {
+        return format(nanos / 1e6);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,345 @@
+package com.tools.dataGenerator.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This enum lists the built-in materializers (see Materializer). Unless another one is selected, the sparse Data
+ * Items are materialized by SPARSE, the other ones by POSITIONAL, or by MMAP when the job is memory mapped.
+ */
+public enum StandardMaterializer implements Materializer {
+    /**
+     * Only the length of the file is set: the parts of the file whose content is zeros are holes that take no space.
+     * The other content is written as by POSITIONAL
+     */
+    SPARSE {
+        @Override
+        public boolean isZeroFilled() {
+            return true;
+        }
+
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            return new PositionalTarget(openWithLength(path, size));
+        }
+    },
+    /**
+     * The whole file is written with zeros when it is created, so that every block of the file is allocated before
+     * its content is written, then the content is written as by POSITIONAL. The sparse Data Items are fully
+     * allocated files of zeros
+     */
+    ZERO_FILL {
+        @Override
+        public boolean isZeroFilled() {
+            return true;
+        }
+
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            FileChannel channel = openTruncated(path);
+            try {
+                ByteBuffer zeros = ZEROS.duplicate();
+                long position = 0;
+                while (position < size) {
+                    zeros.clear().limit((int) Math.min(zeros.capacity(), size - position));
+                    while (zeros.hasRemaining()) {
+                        position += channel.write(zeros, position);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            return new PositionalTarget(channel);
+        }
+    },
+    /**
+     * Each chunk is written with positional writes from a direct buffer reused by each worker thread. A file written
+     * by a single chunk is truncated when it is opened and grows while it is written; the length of a larger file is
+     * set first, so that its chunks can be written in any order
+     */
+    POSITIONAL {
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            return new PositionalTarget(chunks == 1 ? openTruncated(path) : openWithLength(path, size));
+        }
+    },
+    /**
+     * Each chunk is written with gathering writes of several direct buffers from a pool reused by each worker
+     * thread: one system call writes GATHER_BUFFERS buffers. The chunks of a large file are written through a
+     * channel of their own, whose position is the one of the chunk
+     */
+    GATHER {
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            return new GatherTarget(path, chunks == 1 ? openTruncated(path) : openWithLength(path, size), chunks);
+        }
+    },
+    /**
+     * Each chunk is mapped in memory and filled in place: the pages are written to the file by the operating system
+     */
+    MMAP {
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            return new MappedTarget(chunks == 1 ? openTruncated(path) : openWithLength(path, size));
+        }
+    },
+    /**
+     * The file is written from start to end by a single worker through a buffered output stream, from a heap buffer:
+     * the way most applications write their files
+     */
+    BUFFERED_STREAM {
+        @Override
+        public boolean isParallel() {
+            return false;
+        }
+
+        @Override
+        public Target create(Path path, long size, int chunks) throws IOException {
+            return new StreamTarget(new FileOutputStream(path.toFile()));
+        }
+    };
+
+    /**
+     * Size of the buffers reused by each worker thread to write and to fill the mappings: 1 MiB
+     */
+    static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Direct buffer reused by each worker thread for the positional writes
+     */
+    static final ThreadLocal<ByteBuffer> WRITE_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+
+    /**
+     * Zeros, the content of the sparse Data Items
+     */
+    static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).asReadOnlyBuffer();
+
+    /**
+     * Number of buffers written by a gathering write, and their size: 8 x 128 KiB
+     */
+    private static final int GATHER_BUFFERS = 8;
+    private static final int GATHER_BUFFER_SIZE = 128 << 10;
+
+    private static final ThreadLocal<ByteBuffer[]> GATHER_POOL = ThreadLocal.withInitial(() -> {
+        ByteBuffer[] buffers = new ByteBuffer[GATHER_BUFFERS];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(GATHER_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffers;
+    });
+
+    /**
+     * Heap buffer reused by each worker thread for the buffered streams, and the size of the buffer of the stream
+     */
+    private static final ThreadLocal<ByteBuffer> STREAM_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(WRITE_BUFFER_SIZE));
+    private static final int STREAM_BUFFER_SIZE = 64 << 10;
+
+    /**
+     * The materializers declared as services already looked for, by name
+     */
+    private static final Map<String, Optional<Materializer>> SERVICES = new ConcurrentHashMap<>();
+
+    /**
+     * @return the name of the materializer: the name of the constant in lower case, with '-' for '_' (Ex: zero-fill)
+     */
+    @Override
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /**
+     * Method used to find a materializer declared as a service (see Materializer.forName)
+     *
+     * @return the materializer, or null if none has this name
+     */
+    static Materializer findService(String name) {
+        return SERVICES.computeIfAbsent(name, key -> {
+            for (Materializer materializer : ServiceLoader.load(Materializer.class)) {
+                if (materializer.getName().equals(key)) {
+                    return Optional.of(materializer);
+                }
+            }
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    private static FileChannel openTruncated(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static FileChannel openWithLength(Path path, long size) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+        try {
+            file.setLength(size);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        // Closing the channel closes the file as well
+        return file.getChannel();
+    }
+
+    /**
+     * A file written through a FileChannel
+     */
+    private abstract static class ChannelTarget implements Target {
+
+        final FileChannel mChannel;
+
+        ChannelTarget(FileChannel channel) {
+            mChannel = channel;
+        }
+
+        @Override
+        public void force() throws IOException {
+            mChannel.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            mChannel.close();
+        }
+    }
+
+    private static final class PositionalTarget extends ChannelTarget {
+
+        PositionalTarget(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void write(long offset, long length, Content content) throws IOException {
+            ByteBuffer buffer = WRITE_BUFFER.get();
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                content.fill(buffer, position);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    position += mChannel.write(buffer, position);
+                }
+            }
+        }
+    }
+
+    private static final class GatherTarget extends ChannelTarget {
+
+        private final Path mPath;
+        private final int mChunks;
+
+        GatherTarget(Path path, FileChannel channel, int chunks) {
+            super(channel);
+            mPath = path;
+            mChunks = chunks;
+        }
+
+        @Override
+        public void write(long offset, long length, Content content) throws IOException {
+            if (mChunks == 1) {
+                write(mChannel.position(offset), offset, length, content);
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(mPath, StandardOpenOption.WRITE)) {
+                write(channel.position(offset), offset, length, content);
+            }
+        }
+
+        /**
+         * Method used to write a chunk from the current position of a channel
+         */
+        private static void write(FileChannel channel, long offset, long length, Content content) throws IOException {
+            ByteBuffer[] buffers = GATHER_POOL.get();
+            long position = offset;
+            long end = offset + length;
+            while (position < end) {
+                int count = 0;
+                long filled = position;
+                while (count < buffers.length && filled < end) {
+                    ByteBuffer buffer = buffers[count++];
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), end - filled));
+                    content.fill(buffer, filled);
+                    buffer.flip();
+                    filled += buffer.limit();
+                }
+                while (buffers[count - 1].hasRemaining()) {
+                    channel.write(buffers, 0, count);
+                }
+                position = filled;
+            }
+        }
+    }
+
+    private static final class MappedTarget extends ChannelTarget {
+
+        MappedTarget(FileChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void write(long offset, long length, Content content) throws IOException {
+            // A mapping holds at most Integer.MAX_VALUE bytes: a larger single chunk is mapped in several parts
+            for (long part = 0; part < length; part += Integer.MAX_VALUE) {
+                int partLength = (int) Math.min(Integer.MAX_VALUE, length - part);
+                // The mapping is released by the garbage collector: the chunks are large enough to keep their number
+                // low
+                MappedByteBuffer buffer = mChannel.map(FileChannel.MapMode.READ_WRITE, offset + part, partLength);
+                // The mapping is filled one slice at a time to report the progress and react to cancellation
+                for (int position = 0; position < partLength; position += WRITE_BUFFER_SIZE) {
+                    buffer.limit((int) Math.min((long) position + WRITE_BUFFER_SIZE, partLength)).position(position);
+                    content.fill(buffer, offset + part + position);
+                }
+            }
+        }
+    }
+
+    private static final class StreamTarget implements Target {
+
+        private final FileOutputStream mFile;
+        private final BufferedOutputStream mStream;
+
+        StreamTarget(FileOutputStream file) {
+            mFile = file;
+            mStream = new BufferedOutputStream(file, STREAM_BUFFER_SIZE);
+        }
+
+        @Override
+        public void write(long offset, long length, Content content) throws IOException {
+            ByteBuffer buffer = STREAM_BUFFER.get();
+            long end = offset + length;
+            for (long position = offset; position < end; position += buffer.limit()) {
+                buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                content.fill(buffer, position);
+                mStream.write(buffer.array(), 0, buffer.limit());
+            }
+        }
+
+        @Override
+        public void force() throws IOException {
+            mStream.flush();
+            mFile.getChannel().force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            mStream.close();
+        }
+    }
+}
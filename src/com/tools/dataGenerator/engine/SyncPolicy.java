@@ -0,0 +1,24 @@
+package com.tools.dataGenerator.engine;
+
+/**
+ * This enum lists when the content of the Data Items is forced to the storage device
+ */
+public enum SyncPolicy {
+    /**
+     * The content is never forced: it is written to the device by the operating system, after the end of the run
+     * for the last Data Items
+     */
+    NONE,
+    /**
+     * The content of each Data Item is forced before its file is closed, so that the run measures the device and not
+     * the page cache
+     */
+    PER_FILE,
+    /**
+     * The Data Items completed are forced in batches, by the worker completing the batch and at the end of the run:
+     * the device receives many files at once instead of one at a time, and every Data Item is on the device once the
+     * run has ended. The Data Items are recorded as completed before being forced. A feed (see Feeder) forces each
+     * Data Item before delivering it
+     */
+    BATCHED
+}
@@ -0,0 +1,40 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+
+import java.util.List;
+
+/**
+ * This class is a set of Data Items handed by the Coordinator to a ClusterWorker
+ */
+final class WorkUnit {
+
+    private final long mId;
+    private final List<DataItem> mDataItems;
+    private final int mAttempt;
+
+    /**
+     * Constructor
+     *
+     * @param id        identifier of the work unit, unique within a run
+     * @param dataItems Data Items of the work unit, without time series
+     * @param attempt   number of times the Data Items have been handed to a worker, including this one
+     */
+    WorkUnit(long id, List<DataItem> dataItems, int attempt) {
+        mId = id;
+        mDataItems = dataItems;
+        mAttempt = attempt;
+    }
+
+    long getId() {
+        return mId;
+    }
+
+    List<DataItem> getDataItems() {
+        return mDataItems;
+    }
+
+    int getAttempt() {
+        return mAttempt;
+    }
+}
@@ -0,0 +1,105 @@
+package com.tools.dataGenerator.gui;
+
+import com.tools.dataGenerator.catalog.Catalog;
+import com.tools.dataGenerator.catalog.CatalogDiff;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * This class is the model of the JList listing all the Data Items of the configuration file. The names are read
+ * from the Catalog only for the rows displayed, so that the list holds no copy of them
+ */
+@SuppressWarnings("serial") // Swing model, never serialized
+public class CatalogListModel extends AbstractListModel<String> {
+
+    /**
+     * Above this number of changed intervals the whole list is refreshed instead of firing one event per interval
+     */
+    private static final int MAX_INTERVAL_EVENTS = 1024;
+
+    private Catalog mCatalog;
+
+    public CatalogListModel(Catalog catalog) {
+        mCatalog = catalog;
+    }
+
+    public Catalog getCatalog() {
+        return mCatalog;
+    }
+
+    @Override
+    public int getSize() {
+        return mCatalog.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return mCatalog.getName(index);
+    }
+
+    /**
+     * Method used to replace the catalog by a new version of it, firing events only for the Data Items added,
+     * removed and resized, so that the list keeps its selection and scroll position
+     *
+     * @param diff the changes between the current catalog of the model and its new version
+     */
+    public void update(CatalogDiff diff) {
+        int[] removed = diff.getRemoved();
+        int[] added = diff.getAdded();
+        int[] resized = diff.getResized();
+        mCatalog = diff.getCurrent();
+        if (countIntervals(removed) + countIntervals(added) + countIntervals(resized) > MAX_INTERVAL_EVENTS) {
+            int previousSize = diff.getPrevious().size();
+            if (previousSize > 0) {
+                fireIntervalRemoved(this, 0, previousSize - 1);
+            }
+            if (mCatalog.size() > 0) {
+                fireIntervalAdded(this, 0, mCatalog.size() - 1);
+            }
+            return;
+        }
+        // From the last interval to the first, so that the positions of the intervals not removed yet are kept
+        for (int end = removed.length - 1; end >= 0; ) {
+            int start = intervalStart(removed, end);
+            fireIntervalRemoved(this, removed[start], removed[end]);
+            end = start - 1;
+        }
+        for (int start = 0; start < added.length; ) {
+            int end = intervalEnd(added, start);
+            fireIntervalAdded(this, added[start], added[end]);
+            start = end + 1;
+        }
+        for (int start = 0; start < resized.length; ) {
+            int end = intervalEnd(resized, start);
+            fireContentsChanged(this, resized[start], resized[end]);
+            start = end + 1;
+        }
+    }
+
+    /**
+     * @return the number of intervals of consecutive indexes in sorted indexes
+     */
+    private static int countIntervals(int[] indexes) {
+        int intervals = 0;
+        for (int start = 0; start < indexes.length; start = intervalEnd(indexes, start) + 1) {
+            intervals++;
+        }
+        return intervals;
+    }
+
+    private static int intervalEnd(int[] indexes, int start) {
+        int end = start;
+        while (end + 1 < indexes.length && indexes[end + 1] == indexes[end] + 1) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int intervalStart(int[] indexes, int end) {
+        int start = end;
+        while (start > 0 && indexes[start - 1] == indexes[start] - 1) {
+            start--;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,364 @@
+package com.tools.dataGenerator.gui;
+
+import javax.swing.event.DocumentEvent;
+import javax.swing.text.AbstractDocument;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.Element;
+import javax.swing.text.GapContent;
+import javax.swing.text.PlainDocument;
+import javax.swing.text.Segment;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.undo.AbstractUndoableEdit;
+import java.util.Arrays;
+
+/**
+ * This class is the plain text document of the configuration editor. It behaves as a PlainDocument, but holds its
+ * lines as an array of start offsets instead of one element per line: a PlainDocument keeps for each line an
+ * element and two marks of its content, more than 150 bytes per line, that is several GB for a configuration file
+ * of a few million lines, against 4 bytes per line here.
+ * <p>
+ * The elements of the lines are created when they are asked for (Ex: by the view, for the lines it paints). An
+ * element designates a line by its index: once lines have been inserted or removed before it, it designates the
+ * line now at this index. The last elements created are kept, so that the same line is given by the same element
+ * as long as it is used.
+ */
+@SuppressWarnings("serial") // Swing document, never serialized
+final class ConfigurationDocument extends AbstractDocument {
+
+    /**
+     * Number of elements of lines kept: 1024
+     */
+    private static final int CACHED_ELEMENTS = 1 << 10;
+
+    private final RootElement mRoot = new RootElement();
+    private final LineElement[] mElements = new LineElement[CACHED_ELEMENTS];
+    /**
+     * Offset of the first character of each line, in ascending order, the first being 0
+     */
+    private int[] mStarts = new int[16];
+    private int mLineCount = 1;
+
+    /**
+     * Constructor: the content is allocated for the given number of characters, so that it does not grow while
+     * they are inserted
+     *
+     * @param capacity expected length of the document
+     */
+    ConfigurationDocument(int capacity) {
+        super(new GapContent(Math.max(capacity, 1) + 1));
+        putProperty(PlainDocument.tabSizeAttribute, 8);
+    }
+
+    @Override
+    public Element getDefaultRootElement() {
+        return mRoot;
+    }
+
+    @Override
+    public Element getParagraphElement(int pos) {
+        return mRoot.getElement(mRoot.getElementIndex(pos));
+    }
+
+    @Override
+    protected void insertUpdate(DefaultDocumentEvent chng, AttributeSet attr) {
+        int offset = chng.getOffset();
+        int length = chng.getLength();
+        int line = mRoot.getElementIndex(offset);
+        for (int i = line + 1; i < mLineCount; i++) {
+            mStarts[i] += length;
+        }
+
+        int added = countNewLines(offset, length);
+        if (added > 0) {
+            if (mLineCount + added > mStarts.length) {
+                mStarts = Arrays.copyOf(mStarts, Math.max(mLineCount + added, mStarts.length * 2));
+            }
+            System.arraycopy(mStarts, line + 1, mStarts, line + 1 + added, mLineCount - line - 1);
+            mLineCount += added;
+            fillStarts(offset, length, line + 1);
+            chng.addEdit(new LineChange(line, 1, added + 1));
+        }
+        super.insertUpdate(chng, attr);
+    }
+
+    @Override
+    protected void removeUpdate(DefaultDocumentEvent chng) {
+        int offset = chng.getOffset();
+        int length = chng.getLength();
+        int first = mRoot.getElementIndex(offset);
+        int last = mRoot.getElementIndex(offset + length);
+        if (last > first) {
+            // The lines starting in the removed text are merged into the first one
+            chng.addEdit(new LineChange(first, last - first + 1, 1));
+            System.arraycopy(mStarts, last + 1, mStarts, first + 1, mLineCount - last - 1);
+            mLineCount -= last - first;
+        }
+        for (int i = first + 1; i < mLineCount; i++) {
+            mStarts[i] -= length;
+        }
+        super.removeUpdate(chng);
+    }
+
+    /**
+     * @return the number of '\n' in the inserted text
+     */
+    private int countNewLines(int offset, int length) {
+        int count = 0;
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int position = offset;
+        while (position < offset + length) {
+            getTextUnchecked(position, offset + length - position, segment);
+            for (int i = 0; i < segment.count; i++) {
+                if (segment.array[segment.offset + i] == '\n') {
+                    count++;
+                }
+            }
+            position += segment.count;
+        }
+        return count;
+    }
+
+    /**
+     * Method used to write the starts of the lines following the '\n' of the inserted text
+     *
+     * @param offset offset of the inserted text
+     * @param length length of the inserted text
+     * @param index  index of the first new line
+     */
+    private void fillStarts(int offset, int length, int index) {
+        Segment segment = new Segment();
+        segment.setPartialReturn(true);
+        int position = offset;
+        while (position < offset + length) {
+            getTextUnchecked(position, offset + length - position, segment);
+            for (int i = 0; i < segment.count; i++) {
+                if (segment.array[segment.offset + i] == '\n') {
+                    mStarts[index++] = position + i + 1;
+                }
+            }
+            position += segment.count;
+        }
+    }
+
+    private void getTextUnchecked(int offset, int length, Segment segment) {
+        try {
+            getContent().getChars(offset, length, segment);
+        } catch (BadLocationException e) {
+            // The inserted text is always in the content
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the offset of the first character of a line, or the end of the document for the line after the last
+     */
+    private int getStart(int line) {
+        return line < mLineCount ? mStarts[line] : getLength() + 1;
+    }
+
+    /**
+     * Element of the whole document, whose children are the lines
+     */
+    private final class RootElement implements Element {
+
+        @Override
+        public Document getDocument() {
+            return ConfigurationDocument.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return SectionElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return 0;
+        }
+
+        @Override
+        public int getEndOffset() {
+            return getLength() + 1;
+        }
+
+        /**
+         * @return the index of the line containing the offset, found by binary search of the starts of the lines
+         */
+        @Override
+        public int getElementIndex(int offset) {
+            int low = 0;
+            int high = mLineCount - 1;
+            while (low < high) {
+                int middle = (low + high + 1) >>> 1;
+                if (mStarts[middle] <= offset) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public int getElementCount() {
+            return mLineCount;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            if (index < 0 || index >= mLineCount) {
+                return null;
+            }
+            int slot = index & (CACHED_ELEMENTS - 1);
+            LineElement element = mElements[slot];
+            if (element == null || element.mIndex != index) {
+                element = new LineElement(index);
+                mElements[slot] = element;
+            }
+            return element;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return false;
+        }
+    }
+
+    /**
+     * Element of a line, designated by its index
+     */
+    private final class LineElement implements Element {
+
+        private final int mIndex;
+
+        private LineElement(int index) {
+            mIndex = index;
+        }
+
+        @Override
+        public Document getDocument() {
+            return ConfigurationDocument.this;
+        }
+
+        @Override
+        public Element getParentElement() {
+            return mRoot;
+        }
+
+        @Override
+        public String getName() {
+            return ParagraphElementName;
+        }
+
+        @Override
+        public AttributeSet getAttributes() {
+            return SimpleAttributeSet.EMPTY;
+        }
+
+        @Override
+        public int getStartOffset() {
+            return getStart(mIndex);
+        }
+
+        @Override
+        public int getEndOffset() {
+            return getStart(mIndex + 1);
+        }
+
+        @Override
+        public int getElementIndex(int offset) {
+            return -1;
+        }
+
+        @Override
+        public int getElementCount() {
+            return 0;
+        }
+
+        @Override
+        public Element getElement(int index) {
+            return null;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+    }
+
+    /**
+     * Change of the lines of the document, given to the views with the document events. The elements are created
+     * only if a view asks for them
+     */
+    private final class LineChange extends AbstractUndoableEdit implements DocumentEvent.ElementChange {
+
+        private final int mIndex;
+        private final int mRemoved;
+        private final int mAdded;
+
+        /**
+         * @param index   index of the first line changed
+         * @param removed number of lines replaced
+         * @param added   number of lines replacing them
+         */
+        private LineChange(int index, int removed, int added) {
+            mIndex = index;
+            mRemoved = removed;
+            mAdded = added;
+        }
+
+        @Override
+        public Element getElement() {
+            return mRoot;
+        }
+
+        @Override
+        public int getIndex() {
+            return mIndex;
+        }
+
+        @Override
+        public Element[] getChildrenRemoved() {
+            return getLines(mRemoved);
+        }
+
+        @Override
+        public Element[] getChildrenAdded() {
+            return getLines(mAdded);
+        }
+
+        private Element[] getLines(int count) {
+            Element[] lines = new Element[count];
+            for (int i = 0; i < count; i++) {
+                lines[i] = mIndex + i < mLineCount ? mRoot.getElement(mIndex + i) : new LineElement(mIndex + i);
+            }
+            return lines;
+        }
+
+        /**
+         * The lines are not restored: the editor has no undo
+         */
+        @Override
+        public boolean canUndo() {
+            return false;
+        }
+
+        @Override
+        public boolean canRedo() {
+            return false;
+        }
+    }
+}
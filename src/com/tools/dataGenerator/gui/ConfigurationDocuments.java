@@ -0,0 +1,203 @@
+package com.tools.dataGenerator.gui;
+
+import javax.swing.ListModel;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultEditorKit;
+import javax.swing.text.Document;
+import javax.swing.text.EditorKit;
+import javax.swing.text.PlainView;
+import javax.swing.text.ViewFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class reads and writes the documents of the configuration editor, so that configuration files of hundreds
+ * of MB can be edited:
+ * <ul>
+ * <li>the document is a ConfigurationDocument, which holds 4 bytes per line instead of an element per line</li>
+ * <li>the document is built off the event dispatch thread, in blocks of BLOCK_SIZE characters, and no String of
+ * the whole file is ever created</li>
+ * <li>the content of the document is sized from the file before it is read, so that it is never copied to grow</li>
+ * <li>the document is written in segments, streamed to a temporary file moved in place of the configuration
+ * file once complete</li>
+ * <li>the editor kit displays the document with a PlainView, which paints only the visible lines, instead of the
+ * wrapped view of JEditorPane that lays out every line</li>
+ * </ul>
+ */
+final class ConfigurationDocuments {
+
+    /**
+     * Number of characters inserted at once in the document: 4 Mi
+     */
+    private static final int BLOCK_SIZE = 4 << 20;
+
+    /**
+     * Room left in the content of a document read from a file, for the edits made before it has to grow
+     */
+    private static final int MIN_EDIT_CAPACITY = 64 << 10;
+
+    private ConfigurationDocuments() {}
+
+    /**
+     * @return an editor kit for the configuration editor: plain text without line wrapping
+     */
+    static EditorKit newEditorKit() {
+        return new DefaultEditorKit() {
+            @Override
+            public ViewFactory getViewFactory() {
+                return PlainView::new;
+            }
+
+            @Override
+            public Document createDefaultDocument() {
+                return new ConfigurationDocument(0);
+            }
+        };
+    }
+
+    /**
+     * Method used to read a configuration file into a new document. The line separators are replaced by '\n'; the
+     * document remembers "\r\n" when the file uses it, so that it is written back the same way
+     *
+     * @param file the configuration file, encoded in UTF-8
+     * @return the document, not yet attached to any component
+     * @throws IOException if the file cannot be read
+     */
+    static Document read(Path file) throws IOException {
+        long size = Files.size(file);
+        // A character takes at least one byte in UTF-8: the file size is an upper bound of the length
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + Math.max(MIN_EDIT_CAPACITY, size / 16));
+        ConfigurationDocument document = new ConfigurationDocument(capacity);
+        BlockWriter writer = new BlockWriter(document);
+        boolean crlf = false;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[1 << 16];
+            boolean pendingCr = false;
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (pendingCr) {
+                        pendingCr = false;
+                        if (c == '\n') {
+                            crlf = true;
+                            continue;
+                        }
+                    }
+                    if (c == '\r') {
+                        // A lone '\r' is a line separator as well
+                        pendingCr = true;
+                        c = '\n';
+                    }
+                    writer.append(c);
+                }
+            }
+        }
+        writer.flush();
+        if (crlf) {
+            document.putProperty(DefaultEditorKit.EndOfLineStringProperty, "\r\n");
+        }
+        return document;
+    }
+
+    /**
+     * Method used to create a document listing the names of a list, one per line
+     *
+     * @param names the names (Ex: the model of the list of the Data Items)
+     * @return the document, not yet attached to any component
+     */
+    static Document fromNames(ListModel<?> names) {
+        ConfigurationDocument document = new ConfigurationDocument(MIN_EDIT_CAPACITY);
+        BlockWriter writer = new BlockWriter(document);
+        for (int i = 0; i < names.getSize(); i++) {
+            String name = names.getElementAt(i).toString();
+            for (int c = 0; c < name.length(); c++) {
+                writer.append(name.charAt(c));
+            }
+            writer.append('\n');
+        }
+        writer.flush();
+        return document;
+    }
+
+    /**
+     * Method used to write a document into a file, in UTF-8. The file is replaced only once the whole document
+     * has been written. The document is locked for reading meanwhile: the edits wait for the end of the write
+     *
+     * @param document the document
+     * @param file     the file to write
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Document document, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            if (Files.exists(file)) {
+                try {
+                    // Keep the permissions of the file replaced, not those of the temporary file
+                    Files.setPosixFilePermissions(temporary, Files.getPosixFilePermissions(file));
+                } catch (UnsupportedOperationException e) {
+                    // Not a POSIX file system: the default permissions are kept
+                }
+            }
+            IOException[] failure = new IOException[1];
+            document.render(() -> {
+                try (Writer writer = new BufferedWriter(Files.newBufferedWriter(temporary, StandardCharsets.UTF_8),
+                        1 << 16)) {
+                    // Written by segments of the content, without copying the whole text
+                    new DefaultEditorKit().write(writer, document, 0, document.getLength());
+                } catch (IOException e) {
+                    failure[0] = e;
+                } catch (BadLocationException e) {
+                    failure[0] = new IOException(e);
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Buffer of characters appended at the end of a document one block at a time
+     */
+    private static final class BlockWriter {
+
+        private final Document mDocument;
+        private final char[] mBlock = new char[BLOCK_SIZE];
+        private int mLength;
+
+        private BlockWriter(Document document) {
+            mDocument = document;
+        }
+
+        private void append(char c) {
+            if (mLength == mBlock.length) {
+                flush();
+            }
+            mBlock[mLength++] = c;
+        }
+
+        private void flush() {
+            if (mLength == 0) {
+                return;
+            }
+            try {
+                mDocument.insertString(mDocument.getLength(), new String(mBlock, 0, mLength), null);
+            } catch (BadLocationException e) {
+                // The end of the document is always a valid location
+                throw new IllegalStateException(e);
+            }
+            mLength = 0;
+        }
+    }
+}
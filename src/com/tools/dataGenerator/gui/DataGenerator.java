@@ -1,42 +1,55 @@
 package com.tools.dataGenerator.gui;
 
+import com.tools.dataGenerator.catalog.Catalog;
+import com.tools.dataGenerator.catalog.CatalogCache;
+import com.tools.dataGenerator.catalog.CatalogDiff;
+import com.tools.dataGenerator.catalog.CatalogErrors;
+import com.tools.dataGenerator.catalog.CatalogWatcher;
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.engine.CapacityPlan;
+import com.tools.dataGenerator.engine.CapacityPlanner;
+import com.tools.dataGenerator.engine.GenerationJob;
+import com.tools.dataGenerator.engine.GenerationProgress;
+import com.tools.dataGenerator.engine.GenerationResult;
+import com.tools.dataGenerator.engine.Generator;
+import com.tools.dataGenerator.engine.GeneratorCli;
+import com.tools.dataGenerator.packaging.TarGzPackager;
+
 import javax.swing.*;
+import javax.swing.text.Document;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
-import java.util.zip.GZIPOutputStream;
-
-import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
-import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
-import org.apache.commons.compress.utils.IOUtils;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
 
 public class DataGenerator extends JFrame {
-    private static final int SIZE_MB = 1_000_000;
-
-    private static final String mRegex = "^.*\\:.\\D*.*";
     /**
-     * This Map will contain as key the data item name and as value the object representing the data item
+     * Interval between two refreshes of the progress panel, in milliseconds
      */
-    static private Map<String, DataItem> mDataItemMap = new TreeMap<>();
+    private static final int PROGRESS_REFRESH_MS = 250;
     /**
-     * This list contains the full list of Data Item displayed on the left part of the main Window
+     * Maximum number of wrong entries described in the warning displayed when a configuration file is loaded
      */
-    static private List<String> mSelectedItemsOnTheLeftList = new ArrayList<>();
+    private static final int MAX_REPORTED_ERRORS = 20;
     /**
-     * This list contains the list of Data Item displayed on the right part of the main Window that have been
-     * selected. This list is used only to remove the items displayed on the right part of the main window and
-     * that have been selected for deletion
+     * This catalog contains the Data Items read from the configuration file, sorted by name
      */
-    static private List<String> mSelectedItemsOnTheRightList = new ArrayList<>();
+    static private Catalog mCatalog = Catalog.EMPTY;
+    /**
+     * Path of the configuration file mCatalog has been read from, null when no file has been read
+     */
+    static private Path mCatalogPath;
+    /**
+     * This model contains the list of Data Item selected to be generated, as indexes in mCatalog. It is displayed
+     * by the mSelectedDataItemJList component
+     */
+    static private SelectionListModel mSelectedItemsOnTheLeftList = new SelectionListModel();
     /**
      * Create a File Chooser
      */
@@ -57,6 +70,26 @@ public class DataGenerator extends JFrame {
     private JPanel mSelectedDataItemJPane;
     private JButton mSaveEditorBtn;
     private JButton mCancelEditorBtn;
+    private JPanel mProgressJPane;
+    private JLabel mProgressLabel;
+    private JProgressBar mProgressBar;
+    private JButton mStopBtn;
+    /**
+     * Job currently running in background, null when no generation is running
+     */
+    private GenerationJob mRunningJob;
+    /**
+     * True when the configuration file is reloaded as soon as it changes (View > Watch Configuration File)
+     */
+    private boolean mWatchCatalog;
+    /**
+     * Watcher of the configuration file, null when the watch mode is disabled
+     */
+    private CatalogWatcher mCatalogWatcher;
+    /**
+     * View > Watch Configuration File item, unselected when the configuration file cannot be watched
+     */
+    private JCheckBoxMenuItem mWatchMenuItem;
 
 
     /**
@@ -67,6 +100,8 @@ public class DataGenerator extends JFrame {
      */
     private DataGenerator() {
 
+        mSelectedDataItemJList.setModel(mSelectedItemsOnTheLeftList);
+
         selectDataItemListener(mAddAllBtn, mAllDataItemsJList, mSelectedDataItemJList);
 
         selectedDataItemListener(mSelectedDataItemJList, mAddAllBtn);
@@ -75,12 +110,15 @@ public class DataGenerator extends JFrame {
 
         createDataItemListener(mOkBtn);
 
+        stopGenerationListener(mStopBtn);
+
         selectAllDataItemListener(mSelectAllBtn, mAddAllBtn, mAllDataItemsJList);
 
         addAllDataItemListener(mAddAllBtn, mSelectedDataItemJList);
 
         cancelAllDataItemListener(mCancelBtn, mAllDataItemsJList, mAddAllBtn, mSelectedDataItemJList);
 
+        mJeditorPane.setEditorKit(ConfigurationDocuments.newEditorKit());
         mJeditorPane.setVisible(false);
 
         saveEditorContentListener();
@@ -95,7 +133,8 @@ public class DataGenerator extends JFrame {
      */
     private void cancelEditorContentListener() {
         mCancelEditorBtn.addActionListener(actionEvent -> {
-            mJeditorPane.setText("");
+            // A new document releases the content of the previous one, which may be hundreds of MB
+            mJeditorPane.setDocument(mJeditorPane.getEditorKit().createDefaultDocument());
         });
     }
 
@@ -103,26 +142,52 @@ public class DataGenerator extends JFrame {
      * Method used to save the editor content to a file
      */
     private void saveEditorContentListener() {
-        mSaveEditorBtn.addActionListener(actionEvent -> {
-            mFileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-            int ret = mFileChooser.showSaveDialog(DataGenerator.this);
-            if (ret == JFileChooser.APPROVE_OPTION) {
-                File selectedPath = mFileChooser.getSelectedFile();
+        mSaveEditorBtn.addActionListener(actionEvent -> saveEditorContent());
+    }
 
-                try {
-                    Files.write(selectedPath.toPath(), mJeditorPane.getText().getBytes());
+    /**
+     * Method used to save the editor content to the file chosen by the user. The content is streamed to the file in
+     * background, the configuration file being proposed by default
+     */
+    private void saveEditorContent() {
+        mFileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
+        if (mCatalogPath != null) {
+            mFileChooser.setSelectedFile(mCatalogPath.toFile());
+        }
+        int ret = mFileChooser.showSaveDialog(DataGenerator.this);
+        if (ret != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path selectedPath = mFileChooser.getSelectedFile().toPath();
+        Document document = mJeditorPane.getDocument();
+        mSaveEditorBtn.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                ConfigurationDocuments.write(document, selectedPath);
+                return null;
+            }
 
-                } catch (IOException e) {
-                    e.printStackTrace();
+            @Override
+            protected void done() {
+                mSaveEditorBtn.setEnabled(mJeditorPane.isVisible());
+                try {
+                    get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(DataGenerator.this,
+                            "The configuration file cannot be saved: " + e.getCause().getMessage(), "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
                 }
             }
-        });
+        }.execute();
     }
 
     /**
-     * Method used to keep trace of the Data Item selected on the right JList component.
-     * The selected Data Items are stored into the mSelectedItemsOnTheRightList object.
-     * Later the list is used to remove specific Data Items from the Data Items listed in the right part of the main window
+     * Method used to disable the mAddAllBtn once a Data Item is clicked on the right JList component.
+     * The Data Items selected on the right JList are later removed by the mRemoveBtn
      *
      * @param selectedDataItemJList reference to the mSelectedDataItemJList object
      * @param addAllBtn             reference to the mAddAllBtn object
@@ -132,38 +197,22 @@ public class DataGenerator extends JFrame {
             @Override
             public void mouseClicked(MouseEvent mouseEvent) {
                 super.mouseClicked(mouseEvent);
-
-                mSelectedItemsOnTheRightList.clear();
-                JList list = (JList) mouseEvent.getSource();
-
                 addAllBtn.setEnabled(false);
-
-                if (mouseEvent.getClickCount() == 1) {
-                    // one-click detected
-                    if (!list.isSelectionEmpty()) {
-                        String itemName = list.getSelectedValue().toString();
-                        if (!mSelectedItemsOnTheRightList.contains(itemName)) {
-                            mSelectedItemsOnTheRightList.add(itemName);
-                        }
-                    }
-                }
             }
         });
     }
 
     /**
      * Method used to set the the JList component with the content read from the
-     * configuration file
+     * configuration file. The names are read from the catalog only for the rows displayed
      *
      * @param productTypesJList reference to the JList component
      */
-    private static void setContentDataItemJList(JList<Object> productTypesJList) {
-        // Set content into the ProductTypes JList component
-        List<String> itemNames = new ArrayList<>();
-        for (DataItem item : mDataItemMap.values()) {
-            itemNames.add(item.getItemName());
-        }
-        productTypesJList.setListData(itemNames.toArray());
+    private static void setContentDataItemJList(JList<String> productTypesJList) {
+        // The width of the rows is given by the longest name instead of being measured on every name
+        productTypesJList.setPrototypeCellValue(mCatalog.isEmpty() ? null
+                : mCatalog.getName(mCatalog.getLongestName()));
+        productTypesJList.setModel(new CatalogListModel(mCatalog));
     }
 
     /**
@@ -178,11 +227,7 @@ public class DataGenerator extends JFrame {
         cancelBtn.addActionListener(actionEvent -> {
             productTypesJList.clearSelection();
             addAllBtn.setEnabled(false);
-            if (!mSelectedItemsOnTheLeftList.isEmpty()) {
-                mSelectedItemsOnTheLeftList.clear();
-
-                selectedDataItemJList.setListData(mSelectedItemsOnTheLeftList.toArray());
-            }
+            mSelectedItemsOnTheLeftList.clear();
         });
     }
 
@@ -193,14 +238,7 @@ public class DataGenerator extends JFrame {
      * @param selectedDataItemJList reference to the mSelectedDataItemJList object
      */
     private static void addAllDataItemListener(JButton addAllBtn, JList selectedDataItemJList) {
-        addAllBtn.addActionListener(actionEvent -> {
-            for (Map.Entry<String, DataItem> entry : mDataItemMap.entrySet()) {
-                if (!mSelectedItemsOnTheLeftList.contains(entry.getKey())) {
-                    mSelectedItemsOnTheLeftList.add(entry.getKey());
-                    selectedDataItemJList.setListData(mSelectedItemsOnTheLeftList.toArray());
-                }
-            }
-        });
+        addAllBtn.addActionListener(actionEvent -> mSelectedItemsOnTheLeftList.addAll());
     }
 
     /**
@@ -212,11 +250,9 @@ public class DataGenerator extends JFrame {
      */
     private static void selectAllDataItemListener(JButton selectAllBtn, JButton addAllBtn, JList productTypesJList) {
         selectAllBtn.addActionListener(actionEvent -> {
-            int[] indecis = new int[mDataItemMap.size()];
-            for (int i = 0; i < mDataItemMap.size(); i++) {
-                indecis[i] = i;
+            if (!mCatalog.isEmpty()) {
+                productTypesJList.setSelectionInterval(0, mCatalog.size() - 1);
             }
-            productTypesJList.setSelectedIndices(indecis);
             addAllBtn.setEnabled(true);
         });
     }
@@ -233,17 +269,14 @@ public class DataGenerator extends JFrame {
         // added in the list
         removeBtn.addActionListener(actionEvent -> {
             //Remove the selected items
-            if (!mSelectedItemsOnTheRightList.isEmpty()) {
-                for (String item : mSelectedItemsOnTheRightList) {
-                    mSelectedItemsOnTheLeftList.remove(item);
-                }
-                mSelectedItemsOnTheRightList.clear();
-                selectedDataItemJList.setListData(mSelectedItemsOnTheLeftList.toArray());
+            int[] selectedIndices = selectedDataItemJList.getSelectedIndices();
+            if (selectedIndices.length > 0) {
+                selectedDataItemJList.clearSelection();
+                mSelectedItemsOnTheLeftList.removeAll(selectedIndices);
             }
             //Remove last selected data item from the right JList
-            else if (!mSelectedItemsOnTheLeftList.isEmpty()) {
-                mSelectedItemsOnTheLeftList.remove(mSelectedItemsOnTheLeftList.size() - 1);
-                selectedDataItemJList.setListData(mSelectedItemsOnTheLeftList.toArray());
+            else {
+                mSelectedItemsOnTheLeftList.removeLast();
             }
         });
     }
@@ -269,12 +302,10 @@ public class DataGenerator extends JFrame {
                 addAllBtn.setEnabled(false);
 
                 if (mouseEvent.getClickCount() == 2) {
-                    // Double-click detected
-                    String itemName = list.getModel().getElementAt(list.locationToIndex(mouseEvent.getPoint())).toString();
-
-                    if (!mSelectedItemsOnTheLeftList.contains(itemName)) {
-                        mSelectedItemsOnTheLeftList.add(itemName);
-                        selectedDataItemJList.setListData(mSelectedItemsOnTheLeftList.toArray());
+                    // Double-click detected: the index in the list is the index in the catalog
+                    int index = list.locationToIndex(mouseEvent.getPoint());
+                    if (index >= 0) {
+                        mSelectedItemsOnTheLeftList.add(index);
                     }
                 }
             }
@@ -287,13 +318,15 @@ public class DataGenerator extends JFrame {
     private static void readDataItemConfigurationFile() {
         // Fill in a Map with the key equals to the Data Item name and the value equals to a DataItem object
         // representing the data item read from the resource file
-        try (Stream<String> lines = Files.lines(Paths.get("./resources/ListDataItem.cnf"), StandardCharsets.UTF_8)) {
-            lines.forEach(line -> {
-                // split the String line (Ex: P4_1A_HR_____:10) into two strings. The first one containing the
-                // data item name and the second one the dimension
-                String[] tmp = line.split(":");
-                mDataItemMap.put(tmp[0], new DataItem(tmp[0], Double.valueOf(tmp[1])));
-            });
+        try {
+            CatalogErrors errors = new CatalogErrors();
+            Path path = Paths.get("./resources/ListDataItem.cnf");
+            mCatalog = CatalogCache.open(path, errors);
+            mCatalogPath = path;
+            mSelectedItemsOnTheLeftList.setCatalog(mCatalog);
+            if (!errors.isEmpty()) {
+                System.err.print("Wrong entry/ies in ListDataItem.cnf\n" + errors.summary(MAX_REPORTED_ERRORS));
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -301,92 +334,265 @@ public class DataGenerator extends JFrame {
 
     /**
      * Iterate the list of the selected data item displayed in the right JList
-     * and for each Data Item a file is created
+     * and for each Data Item a file is created. The files are created in background
+     * while the progress panel displays the progress of the generation
      *
      * @param okBtn reference to the mOkBtn object
      */
     private void createDataItemListener(JButton okBtn) {
         okBtn.addActionListener(actionEvent -> {
-            File selectedPath = null;
+            if (mSelectedItemsOnTheLeftList.isEmpty() || mRunningJob != null) {
+                return;
+            }
 
             //Create a Data Item for each element displayed in the JTextPane
-            if (!mSelectedItemsOnTheLeftList.isEmpty()) {
-                mFileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-                int ret = mFileChooser.showSaveDialog(DataGenerator.this);
-                if (ret == JFileChooser.APPROVE_OPTION) {
-                    selectedPath = mFileChooser.getSelectedFile();
-                    for (String s : mSelectedItemsOnTheLeftList) {
-                        DataItem item = mDataItemMap.get(s);
-                        System.out.println(item.getItemName() + " " + item.getDimesion() + " MB");
-
-                        RandomAccessFile file;
-                        try {
-                            file = new RandomAccessFile(new File(selectedPath + "\\" + item.getItemName()), "rw");
-                            file.setLength((long) (item.getDimesion() * SIZE_MB));
-                            file.close();
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                        }
-                    }
+            //Several directories (Ex: one per drive) can be selected to spread the Data Items across them
+            mFileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+            mFileChooser.setMultiSelectionEnabled(true);
+            int ret = mFileChooser.showSaveDialog(DataGenerator.this);
+            mFileChooser.setMultiSelectionEnabled(false);
+            if (ret != JFileChooser.APPROVE_OPTION) {
+                return;
+            }
+            File[] selectedPaths = mFileChooser.getSelectedFiles();
+            if (selectedPaths.length == 0) {
+                selectedPaths = new File[]{mFileChooser.getSelectedFile()};
+            }
+            File selectedPath = selectedPaths[0];
+            boolean createArchive = selectedPaths.length == 1 && JOptionPane.showConfirmDialog(this,
+                    "Create a tar.gz archive of the Data Items?", "Archive", JOptionPane.YES_NO_OPTION)
+                    == JOptionPane.YES_OPTION;
+
+            Iterable<DataItem> items = mSelectedItemsOnTheLeftList.getDataItems();
+            long totalItems = 0;
+            long totalBytes = 0;
+            for (DataItem item : items) {
+                totalItems += item.getCount();
+                totalBytes += item.getTotalSizeInBytes();
+            }
+
+            GenerationJob job = new GenerationJob(selectedPath.toPath(), items);
+            if (selectedPaths.length > 1) {
+                List<Path> volumes = new ArrayList<>();
+                for (File path : selectedPaths) {
+                    volumes.add(path.toPath());
                 }
+                job.setVolumes(volumes);
             }
+            planGeneration(job, createArchive ? selectedPath : null, totalItems, totalBytes);
+        });
+    }
 
-            // Commented out bacause method does not work properly
-            //createTarFile(selectedPath);
+    /**
+     * Method used to plan a generation job in background before running it (see CapacityPlanner). A job that does
+     * not fit on the file systems of its directories is started only if the user confirms it
+     *
+     * @param job           the job to run
+     * @param archiveSource directory to package into a tar.gz file once the job is completed, or null
+     * @param totalItems    number of Data Items of the job
+     * @param totalBytes    number of bytes of the Data Items of the job
+     */
+    private void planGeneration(GenerationJob job, File archiveSource, long totalItems, long totalBytes) {
+        mRunningJob = job;
+        mOkBtn.setEnabled(false);
+        mStopBtn.setEnabled(false);
+        mProgressBar.setIndeterminate(true);
+        mProgressLabel.setText("Planning...");
+        mProgressJPane.setVisible(true);
+
+        new SwingWorker<CapacityPlan, Void>() {
+            @Override
+            protected CapacityPlan doInBackground() throws Exception {
+                return new CapacityPlanner().plan(job);
+            }
+
+            @Override
+            protected void done() {
+                CapacityPlan plan;
+                try {
+                    plan = get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                    JOptionPane.showMessageDialog(DataGenerator.this, "The generation cannot be planned: "
+                            + e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    plan = null;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    plan = null;
+                }
+                if (plan != null && !plan.isAdmitted() && JOptionPane.showConfirmDialog(DataGenerator.this,
+                        String.join("\n", plan.getProblems()) + "\n\nGenerate anyway?", "Not enough space",
+                        JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE) != JOptionPane.YES_OPTION) {
+                    plan = null;
+                }
+                if (plan == null) {
+                    mRunningJob = null;
+                    mProgressJPane.setVisible(false);
+                    mOkBtn.setEnabled(true);
+                    return;
+                }
+                startGeneration(job, archiveSource, totalItems, totalBytes);
+            }
+        }.execute();
+    }
 
-            JOptionPane.showMessageDialog(this, "Data Items have been created!");
+    /**
+     * Method used to stop the generation running in background
+     *
+     * @param stopBtn reference to the mStopBtn object
+     */
+    private void stopGenerationListener(JButton stopBtn) {
+        stopBtn.addActionListener(actionEvent -> {
+            if (mRunningJob != null) {
+                mRunningJob.getProgress().cancel();
+                stopBtn.setEnabled(false);
+                mProgressLabel.setText("Stopping...");
+            }
         });
     }
 
     /**
-     * This method is used to creata a tar.gz file containing the generated files
+     * Method used to run a generation job in background. The progress panel is refreshed by a timer
+     * until the job is completed, then the outcome of the job is displayed
+     *
+     * @param job           the job to run
+     * @param archiveSource directory to package into a tar.gz file once the job is completed, or null
+     * @param totalItems    number of Data Items of the job
+     * @param totalBytes    number of bytes of the Data Items of the job
      */
-    private void createTarFile(File source) {
-        TarArchiveOutputStream tarOs = null;
-        try {
-            FileOutputStream fos = new FileOutputStream(source.toString().concat("/testDataSet.tar.gz"));
-            GZIPOutputStream gos = new GZIPOutputStream(new BufferedOutputStream(fos));
-            tarOs = new TarArchiveOutputStream(gos);
-            tarOs.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
-            File[] fileNames = source.listFiles();
-            for (File file : fileNames) {
-                addFilesToTarGZ(file.getAbsolutePath(), file, tarOs);
+    private void startGeneration(GenerationJob job, File archiveSource, long totalItems, long totalBytes) {
+        mRunningJob = job;
+        mOkBtn.setEnabled(false);
+        mStopBtn.setEnabled(true);
+        mProgressBar.setIndeterminate(false);
+        mProgressBar.setValue(0);
+        mProgressLabel.setText("");
+        mProgressJPane.setVisible(true);
+
+        GenerationProgress progress = job.getProgress();
+        Timer timer = new Timer(PROGRESS_REFRESH_MS, null);
+        long[] previous = {System.nanoTime(), 0};
+        timer.addActionListener(event -> {
+            long now = System.nanoTime();
+            long bytes = progress.getBytesWritten();
+            long skippedBytes = progress.getSkippedBytes();
+            double throughput = (bytes - previous[1]) / (double) DataItem.SIZE_MB / ((now - previous[0]) / 1e9);
+            previous[0] = now;
+            previous[1] = bytes;
+
+            long done = progress.getCreatedItems() + progress.getFailedItems() + progress.getSkippedItems();
+            mProgressBar.setValue((int) (totalBytes > 0 ? (bytes + skippedBytes) * 1000 / totalBytes
+                    : totalItems > 0 ? done * 1000 / totalItems : 0));
+            if (!progress.isCancelled()) {
+                mProgressLabel.setText(String.format("%d / %d Data Items, %.1f MB, %.1f MB/s", done, totalItems,
+                        bytes / (double) DataItem.SIZE_MB, throughput));
             }
-        }
-        catch(IOException e) {
-                e.printStackTrace();
-        }
-        finally {
-            try {
-                tarOs.close();
+        });
+
+        SwingWorker<GenerationResult, Void> worker = new SwingWorker<GenerationResult, Void>() {
+            @Override
+            protected GenerationResult doInBackground() throws Exception {
+                try {
+                    GenerationResult result = new Generator().run(job);
+                    logFailures(result);
+                    if (archiveSource != null && result.isSuccessful()) {
+                        SwingUtilities.invokeLater(() -> {
+                            timer.stop();
+                            mStopBtn.setEnabled(false);
+                            mProgressBar.setIndeterminate(true);
+                            mProgressLabel.setText("Packaging...");
+                        });
+                        createTarFile(archiveSource);
+                    }
+                    return result;
+                } catch (Exception e) {
+                    // Logged by the worker thread, the window only displays the message
+                    e.printStackTrace();
+                    throw e;
+                }
             }
-            catch (IOException e) {
-                e.printStackTrace();
+
+            @Override
+            protected void done() {
+                timer.stop();
+                mRunningJob = null;
+                mProgressJPane.setVisible(false);
+                mOkBtn.setEnabled(true);
+                try {
+                    showGenerationResult(get());
+                } catch (ExecutionException e) {
+                    JOptionPane.showMessageDialog(DataGenerator.this, "Generation failed: " + e.getCause().getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
             }
-        }
+        };
+        timer.start();
+        worker.execute();
     }
 
-    private void addFilesToTarGZ(String source, File file, TarArchiveOutputStream tos)
-            throws IOException
-    {
-        tos.putArchiveEntry(new TarArchiveEntry(file, source));
-        if(file.isFile()) {
-            FileInputStream fis = new FileInputStream(file);
-            BufferedInputStream bis = new BufferedInputStream(fis);
-            //Write content of the file
-            IOUtils.copy(bis, tos);
-            tos.closeArchiveEntry();
-            fis.close();
+    /**
+     * Method used to display the outcome of a generation job
+     *
+     * @param result the outcome of the job
+     */
+    private void showGenerationResult(GenerationResult result) {
+        String summary = String.format("%d Data Items created (%.1f MB in %.1f s, %.1f MB/s)",
+                result.getCreatedItems(), result.getBytes() / (double) DataItem.SIZE_MB,
+                result.getElapsedNanos() / 1e9, result.getThroughput());
+        if (result.getSkippedItems() > 0) {
+            summary += String.format("\n%d Data Items already up to date", result.getSkippedItems());
         }
-        else if(file.isDirectory()) {
-            // not copy any content since it is a directory. Close the outputstreat
-            tos.closeArchiveEntry();
-            for(File newfile : file.listFiles()) {
-                addFilesToTarGZ(newfile.getAbsolutePath(), newfile, tos);
+        if (!result.getFailures().isEmpty()) {
+            StringBuilder message = new StringBuilder(summary).append("\n\n")
+                    .append(result.getFailures().size()).append(" Data Item/s could not be created:");
+            int reported = 0;
+            for (Map.Entry<String, Exception> failure : result.getFailures().entrySet()) {
+                if (reported++ == MAX_REPORTED_ERRORS) {
+                    message.append("\n...");
+                    break;
+                }
+                message.append("\n").append(failure.getKey()).append(": ").append(failure.getValue().getMessage());
             }
+            JOptionPane.showMessageDialog(this, message.toString(), "Warning", JOptionPane.WARNING_MESSAGE);
+        } else if (result.isCancelled()) {
+            JOptionPane.showMessageDialog(this, "Generation stopped: " + summary);
+        } else {
+            JOptionPane.showMessageDialog(this, "Data Items have been created!\n" + summary);
         }
     }
 
+    /**
+     * Method used to log the failures of a run on the standard error output, at most MAX_REPORTED_ERRORS of them.
+     * It is called by the worker thread, so that a run with many failures (Ex: disk full) does not freeze the window
+     *
+     * @param result the outcome of the job
+     */
+    private static void logFailures(GenerationResult result) {
+        int reported = 0;
+        for (Map.Entry<String, Exception> failure : result.getFailures().entrySet()) {
+            if (reported++ == MAX_REPORTED_ERRORS) {
+                System.err.println("... and " + (result.getFailures().size() - MAX_REPORTED_ERRORS)
+                        + " other Data Item/s could not be created");
+                break;
+            }
+            System.err.print(failure.getKey() + " could not be created: ");
+            failure.getValue().printStackTrace();
+        }
+    }
+
+    /**
+     * This method is used to create a tar.gz file containing the generated files.
+     * The archive is created inside the source directory but is not added to itself
+     *
+     * @param source directory containing the generated files
+     * @throws IOException if the archive cannot be created
+     */
+    private static void createTarFile(File source) throws IOException {
+        new TarGzPackager().createArchive(source.toPath(), source.toPath().resolve("testDataSet.tar.gz"));
+    }
+
     /**
      * This method is used to create a regular menus, submenus
      *
@@ -448,6 +654,13 @@ public class DataGenerator extends JFrame {
         setJeditorPaneListener(enableJEditorPaneMenutItem, mJeditorPane, mSaveEditorBtn, mCancelEditorBtn);
         viewMenu.add(enableJEditorPaneMenutItem);
 
+        //Watch configuration file item
+        mWatchMenuItem = new JCheckBoxMenuItem("Watch Configuration File");
+        mWatchMenuItem.setMnemonic(KeyEvent.VK_W);
+        mWatchMenuItem.setToolTipText("Reload the configuration file as soon as it changes");
+        watchMenuItemListener(mWatchMenuItem);
+        viewMenu.add(mWatchMenuItem);
+
         fileMenu.add(newMenuItem);
         fileMenu.add(loadMenuItem);
         fileMenu.add(saveMenuItem);
@@ -461,7 +674,9 @@ public class DataGenerator extends JFrame {
     }
 
     /**
-     * Method used to set the Action Listener to the editMenuItem object
+     * Method used to set the Action Listener to the editMenuItem object. The editor receives the loaded
+     * configuration file, or the names of the Data Items when none has been loaded. The document is built in
+     * background and replaces the one of the editor once complete
      *
      * @param editMenuItem      reference to the editMenuItem object
      * @param allDataItemsJList reference to the mAllDataItemJList object
@@ -469,12 +684,31 @@ public class DataGenerator extends JFrame {
      */
     private static void editMenuItemListener(JMenuItem editMenuItem, JList allDataItemsJList, JEditorPane jEditorPane) {
         editMenuItem.addActionListener(actionEvent -> {
-            for (int i = 0; i < allDataItemsJList.getModel().getSize(); i++) {
-                System.out.println("CHECK: " + allDataItemsJList.getModel().getElementAt(i).toString());
-                String str = jEditorPane.getText();
-                str += allDataItemsJList.getModel().getElementAt(i).toString() + "\n";
-                jEditorPane.setText(str);
-            }
+            Path catalogPath = mCatalogPath;
+            ListModel names = allDataItemsJList.getModel();
+            editMenuItem.setEnabled(false);
+            new SwingWorker<Document, Void>() {
+                @Override
+                protected Document doInBackground() throws Exception {
+                    return catalogPath != null ? ConfigurationDocuments.read(catalogPath)
+                            : ConfigurationDocuments.fromNames(names);
+                }
+
+                @Override
+                protected void done() {
+                    editMenuItem.setEnabled(jEditorPane.isVisible());
+                    try {
+                        jEditorPane.setDocument(get());
+                    } catch (ExecutionException e) {
+                        e.getCause().printStackTrace();
+                        JOptionPane.showMessageDialog(jEditorPane,
+                                "The configuration file cannot be read: " + e.getCause().getMessage(), "Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }.execute();
         });
     }
 
@@ -505,18 +739,7 @@ public class DataGenerator extends JFrame {
         saveMenuItem.addActionListener(actionEvent -> {
 
             if (mJeditorPane.isVisible()) {
-                mFileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
-                int ret = mFileChooser.showSaveDialog(DataGenerator.this);
-                if (ret == JFileChooser.APPROVE_OPTION) {
-                    File selectedPath = mFileChooser.getSelectedFile();
-
-                    try {
-                        Files.write(selectedPath.toPath(), mJeditorPane.getText().getBytes());
-
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }
+                saveEditorContent();
             }
         });
     }
@@ -562,6 +785,93 @@ public class DataGenerator extends JFrame {
         });
     }
 
+    /**
+     * Method defines a listener for the Watch Configuration File item. While it is selected the configuration file
+     * (the one loaded, or resources/ListDataItem.cnf if none) is reloaded as soon as it changes
+     *
+     * @param watchMenuItem reference to the watchMenuItem object
+     */
+    private void watchMenuItemListener(JCheckBoxMenuItem watchMenuItem) {
+        watchMenuItem.addItemListener(event -> {
+            mWatchCatalog = event.getStateChange() == ItemEvent.SELECTED;
+            if (mWatchCatalog && mCatalogPath == null) {
+                readDataItemConfigurationFile();
+                setContentDataItemJList(mAllDataItemsJList);
+            }
+            watchCatalog();
+        });
+    }
+
+    /**
+     * Method used to watch the current configuration file when the watch mode is enabled. The watcher of the
+     * previous file, if any, is stopped. When the file cannot be watched the error is displayed and the watch mode
+     * is disabled
+     */
+    private void watchCatalog() {
+        if (mCatalogWatcher != null) {
+            try {
+                mCatalogWatcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            mCatalogWatcher = null;
+        }
+        if (!mWatchCatalog || mCatalogPath == null) {
+            return;
+        }
+        Path catalogPath = mCatalogPath;
+        try {
+            mCatalogWatcher = new CatalogWatcher(catalogPath, mCatalog, new CatalogWatcher.Listener() {
+                @Override
+                public void catalogChanged(CatalogDiff diff, CatalogErrors errors) {
+                    SwingUtilities.invokeLater(() -> applyCatalogChanges(diff, errors));
+                }
+
+                @Override
+                public void reloadFailed(Exception e) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(DataGenerator.this,
+                            "Cannot reload " + catalogPath.getFileName() + ": " + e.getMessage()
+                                    + "\nThe previous list of Data Items is kept", "Warning",
+                            JOptionPane.WARNING_MESSAGE));
+                }
+            });
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Cannot watch " + catalogPath.getFileName() + ": " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            // Unselecting the item disables the watch mode through its listener
+            mWatchMenuItem.setSelected(false);
+        }
+    }
+
+    /**
+     * Method used to apply the changes of the watched configuration file to the lists. Only the Data Items added,
+     * removed and resized are updated: the selections and the scroll positions are kept
+     *
+     * @param diff   changes between mCatalog and the reloaded configuration file
+     * @param errors wrong entries of the reloaded configuration file
+     */
+    private void applyCatalogChanges(CatalogDiff diff, CatalogErrors errors) {
+        if (diff.getPrevious() != mCatalog) {
+            // Another configuration file has been loaded in the meantime
+            return;
+        }
+        mCatalog = diff.getCurrent();
+        mSelectedItemsOnTheLeftList.update(diff);
+        if (mAllDataItemsJList.getModel() instanceof CatalogListModel) {
+            ((CatalogListModel) mAllDataItemsJList.getModel()).update(diff);
+            String longestName = mCatalog.isEmpty() ? null : mCatalog.getName(mCatalog.getLongestName());
+            if (!Objects.equals(longestName, mAllDataItemsJList.getPrototypeCellValue())) {
+                mAllDataItemsJList.setPrototypeCellValue(longestName);
+            }
+        } else {
+            setContentDataItemJList(mAllDataItemsJList);
+        }
+        if (!errors.isEmpty()) {
+            System.err.print("Wrong entry/ies in " + mCatalogPath.getFileName() + "\n"
+                    + errors.summary(MAX_REPORTED_ERRORS));
+        }
+    }
+
     /**
      * Method defines a listener for the Load sub-menu
      * Through this sub-menu it is possible to load whatever file
@@ -572,52 +882,41 @@ public class DataGenerator extends JFrame {
     private void loadMenuListener(JMenuItem loadMenuItem, JList allDataItemsJList) {
         loadMenuItem.addActionListener(actionEvent -> {
 
-            List<String> wrongItems = new ArrayList<>();
+            CatalogErrors errors = new CatalogErrors();
 
-            //Clear the Data Items map just to be sure that the previous elements are removed
-            mDataItemMap.clear();
+            //Clear the catalog just to be sure that the previous elements are removed
+            mCatalog = Catalog.EMPTY;
+            mSelectedItemsOnTheLeftList.setCatalog(mCatalog);
 
             //Check whether the JList on the left contains elements and in case delete them
-            if (((ListModel) allDataItemsJList.getModel()).getSize() != 0) {
-                allDataItemsJList.setListData(new Object[0]);
+            if (allDataItemsJList.getModel().getSize() != 0) {
+                setContentDataItemJList(allDataItemsJList);
             }
 
             //Open the OpenDialog to choose the new configuration file
+            mFileChooser.setFileSelectionMode(JFileChooser.FILES_ONLY);
             int ret = mFileChooser.showOpenDialog(DataGenerator.this);
             if (ret == JFileChooser.APPROVE_OPTION) {
                 File file = mFileChooser.getSelectedFile();
 
-                Pattern pattern = Pattern.compile(mRegex);
-
                 // Fill in a Map with the key equals to the Data Item name and the value equals to a DataItem object
                 // representing the data item read from the resource file
-                try (Stream<String> lines = Files.lines(Paths.get(file.toURI()))) {
-                    lines.forEach(line -> {
-                        if (pattern.matcher(line).find()) {
-                            // split the String line (Ex: P4_1A_HR_____:10) into two strings. The first one containing the
-                            // data item name and the second one the dimension
-                            String[] tmp = line.split(":");
-                            mDataItemMap.put(tmp[0], new DataItem(tmp[0], Double.valueOf(tmp[1])));
-                        } else {
-                            wrongItems.add(line);
-                            System.out.println("WRONG FORMAT");
-                        }
-                    });
+                try {
+                    mCatalog = CatalogCache.open(file.toPath(), errors);
+                    mCatalogPath = file.toPath();
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
+                watchCatalog();
+                mSelectedItemsOnTheLeftList.setCatalog(mCatalog);
 
                 setContentDataItemJList(mAllDataItemsJList);
 
 
-                if (!wrongItems.isEmpty()) {
-                    String message = "";
-                    for (String str : wrongItems) {
-                        message += "\n" + str;
-                    }
-
+                if (!errors.isEmpty()) {
                     JOptionPane.showMessageDialog(this,
-                            "Wrong entry/ies in in the loaded file \n" + message,
+                            errors.size() + " wrong entry/ies in the loaded file \n\n"
+                                    + errors.summary(MAX_REPORTED_ERRORS),
                             "Warning", JOptionPane.WARNING_MESSAGE);
                 }
 
@@ -631,6 +930,12 @@ public class DataGenerator extends JFrame {
      * @param args
      */
     public static void main(String[] args) {
+        // A window cannot be created on headless machines: the command line interface is used instead
+        if (GraphicsEnvironment.isHeadless()) {
+            GeneratorCli.main(args);
+            return;
+        }
+
         JFrame frame = new JFrame("DataGenerator");
         DataGenerator dataGenerator = new DataGenerator();
         frame.setContentPane(dataGenerator.mMainPane);
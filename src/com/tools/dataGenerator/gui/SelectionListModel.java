@@ -0,0 +1,197 @@
+package com.tools.dataGenerator.gui;
+
+import com.tools.dataGenerator.catalog.Catalog;
+import com.tools.dataGenerator.catalog.CatalogDiff;
+import com.tools.dataGenerator.catalog.DataItem;
+
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is the model of the JList listing the Data Items selected to be generated.
+ * <p>
+ * The Data Items are kept in insertion order as their indexes in the Catalog, indexed by a bit set, so that
+ * checking whether a Data Item is already selected costs O(1) and the selection holds no copy of the names.
+ * Adding, removing and clearing many Data Items are single operations firing one event for the whole interval
+ * instead of one per Data Item.
+ */
+@SuppressWarnings("serial") // Swing model, never serialized
+public class SelectionListModel extends AbstractListModel<String> {
+
+    private Catalog mCatalog = Catalog.EMPTY;
+    private int[] mItems = new int[16];
+    private int mSize;
+    private final BitSet mIndex = new BitSet();
+
+    @Override
+    public int getSize() {
+        return mSize;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return mCatalog.getName(mItems[index]);
+    }
+
+    public Catalog getCatalog() {
+        return mCatalog;
+    }
+
+    /**
+     * Method used to change the catalog the Data Items are selected from. The selection is cleared
+     *
+     * @param catalog the catalog
+     */
+    public void setCatalog(Catalog catalog) {
+        clear();
+        mCatalog = catalog;
+    }
+
+    /**
+     * Method used to replace the catalog by a new version of it. The Data Items still in the catalog stay selected,
+     * in the same order; the ones removed from the catalog are removed from the selection
+     *
+     * @param diff the changes between the current catalog of the model and its new version
+     */
+    public void update(CatalogDiff diff) {
+        int[] positions = new int[mSize];
+        int removed = 0;
+        for (int i = 0; i < mSize; i++) {
+            if (diff.getNewIndex(mItems[i]) < 0) {
+                positions[removed++] = i;
+            }
+        }
+        removeAll(Arrays.copyOf(positions, removed));
+        // The names of the Data Items kept do not change: only their indexes in the catalog
+        mIndex.clear();
+        for (int i = 0; i < mSize; i++) {
+            mItems[i] = diff.getNewIndex(mItems[i]);
+            mIndex.set(mItems[i]);
+        }
+        mCatalog = diff.getCurrent();
+    }
+
+    /**
+     * @return the selected Data Items, in insertion order. The selection is copied: later changes are not seen
+     */
+    public Iterable<DataItem> getDataItems() {
+        Catalog catalog = mCatalog;
+        int[] items = Arrays.copyOf(mItems, mSize);
+        return () -> new Iterator<DataItem>() {
+            private int mNext;
+
+            @Override
+            public boolean hasNext() {
+                return mNext < items.length;
+            }
+
+            @Override
+            public DataItem next() {
+                if (mNext >= items.length) {
+                    throw new NoSuchElementException();
+                }
+                return catalog.get(items[mNext++]);
+            }
+        };
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * @param item index of the Data Item in the catalog
+     */
+    public boolean contains(int item) {
+        return mIndex.get(item);
+    }
+
+    /**
+     * Method used to add a Data Item at the end of the selection, if not already selected
+     *
+     * @param item index of the Data Item in the catalog
+     */
+    public void add(int item) {
+        if (!mIndex.get(item)) {
+            append(item);
+            fireIntervalAdded(this, mSize - 1, mSize - 1);
+        }
+    }
+
+    /**
+     * Method used to add every Data Item of the catalog at the end of the selection. The Data Items already
+     * selected are skipped
+     */
+    public void addAll() {
+        int first = mSize;
+        for (int item = mIndex.nextClearBit(0); item < mCatalog.size(); item = mIndex.nextClearBit(item + 1)) {
+            append(item);
+        }
+        if (mSize > first) {
+            fireIntervalAdded(this, first, mSize - 1);
+        }
+    }
+
+    /**
+     * Method used to remove several Data Items from the selection in a single pass
+     *
+     * @param positions positions of the Data Items to remove in the selection, in ascending order
+     *                  (Ex: JList.getSelectedIndices)
+     */
+    public void removeAll(int[] positions) {
+        if (positions.length == 0) {
+            return;
+        }
+        int oldSize = mSize;
+        int firstChanged = positions[0];
+        int size = firstChanged;
+        int next = 0;
+        for (int i = firstChanged; i < oldSize; i++) {
+            if (next < positions.length && positions[next] == i) {
+                mIndex.clear(mItems[i]);
+                next++;
+            } else {
+                mItems[size++] = mItems[i];
+            }
+        }
+        mSize = size;
+        fireIntervalRemoved(this, size, oldSize - 1);
+        if (firstChanged < size) {
+            fireContentsChanged(this, firstChanged, size - 1);
+        }
+    }
+
+    /**
+     * Method used to remove the last Data Item added to the selection
+     */
+    public void removeLast() {
+        if (mSize > 0) {
+            int last = --mSize;
+            mIndex.clear(mItems[last]);
+            fireIntervalRemoved(this, last, last);
+        }
+    }
+
+    /**
+     * Method used to remove every Data Item from the selection
+     */
+    public void clear() {
+        if (mSize > 0) {
+            int last = mSize - 1;
+            mSize = 0;
+            mIndex.clear();
+            fireIntervalRemoved(this, 0, last);
+        }
+    }
+
+    private void append(int item) {
+        if (mSize == mItems.length) {
+            mItems = Arrays.copyOf(mItems, mSize + (mSize >> 1));
+        }
+        mItems[mSize++] = item;
+        mIndex.set(item);
+    }
+}
@@ -0,0 +1,176 @@
+package com.tools.dataGenerator.packaging;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * This enum lists the archive formats the Data Items can be generated into, and creates their streams and entries.
+ * <p>
+ * The tar formats support sparse entries (PAX format 1.0, as written by GNU tar): an entry without content is
+ * stored as a map of its data segments, whatever its size, and extracted by GNU tar and bsdtar as a sparse file.
+ */
+public enum ArchiveFormat {
+    TAR(".tar"),
+    TAR_GZ(".tar.gz", ".tgz"),
+    ZIP(".zip");
+
+    /**
+     * Directory prepended by GNU tar to the name of the sparse entries, so that the readers that do not support
+     * them extract the map of the data segments under another name instead of a corrupted file
+     */
+    private static final String SPARSE_DIRECTORY = "GNUSparseFile.0/";
+
+    private final String[] mExtensions;
+
+    ArchiveFormat(String... extensions) {
+        mExtensions = extensions;
+    }
+
+    /**
+     * Method used to find the format of an archive from its file name
+     *
+     * @param archive path of the archive (Ex: testDataSet.tar.gz)
+     * @return the format matching the extension of the file name
+     * @throws IllegalArgumentException if the extension is not supported
+     */
+    public static ArchiveFormat fromFileName(Path archive) {
+        String name = archive.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (ArchiveFormat format : values()) {
+            for (String extension : format.mExtensions) {
+                if (name.endsWith(extension)) {
+                    return format;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported archive format, expected .tar, .tar.gz, .tgz or .zip: "
+                + archive.getFileName());
+    }
+
+    /**
+     * @return true if the format can store an entry without content as a sparse entry (see putSparseEntry)
+     */
+    public boolean supportsSparseEntries() {
+        return this != ZIP;
+    }
+
+    /**
+     * Method used to create the stream of a new archive
+     *
+     * @param file    the file of the archive, replaced if it exists
+     * @param threads number of threads compressing the tar.gz archives (see ParallelGzipOutputStream)
+     * @return the stream of the archive
+     * @throws IOException if the file cannot be created
+     */
+    public ArchiveOutputStream open(Path file, int threads) throws IOException {
+        if (this == ZIP) {
+            // Written through a random access file: the sizes and CRC are written back into the local headers
+            ZipArchiveOutputStream zipOs = new ZipArchiveOutputStream(file.toFile());
+            zipOs.setUseZip64(Zip64Mode.AsNeeded);
+            return zipOs;
+        }
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+        if (this == TAR_GZ) {
+            out = new ParallelGzipOutputStream(out, threads, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE,
+                    2 * threads, Deflater.DEFAULT_COMPRESSION);
+        }
+        TarArchiveOutputStream tarOs = new TarArchiveOutputStream(out);
+        tarOs.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tarOs.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        return tarOs;
+    }
+
+    /**
+     * Method used to create the entry of a file
+     *
+     * @param name         name of the entry
+     * @param size         size of the content in bytes
+     * @param modTime      modification time in milliseconds since the epoch
+     * @param compressible false to store the content of a zip entry without compressing it
+     * @return the entry, to put into a stream created by open
+     */
+    public ArchiveEntry newEntry(String name, long size, long modTime, boolean compressible) {
+        if (this == ZIP) {
+            ZipArchiveEntry entry = new ZipArchiveEntry(name);
+            entry.setSize(size);
+            entry.setTime(modTime);
+            entry.setMethod(compressible ? ZipEntry.DEFLATED : ZipEntry.STORED);
+            return entry;
+        }
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(size);
+        entry.setModTime(modTime);
+        return entry;
+    }
+
+    /**
+     * Method used to add a sparse entry whose content is only zeros: a single empty data segment at the end of the
+     * file. Only the header and the map of the segments are written, whatever the size of the entry
+     *
+     * @param out     a stream created by open
+     * @param name    name of the entry, as extracted
+     * @param size    size of the entry in bytes
+     * @param modTime modification time in milliseconds since the epoch
+     * @throws IOException                   if the entry cannot be written
+     * @throws UnsupportedOperationException if the format does not support sparse entries
+     */
+    public void putSparseEntry(ArchiveOutputStream out, String name, long size, long modTime) throws IOException {
+        if (!supportsSparseEntries()) {
+            throw new UnsupportedOperationException("Sparse entries are not supported by the " + this + " format");
+        }
+        // Number of segments, then offset and length of each segment, padded to a record
+        byte[] map = ("1\n" + size + "\n0\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] record = new byte[TarConstants.DEFAULT_RCDSIZE];
+        System.arraycopy(map, 0, record, 0, map.length);
+
+        int slash = name.lastIndexOf('/');
+        SparseTarEntry entry = new SparseTarEntry(name.substring(0, slash + 1) + SPARSE_DIRECTORY
+                + name.substring(slash + 1));
+        entry.setSize(record.length);
+        entry.setModTime(modTime);
+        entry.mPaxHeaders.put("GNU.sparse.major", "1");
+        entry.mPaxHeaders.put("GNU.sparse.minor", "0");
+        entry.mPaxHeaders.put("GNU.sparse.name", name);
+        entry.mPaxHeaders.put("GNU.sparse.realsize", Long.toString(size));
+        out.putArchiveEntry(entry);
+        out.write(record);
+        out.closeArchiveEntry();
+    }
+
+    /**
+     * Tar entry carrying the PAX headers of a sparse file. TarArchiveEntry.addPaxHeader interprets the GNU.sparse
+     * headers as when reading an archive, and cannot hold a real size above 2 GiB: the headers are given to the
+     * TarArchiveOutputStream without being interpreted
+     */
+    private static final class SparseTarEntry extends TarArchiveEntry {
+
+        private final Map<String, String> mPaxHeaders = new LinkedHashMap<>();
+
+        private SparseTarEntry(String name) {
+            super(name);
+        }
+
+        @Override
+        public Map<String, String> getExtraPaxHeaders() {
+            return Collections.unmodifiableMap(mPaxHeaders);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.tools.dataGenerator.packaging;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * This class is an output stream compressing the data written into it in the gzip format using several threads.
+ * <p>
+ * The data is split into blocks and each block is compressed, in parallel, into an independent gzip member. The
+ * members are written in order: the concatenation of gzip members is itself a valid gzip file that can be read by
+ * gunzip or GZIPInputStream.
+ * <p>
+ * The blocks are recycled: at most maxBlocks blocks (input data plus compressed data) are allocated, whatever the
+ * amount of data written. When every block is in use the writer waits for the oldest block to be compressed.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    /**
+     * Default size of the blocks compressed in parallel: 1 MiB
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    /**
+     * Header of every gzip member: magic number, deflate method, no flag, no modification time, no extra flag,
+     * unknown OS
+     */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private final OutputStream mOut;
+    private final ExecutorService mExecutor;
+    private final int mBlockSize;
+    private final int mLevel;
+    private final int mMaxBlocks;
+
+    private final Deque<Block> mFreeBlocks = new ArrayDeque<>();
+    private final Deque<Future<Block>> mPendingBlocks = new ArrayDeque<>();
+    private int mAllocatedBlocks;
+    private Block mCurrent;
+    private boolean mMemberWritten;
+    private boolean mClosed;
+
+    /**
+     * Constructor
+     *
+     * @param out     stream receiving the compressed data
+     * @param threads number of threads compressing the blocks
+     */
+    public ParallelGzipOutputStream(OutputStream out, int threads) {
+        this(out, threads, DEFAULT_BLOCK_SIZE, 2 * threads, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param out       stream receiving the compressed data
+     * @param threads   number of threads compressing the blocks
+     * @param blockSize size of the uncompressed blocks
+     * @param maxBlocks maximum number of blocks in memory. It bounds the memory used by the stream to about
+     *                  2 * maxBlocks * blockSize
+     * @param level     compression level, from 0 to 9
+     */
+    public ParallelGzipOutputStream(OutputStream out, int threads, int blockSize, int maxBlocks, int level) {
+        if (threads < 1 || blockSize < 1 || maxBlocks < 1) {
+            throw new IllegalArgumentException("Threads, block size and number of blocks must be positive");
+        }
+        mOut = out;
+        mBlockSize = blockSize;
+        mMaxBlocks = maxBlocks;
+        mLevel = level;
+
+        AtomicInteger counter = new AtomicInteger();
+        mExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gzip-compressor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (mCurrent == null) {
+                mCurrent = takeFreeBlock();
+            }
+            int n = Math.min(len, mBlockSize - mCurrent.mInputLength);
+            System.arraycopy(b, off, mCurrent.mInput, mCurrent.mInputLength, n);
+            mCurrent.mInputLength += n;
+            off += n;
+            len -= n;
+            if (mCurrent.mInputLength == mBlockSize) {
+                submitCurrent();
+            }
+        }
+    }
+
+    /**
+     * Method used to compress the data written so far, and to write it to the underlying stream.
+     * Flushing ends the current gzip member: flushing too often reduces the compression ratio
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (mCurrent != null && mCurrent.mInputLength > 0) {
+            submitCurrent();
+        }
+        while (!mPendingBlocks.isEmpty()) {
+            writeOldestBlock();
+        }
+        mOut.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+        try {
+            if (mCurrent != null && mCurrent.mInputLength > 0) {
+                submitCurrent();
+            } else if (!mMemberWritten && mPendingBlocks.isEmpty()) {
+                // An empty stream must still contain one gzip member to be a valid gzip file
+                if (mCurrent == null) {
+                    mCurrent = takeFreeBlock();
+                }
+                submitCurrent();
+            }
+            while (!mPendingBlocks.isEmpty()) {
+                writeOldestBlock();
+            }
+            mOut.flush();
+        } finally {
+            mClosed = true;
+            mExecutor.shutdownNow();
+            if (mCurrent != null) {
+                mFreeBlocks.addLast(mCurrent);
+                mCurrent = null;
+            }
+            for (Block block : mFreeBlocks) {
+                block.mDeflater.end();
+            }
+            mOut.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (mClosed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Method used to hand the current block to the compressing threads
+     */
+    private void submitCurrent() {
+        Block block = mCurrent;
+        mCurrent = null;
+        mPendingBlocks.addLast(mExecutor.submit(() -> {
+            block.compress(mLevel);
+            return block;
+        }));
+    }
+
+    /**
+     * Method used to get an empty block. A new block is allocated until the budget of blocks is reached, then the
+     * blocks already compressed are written and recycled
+     */
+    private Block takeFreeBlock() throws IOException {
+        // Write the blocks already compressed, without waiting
+        while (!mPendingBlocks.isEmpty() && mPendingBlocks.peekFirst().isDone()) {
+            writeOldestBlock();
+        }
+        if (mFreeBlocks.isEmpty()) {
+            if (mAllocatedBlocks < mMaxBlocks) {
+                mAllocatedBlocks++;
+                return new Block(mBlockSize);
+            }
+            writeOldestBlock();
+        }
+        Block block = mFreeBlocks.removeFirst();
+        block.mInputLength = 0;
+        return block;
+    }
+
+    /**
+     * Method used to wait for the oldest pending block to be compressed, to write it and to recycle it
+     */
+    private void writeOldestBlock() throws IOException {
+        Block block;
+        try {
+            block = mPendingBlocks.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot compress block", e.getCause());
+        }
+        mOut.write(block.mOutput, 0, block.mOutputLength);
+        mMemberWritten = true;
+        mFreeBlocks.addLast(block);
+    }
+
+    /**
+     * This class contains the uncompressed and compressed data of a block and the objects used to compress it.
+     * A block is used by a single thread at a time
+     */
+    private static final class Block {
+        private final byte[] mInput;
+        private int mInputLength;
+        private byte[] mOutput;
+        private int mOutputLength;
+        private final Deflater mDeflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        private final CRC32 mCrc = new CRC32();
+
+        Block(int blockSize) {
+            mInput = new byte[blockSize];
+            // Deflate expands incompressible data by a few bytes per 16 KiB stored block
+            mOutput = new byte[blockSize + (blockSize >>> 10) + 64];
+        }
+
+        /**
+         * Method used to compress the input of the block into a complete gzip member
+         */
+        void compress(int level) {
+            mCrc.reset();
+            mCrc.update(mInput, 0, mInputLength);
+
+            mDeflater.reset();
+            mDeflater.setLevel(level);
+            mDeflater.setInput(mInput, 0, mInputLength);
+            mDeflater.finish();
+
+            System.arraycopy(GZIP_HEADER, 0, mOutput, 0, GZIP_HEADER.length);
+            int length = GZIP_HEADER.length;
+            while (!mDeflater.finished()) {
+                if (length == mOutput.length) {
+                    mOutput = Arrays.copyOf(mOutput, mOutput.length * 2);
+                }
+                length += mDeflater.deflate(mOutput, length, mOutput.length - length);
+            }
+            if (length + GZIP_TRAILER_LENGTH > mOutput.length) {
+                mOutput = Arrays.copyOf(mOutput, length + GZIP_TRAILER_LENGTH);
+            }
+            length = writeIntLE(mOutput, length, (int) mCrc.getValue());
+            mOutputLength = writeIntLE(mOutput, length, mInputLength);
+        }
+
+        private static int writeIntLE(byte[] buffer, int offset, int value) {
+            buffer[offset] = (byte) value;
+            buffer[offset + 1] = (byte) (value >>> 8);
+            buffer[offset + 2] = (byte) (value >>> 16);
+            buffer[offset + 3] = (byte) (value >>> 24);
+            return offset + 4;
+        }
+    }
+}
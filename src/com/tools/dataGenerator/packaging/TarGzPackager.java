@@ -0,0 +1,165 @@
+package com.tools.dataGenerator.packaging;
+
+import com.tools.dataGenerator.engine.Manifest;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * This class is used to package the content of a directory (Ex: the generated Data Items) into a tar.gz file.
+ * <p>
+ * The tar stream is compressed by a ParallelGzipOutputStream, so that all the cores are used and the memory used
+ * is bounded. The archive is written to a temporary file renamed once complete, and is never added to itself when
+ * it is created inside the packaged directory. The manifests of the generation runs (see Manifest) are not packaged.
+ */
+public class TarGzPackager {
+
+    /**
+     * Size of the buffer used to copy the content of the files into the archive: 1 MiB
+     */
+    private static final int COPY_BUFFER_SIZE = 1 << 20;
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private int mThreads = Runtime.getRuntime().availableProcessors();
+    private int mMaxBlocks = 2 * mThreads;
+
+    public int getThreads() {
+        return mThreads;
+    }
+
+    /**
+     * @param threads number of threads compressing the archive
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be at least 1: " + threads);
+        }
+        mThreads = threads;
+        mMaxBlocks = 2 * threads;
+    }
+
+    public int getMaxBlocks() {
+        return mMaxBlocks;
+    }
+
+    /**
+     * @param maxBlocks number of blocks of ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE bytes that can be compressed
+     *                  or waiting to be written at the same time
+     */
+    public void setMaxBlocks(int maxBlocks) {
+        if (maxBlocks < 1) {
+            throw new IllegalArgumentException("The number of blocks must be at least 1: " + maxBlocks);
+        }
+        mMaxBlocks = maxBlocks;
+    }
+
+    /**
+     * Method used to create a tar.gz file containing the files and the sub-directories of a directory.
+     * The names of the entries are relative to the packaged directory
+     *
+     * @param sourceDirectory directory to package
+     * @param archive         path of the tar.gz file to create. It can be inside the source directory
+     * @throws IOException if the directory cannot be read or the archive cannot be written
+     */
+    public void createArchive(Path sourceDirectory, Path archive) throws IOException {
+        Path source = sourceDirectory.toAbsolutePath().normalize();
+        Path target = archive.toAbsolutePath().normalize();
+        Path partial = target.resolveSibling(target.getFileName() + PARTIAL_SUFFIX);
+
+        List<Path> entries;
+        try (Stream<Path> paths = Files.walk(source)) {
+            List<Path> excluded = Arrays.asList(source, target, partial);
+            entries = paths.filter(path -> !excluded.contains(path))
+                    .filter(path -> !path.getFileName().toString().startsWith(Manifest.FILE_NAME))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+
+        boolean completed = false;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial));
+                 TarArchiveOutputStream tarOs = new TarArchiveOutputStream(new ParallelGzipOutputStream(out,
+                         mThreads, ParallelGzipOutputStream.DEFAULT_BLOCK_SIZE, mMaxBlocks,
+                         Deflater.DEFAULT_COMPRESSION))) {
+                tarOs.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+                tarOs.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+                byte[] copyBuffer = new byte[COPY_BUFFER_SIZE];
+                for (Path path : entries) {
+                    addEntry(tarOs, source.relativize(path), path, copyBuffer);
+                }
+                tarOs.finish();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
+    /**
+     * Method used to add a file or a directory to the archive
+     *
+     * @param tarOs      the archive
+     * @param name       relative path of the entry
+     * @param path       the file or directory to add
+     * @param copyBuffer buffer reused to copy the content of the files
+     */
+    private static void addEntry(TarArchiveOutputStream tarOs, Path name, Path path, byte[] copyBuffer)
+            throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        String entryName = name.toString().replace(path.getFileSystem().getSeparator(), "/");
+
+        if (attributes.isDirectory()) {
+            TarArchiveEntry entry = new TarArchiveEntry(entryName + "/");
+            entry.setModTime(attributes.lastModifiedTime().toMillis());
+            tarOs.putArchiveEntry(entry);
+            tarOs.closeArchiveEntry();
+            return;
+        }
+        if (!attributes.isRegularFile()) {
+            return;
+        }
+
+        long size = attributes.size();
+        TarArchiveEntry entry = new TarArchiveEntry(entryName);
+        entry.setSize(size);
+        entry.setModTime(attributes.lastModifiedTime().toMillis());
+        tarOs.putArchiveEntry(entry);
+
+        // The file is read through its channel directly into the reused buffer
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(copyBuffer);
+            long remaining = size;
+            while (remaining > 0) {
+                buffer.clear();
+                buffer.limit((int) Math.min(copyBuffer.length, remaining));
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    throw new IOException("File truncated while packaging: " + path);
+                }
+                tarOs.write(copyBuffer, 0, read);
+                remaining -= read;
+            }
+        }
+        tarOs.closeArchiveEntry();
+    }
+}
@@ -0,0 +1,108 @@
+package com.tools.dataGenerator.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CatalogCacheTest {
+
+    private static final String CONTENT = "P4_1A_HR_____:10\nWRONG\nSMALL:0.25:ratio=2.5,dup=0.3\n"
+            + "S_YYYYMMDDTHHMMSS:2:20250101T000000:20250101T000100:PT30S:PT5S\nIMG_###:lognormal(4,2):5\n"
+            + "REPEATED_##:1:12\n";
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void cachedCatalogEqualsParsedCatalog() throws IOException {
+        Path catalog = write("catalog.cnf", CONTENT);
+        CatalogErrors parsedErrors = new CatalogErrors();
+        Catalog parsed = CatalogCache.open(catalog, parsedErrors);
+        assertTrue(Files.isRegularFile(CatalogCache.getCachePath(catalog)));
+
+        CatalogErrors cachedErrors = new CatalogErrors();
+        Catalog cached = CatalogCache.open(catalog, cachedErrors);
+
+        assertEquals(5, cached.size());
+        assertEquals(parsed.size(), cached.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            DataItem expected = parsed.get(i);
+            DataItem actual = cached.get(i);
+            assertEquals(expected.getItemName(), actual.getItemName());
+            assertEquals(parsed.getSizeInBytes(i), cached.getSizeInBytes(i));
+            assertEquals(expected.getSizeInBytes(), actual.getSizeInBytes());
+            assertEquals(expected.getCount(), actual.getCount());
+            assertEquals(String.valueOf(expected.getContentProfile()), String.valueOf(actual.getContentProfile()));
+            assertEquals(String.valueOf(expected.getSizeDistribution()),
+                    String.valueOf(actual.getSizeDistribution()));
+            assertEquals(expected.getTimeSeries() == null, actual.getTimeSeries() == null);
+        }
+        assertEquals(2, cached.get("S_YYYYMMDDTHHMMSS").getTimeSeries().getCount());
+        assertEquals(12, cached.get("REPEATED_##").getCount());
+        assertEquals(1, cachedErrors.size());
+        assertEquals(parsedErrors.format(0), cachedErrors.format(0));
+    }
+
+    @Test
+    void cacheIsUsedWhileTheFileIsUnchanged() throws IOException {
+        Path catalog = write("catalog.cnf", "FIRST:1\n");
+        FileTime modified = Files.getLastModifiedTime(catalog);
+        assertEquals("FIRST", CatalogCache.open(catalog, new CatalogErrors()).getName(0));
+
+        // Same size and same modification time: the cache cannot tell the difference
+        write("catalog.cnf", "OTHER:1\n");
+        Files.setLastModifiedTime(catalog, modified);
+        assertEquals("FIRST", CatalogCache.open(catalog, new CatalogErrors()).getName(0));
+
+        write("catalog.cnf", "CHANGED:1\n");
+        assertEquals("CHANGED", CatalogCache.open(catalog, new CatalogErrors()).getName(0));
+    }
+
+    @Test
+    void damagedCacheIsWrittenAgain() throws IOException {
+        Path catalog = write("catalog.cnf", CONTENT);
+        CatalogCache.open(catalog, new CatalogErrors());
+        Path cache = CatalogCache.getCachePath(catalog);
+        byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length / 2));
+
+        Catalog catalogRead = CatalogCache.open(catalog, new CatalogErrors());
+
+        assertEquals(5, catalogRead.size());
+        assertEquals(bytes.length, Files.size(cache));
+    }
+
+    @Test
+    void cacheOfReadOnlyCatalogIsReadableByItsOwner() throws IOException {
+        assumeTrue(mDirectory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Path catalog = write("catalog.cnf", CONTENT);
+        Files.setPosixFilePermissions(catalog, PosixFilePermissions.fromString("r--r--r--"));
+        CatalogCache.open(catalog, new CatalogErrors());
+
+        Path cache = CatalogCache.getCachePath(catalog);
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(cache);
+        assertEquals(PosixFilePermissions.fromString("r--r--r--"), permissions);
+        Catalog cached = CatalogCache.open(catalog, new CatalogErrors());
+        assertNotNull(cached.get("P4_1A_HR_____"));
+        assertNull(cached.get("WRONG"));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(mDirectory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package com.tools.dataGenerator.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogDiffTest {
+
+    @Test
+    void findsAddedRemovedAndResizedItems() {
+        Catalog previous = catalog("D:4", "A:1", "C:3", "B:2");
+        Catalog current = catalog("E:1", "A:1", "BB:1", "B:5", "D:4");
+
+        CatalogDiff diff = CatalogDiff.compute(previous, current);
+
+        assertSame(previous, diff.getPrevious());
+        assertSame(current, diff.getCurrent());
+        assertArrayEquals(new int[]{current.indexOf("BB"), current.indexOf("E")}, diff.getAdded());
+        assertArrayEquals(new int[]{previous.indexOf("C")}, diff.getRemoved());
+        assertArrayEquals(new int[]{current.indexOf("B")}, diff.getResized());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    void remapsTheIndexesOfTheItemsKept() {
+        Random random = new Random(3);
+        Catalog.Builder previousBuilder = new Catalog.Builder();
+        Catalog.Builder currentBuilder = new Catalog.Builder();
+        for (int i = 0; i < 20_000; i++) {
+            String name = "S6A_RO_1B_" + random.nextInt(1_000_000) + ".SEN6";
+            int choice = random.nextInt(10);
+            if (choice != 0) {
+                previousBuilder.add(new DataItem(name, 1));
+            }
+            if (choice != 1) {
+                currentBuilder.add(new DataItem(name, choice == 2 ? 2 : 1));
+            }
+        }
+        Catalog previous = previousBuilder.build();
+        Catalog current = currentBuilder.build();
+
+        CatalogDiff diff = CatalogDiff.compute(previous, current);
+
+        int removed = 0;
+        for (int i = 0; i < previous.size(); i++) {
+            int expected = current.indexOf(previous.getName(i));
+            assertEquals(expected, diff.getNewIndex(i));
+            removed += expected < 0 ? 1 : 0;
+        }
+        assertEquals(removed, diff.getRemoved().length);
+        for (int index : diff.getAdded()) {
+            assertFalse(previous.contains(current.getName(index)));
+        }
+        for (int index : diff.getResized()) {
+            String name = current.getName(index);
+            assertTrue(previous.getSizeInBytes(previous.indexOf(name)) != current.getSizeInBytes(index));
+        }
+        assertEquals(previous.size() - removed + diff.getAdded().length, current.size());
+    }
+
+    @Test
+    void sameCatalogHasNoChange() {
+        Catalog catalog = catalog("A:1", "B:2");
+        assertTrue(CatalogDiff.compute(catalog, catalog("B:2", "A:1")).isEmpty());
+        assertTrue(CatalogDiff.compute(Catalog.EMPTY, Catalog.EMPTY).isEmpty());
+        assertEquals(2, CatalogDiff.compute(Catalog.EMPTY, catalog).getAdded().length);
+    }
+
+    /**
+     * @return a catalog of the given NAME:DIMENSION entries
+     */
+    private static Catalog catalog(String... entries) {
+        Catalog.Builder builder = new Catalog.Builder();
+        for (String entry : entries) {
+            String[] fields = entry.split(":");
+            builder.add(new DataItem(fields[0], Double.parseDouble(fields[1])));
+        }
+        return builder.build();
+    }
+}
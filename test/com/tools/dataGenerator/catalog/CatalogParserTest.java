@@ -0,0 +1,111 @@
+package com.tools.dataGenerator.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogParserTest {
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void parsesPlainAndTimeSeriesItems() throws IOException {
+        Path catalog = write("P4_1A_HR_____:10\r\n\n  \nSMALL:0.25\n"
+                + "S_YYYYMMDDTHHMMSS:2:20250101T000000:20250101T000100:PT30S:PT5S\n");
+        List<DataItem> items = new ArrayList<>();
+
+        CatalogErrors errors = CatalogParser.parse(catalog, items::add);
+
+        assertEquals(1, errors.size());
+        assertEquals(3, errors.getLine(0));
+        assertEquals(CatalogErrors.Reason.MISSING_SEPARATOR, errors.getReason(0));
+        assertEquals(3, items.size());
+        assertEquals("P4_1A_HR_____", items.get(0).getItemName());
+        assertEquals(10 * DataItem.SIZE_MB, items.get(0).getSizeInBytes());
+        assertNull(items.get(0).getTimeSeries());
+        assertEquals(250_000, items.get(1).getSizeInBytes());
+        TimeSeries timeSeries = items.get(2).getTimeSeries();
+        assertNotNull(timeSeries);
+        assertEquals(2, timeSeries.getCount());
+    }
+
+    @Test
+    void reportsLineColumnAndReason() throws IOException {
+        Path catalog = write("NOSEP\n:1\nA:1:2:3\nA:x\nA:1:a:b:c:d:e\nPLAIN:1:20250101T000000:20250101T000100:PT30S\n"
+                + "A_YYYYMMDDTHHMMSS:1:20250101T000000:20250101T000005:PT1.5S\nB:1:x\nB:1:3\nB:1:ratio=x\n"
+                + "B:lognormal(x):2\nVALID:1\nIMG_###:0.5:3\n");
+        List<DataItem> items = new ArrayList<>();
+
+        CatalogErrors errors = CatalogParser.parse(catalog, items::add);
+
+        assertEquals(2, items.size());
+        assertEquals(3, items.get(1).getCount());
+        assertEquals(11, errors.size());
+        assertError(errors, 0, 1, 6, CatalogErrors.Reason.MISSING_SEPARATOR);
+        assertError(errors, 1, 2, 1, CatalogErrors.Reason.EMPTY_NAME);
+        assertError(errors, 2, 3, 6, CatalogErrors.Reason.INVALID_FIELD_COUNT);
+        assertError(errors, 3, 4, 3, CatalogErrors.Reason.INVALID_DIMENSION);
+        assertError(errors, 4, 5, 12, CatalogErrors.Reason.INVALID_FIELD_COUNT);
+        assertError(errors, 5, 6, 1, CatalogErrors.Reason.MISSING_PLACEHOLDER);
+        assertError(errors, 6, 7, 21, CatalogErrors.Reason.INVALID_TIME_SERIES);
+        assertError(errors, 7, 8, 5, CatalogErrors.Reason.INVALID_COUNT);
+        assertError(errors, 8, 9, 1, CatalogErrors.Reason.MISSING_INDEX_PLACEHOLDER);
+        assertError(errors, 9, 10, 5, CatalogErrors.Reason.INVALID_CONTENT_PROFILE);
+        assertError(errors, 10, 11, 3, CatalogErrors.Reason.INVALID_DISTRIBUTION);
+    }
+
+    @Test
+    void parallelParsingKeepsTheOrderAndTheLineNumbers() throws IOException {
+        // Larger than the parallel threshold, with an error every 1000 lines
+        Path catalog = mDirectory.resolve("large.cnf");
+        int lines = 600_000;
+        try (Writer writer = Files.newBufferedWriter(catalog, StandardCharsets.US_ASCII)) {
+            for (int i = 1; i <= lines; i++) {
+                writer.write(i % 1000 == 0 ? "WRONG_" + i + "\n" : "ITEM_" + i + ":" + (i % 7) + ".5\n");
+            }
+        }
+        assertTrue(Files.size(catalog) > 8L << 20);
+
+        List<DataItem> sequentialItems = new ArrayList<>();
+        CatalogErrors sequentialErrors = CatalogParser.parse(catalog, 1, sequentialItems::add);
+        List<DataItem> parallelItems = new ArrayList<>();
+        CatalogErrors parallelErrors = CatalogParser.parse(catalog, 4, parallelItems::add);
+
+        assertEquals(lines - lines / 1000, parallelItems.size());
+        assertEquals(sequentialItems.size(), parallelItems.size());
+        for (int i = 0; i < parallelItems.size(); i++) {
+            assertEquals(sequentialItems.get(i).getItemName(), parallelItems.get(i).getItemName());
+            assertEquals(sequentialItems.get(i).getSizeInBytes(), parallelItems.get(i).getSizeInBytes());
+        }
+        assertEquals(lines / 1000, parallelErrors.size());
+        for (int i = 0; i < parallelErrors.size(); i++) {
+            assertEquals((i + 1) * 1000, parallelErrors.getLine(i));
+            assertEquals(sequentialErrors.getLine(i), parallelErrors.getLine(i));
+            assertEquals(sequentialErrors.getColumn(i), parallelErrors.getColumn(i));
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.write(mDirectory.resolve("catalog.cnf"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertError(CatalogErrors errors, int index, int line, int column,
+                                    CatalogErrors.Reason reason) {
+        assertEquals(line, errors.getLine(index), () -> errors.format(index));
+        assertEquals(column, errors.getColumn(index), () -> errors.format(index));
+        assertEquals(reason, errors.getReason(index), () -> errors.format(index));
+    }
+}
@@ -0,0 +1,49 @@
+package com.tools.dataGenerator.checksum;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Crc32cTest {
+
+    @Test
+    void combineEqualsTheCrcOfTheConcatenation() {
+        byte[] data = new byte[100_000];
+        new Random(7).nextBytes(data);
+        int[] splits = {0, 1, 7, 4096, 65_536, 99_999, 100_000};
+        for (int split : splits) {
+            int combined = Crc32c.combine(crc(data, 0, split), crc(data, split, data.length - split),
+                    data.length - split);
+            assertEquals(crc(data, 0, data.length), combined, "split at " + split);
+        }
+    }
+
+    @Test
+    void combineOfManyChunksEqualsTheCrcOfTheFile() {
+        byte[] data = new byte[1 << 20];
+        new Random(11).nextBytes(data);
+        int chunkSize = 100_000;
+        int crc = 0;
+        for (int offset = 0; offset < data.length; offset += chunkSize) {
+            int length = Math.min(chunkSize, data.length - offset);
+            crc = Crc32c.combine(crc, crc(data, offset, length), length);
+        }
+        assertEquals(crc(data, 0, data.length), crc);
+    }
+
+    @Test
+    void toHexUsesEightLowerCaseDigits() {
+        assertEquals("00000000", Crc32c.toHex(0));
+        assertEquals("0000abcd", Crc32c.toHex(0xabcd));
+        assertEquals("e3069283", Crc32c.toHex(crc("123456789".getBytes(), 0, 9)));
+    }
+
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
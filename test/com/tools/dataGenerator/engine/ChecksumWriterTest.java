@@ -0,0 +1,57 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChecksumWriterTest {
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void perFileChecksumsUseTheMd5sumFormat() throws IOException {
+        try (ChecksumWriter writer = new ChecksumWriter(mDirectory, ChecksumOutput.PER_FILE, true)) {
+            writer.write(new DataItem("A", 1), Collections.singletonMap(ChecksumAlgorithm.MD5, "0123"));
+        }
+        assertEquals(Collections.singletonList("0123  A"), Files.readAllLines(mDirectory.resolve("A.md5")));
+    }
+
+    @Test
+    void sidecarKeepsTheLastLineOfEachItem() throws IOException {
+        try (ChecksumWriter writer = new ChecksumWriter(mDirectory, ChecksumOutput.SIDECAR, false)) {
+            write(writer, "A", "aaaa");
+            write(writer, "B", "bbbb");
+            write(writer, "C", "cccc");
+        }
+        // Second run regenerating B only
+        try (ChecksumWriter writer = new ChecksumWriter(mDirectory, ChecksumOutput.SIDECAR, false)) {
+            write(writer, "B", "1111");
+        }
+
+        Path sidecar = mDirectory.resolve(ChecksumAlgorithm.MD5.getSidecarName());
+        assertEquals(Arrays.asList("aaaa  A", "cccc  C", "1111  B"),
+                Files.readAllLines(sidecar, StandardCharsets.UTF_8));
+
+        // Third run regenerating nothing already listed
+        try (ChecksumWriter writer = new ChecksumWriter(mDirectory, ChecksumOutput.SIDECAR, false)) {
+            write(writer, "D", "dddd");
+        }
+        assertEquals(Arrays.asList("aaaa  A", "cccc  C", "1111  B", "dddd  D"),
+                Files.readAllLines(sidecar, StandardCharsets.UTF_8));
+    }
+
+    private static void write(ChecksumWriter writer, String name, String checksum) throws IOException {
+        writer.write(new DataItem(name, 1), Collections.singletonMap(ChecksumAlgorithm.MD5, checksum));
+    }
+}
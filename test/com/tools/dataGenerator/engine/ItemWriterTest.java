@@ -0,0 +1,99 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import com.tools.dataGenerator.checksum.Crc32c;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemWriterTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void checksumsOfChunksWrittenOutOfOrder() throws Exception {
+        assertChecksums(ContentMode.RANDOM, false, new int[]{3, 1, 0, 2});
+    }
+
+    @Test
+    void checksumsOfChunksWrittenInOrder() throws Exception {
+        assertChecksums(ContentMode.RANDOM, false, new int[]{0, 1, 2, 3});
+    }
+
+    @Test
+    void checksumsOfMemoryMappedChunks() throws Exception {
+        assertChecksums(ContentMode.RANDOM, true, new int[]{2, 0, 3, 1});
+    }
+
+    @Test
+    void checksumsOfSparseItem() throws Exception {
+        // A sparse Data Item is only extended to its size: it is written as a single chunk
+        assertChecksums(ContentMode.SPARSE, false, new int[]{0});
+    }
+
+    /**
+     * Method used to write a Data Item of 3 chunks and a partial one, in the given order, and to compare the
+     * checksums computed while writing with the ones of the file read back
+     */
+    private void assertChecksums(ContentMode contentMode, boolean memoryMapped, int[] order) throws Exception {
+        DataItem item = new DataItem("ITEM", (3 * CHUNK_SIZE + 1234) / (double) DataItem.SIZE_MB);
+        GenerationJob job = new GenerationJob(mDirectory, Collections.singletonList(item));
+        job.setContentMode(contentMode);
+        job.setMemoryMapped(memoryMapped);
+        job.setChunkSize(CHUNK_SIZE);
+        job.setChecksums(EnumSet.allOf(ChecksumAlgorithm.class));
+        Path path = mDirectory.resolve(item.getItemName());
+
+        ItemWriter writer = new ItemWriter(path, item, job, new GenerationStatistics());
+        assertEquals(order.length, writer.getChunks());
+        for (int i = 0; i < order.length; i++) {
+            boolean last = writer.writeChunk(order[i]);
+            assertEquals(i == order.length - 1, last);
+        }
+
+        byte[] content = Files.readAllBytes(path);
+        assertEquals(item.getSizeInBytes(), content.length);
+        assertTrue(contentMode == ContentMode.SPARSE || !isZero(content));
+        Map<ChecksumAlgorithm, String> checksums = writer.getChecksums();
+        assertEquals(digest("MD5", content), checksums.get(ChecksumAlgorithm.MD5));
+        assertEquals(digest("SHA-256", content), checksums.get(ChecksumAlgorithm.SHA256));
+        CRC32C crc = new CRC32C();
+        crc.update(content, 0, content.length);
+        assertEquals(Crc32c.toHex((int) crc.getValue()), checksums.get(ChecksumAlgorithm.CRC32C));
+    }
+
+    private static boolean isZero(byte[] content) {
+        for (byte b : content) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the digest of the content formatted as md5sum and sha256sum do
+     */
+    private static String digest(String algorithm, byte[] content) throws NoSuchAlgorithmException {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance(algorithm).digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package com.tools.dataGenerator.engine;
+
+import com.tools.dataGenerator.catalog.DataItem;
+import com.tools.dataGenerator.checksum.ChecksumAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ManifestTest {
+
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void completedItemSurvivesReopening() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        Path file = createFile(item);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertFalse(manifest.isComplete(item, job, file));
+            manifest.completed(item, job);
+        }
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+
+            GenerationJob otherSeed = newJob(item);
+            otherSeed.setSeed(job.getSeed() + 1);
+            assertFalse(manifest.isComplete(item, otherSeed, file));
+            assertFalse(manifest.isComplete(new DataItem("ITEM", 0.002), job, file));
+        }
+    }
+
+    @Test
+    void missingOrResizedFileIsNotComplete() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        Path file = createFile(item);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            manifest.completed(item, job);
+        }
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            Files.write(file, new byte[10]);
+            assertFalse(manifest.isComplete(item, job, file));
+            Files.delete(file);
+            assertFalse(manifest.isComplete(item, job, file));
+        }
+    }
+
+    @Test
+    void itemStartedAgainIsNotComplete() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        Path file = createFile(item);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            manifest.completed(item, job);
+        }
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            // Crash while the Data Item is overwritten: the file already has the right size
+            manifest.started(item, job);
+        }
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertFalse(manifest.isComplete(item, job, file));
+        }
+    }
+
+    @Test
+    void truncatedLastLineIsIgnored() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        DataItem other = new DataItem("ITEM_2", 0.001);
+        GenerationJob job = newJob(item);
+        Path file = createFile(item);
+        Path otherFile = createFile(other);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            manifest.completed(item, job);
+        }
+        // Crash while the line of ITEM_2 was written: its name is truncated to ITEM
+        Files.write(mDirectory.resolve(Manifest.FILE_NAME), ("C\t500\t" + job.getContentMode() + "\t0\tITEM")
+                .getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+            manifest.completed(other, job);
+        }
+
+        // The line appended after the truncated one is read on its own line
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+            assertTrue(manifest.isComplete(other, job, otherFile));
+        }
+    }
+
+    @Test
+    void missingPerFileChecksumIsNotComplete() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        job.setChecksums(EnumSet.of(ChecksumAlgorithm.MD5));
+        job.setChecksumOutput(ChecksumOutput.PER_FILE);
+        Path file = createFile(item);
+        Path checksum = Files.write(mDirectory.resolve("ITEM.md5"), new byte[1]);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            manifest.completed(item, job);
+        }
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+            Files.delete(checksum);
+            assertFalse(manifest.isComplete(item, job, file));
+
+            // The checksums of the previous run are in the sidecar files
+            job.setChecksumOutput(ChecksumOutput.SIDECAR);
+            assertTrue(manifest.isComplete(item, job, file));
+        }
+    }
+
+    @Test
+    void itemOfAnotherMaterializerIsNotComplete() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        job.setContentMode(ContentMode.SPARSE);
+        Path file = createFile(item);
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            manifest.completed(item, job);
+        }
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+            assertEquals(0, manifest.recordedBytes(item, file));
+
+            // The holes of the sparse file would not be allocated
+            job.setMaterializer(StandardMaterializer.ZERO_FILL);
+            assertFalse(manifest.isComplete(item, job, file));
+
+            job.setMaterializer(null);
+            item.setMaterializer("unknown");
+            assertFalse(manifest.isComplete(item, job, file));
+        }
+    }
+
+    @Test
+    void v1LineIsWrittenByDefaultMaterializer() throws IOException {
+        DataItem item = new DataItem("ITEM", 0.001);
+        GenerationJob job = newJob(item);
+        Path file = createFile(item);
+        Files.write(mDirectory.resolve(Manifest.FILE_NAME), ("# DataGenerator manifest v1\nC\t"
+                + item.getSizeInBytes() + "\t" + job.getContentMode() + "\t0\t-\tITEM\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        try (Manifest manifest = Manifest.open(mDirectory)) {
+            assertTrue(manifest.isComplete(item, job, file));
+            job.setMemoryMapped(true);
+            assertFalse(manifest.isComplete(item, job, file));
+        }
+    }
+
+    private GenerationJob newJob(DataItem item) {
+        GenerationJob job = new GenerationJob(mDirectory, Collections.singletonList(item));
+        // The content of the sparse Data Items does not depend on the seed
+        job.setContentMode(ContentMode.RANDOM);
+        return job;
+    }
+
+    private Path createFile(DataItem item) throws IOException {
+        return Files.write(mDirectory.resolve(item.getItemName()), new byte[(int) item.getSizeInBytes()]);
+    }
+}
@@ -0,0 +1,134 @@
+package com.tools.dataGenerator.packaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelGzipOutputStreamTest {
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final int HEADER_LENGTH = 10;
+
+    @Test
+    void membersReadBackAsOneGzipFile() throws IOException {
+        byte[] data = sampleData(10 * BLOCK_SIZE + 123);
+        byte[] compressed = compress(data, 3);
+
+        assertArrayEquals(data, gunzip(compressed));
+    }
+
+    @Test
+    void eachBlockIsAnIndependentMember() throws IOException, DataFormatException {
+        byte[] data = sampleData(10 * BLOCK_SIZE + 123);
+        byte[] compressed = compress(data, 3);
+
+        // Inflate member by member, checking the CRC-32 and the size of every trailer against the block
+        int offset = 0;
+        int members = 0;
+        Inflater inflater = new Inflater(true);
+        while (offset < compressed.length) {
+            assertEquals(0x1f, compressed[offset] & 0xff);
+            assertEquals(0x8b, compressed[offset + 1] & 0xff);
+            int blockStart = members * BLOCK_SIZE;
+            int blockLength = Math.min(BLOCK_SIZE, data.length - blockStart);
+
+            inflater.reset();
+            inflater.setInput(compressed, offset + HEADER_LENGTH, compressed.length - offset - HEADER_LENGTH);
+            byte[] block = new byte[BLOCK_SIZE + 1];
+            int length = 0;
+            while (!inflater.finished()) {
+                length += inflater.inflate(block, length, block.length - length);
+            }
+            assertArrayEquals(Arrays.copyOfRange(data, blockStart, blockStart + blockLength),
+                    Arrays.copyOf(block, length));
+
+            int trailer = compressed.length - inflater.getRemaining();
+            CRC32 crc = new CRC32();
+            crc.update(data, blockStart, blockLength);
+            assertEquals((int) crc.getValue(), readIntLE(compressed, trailer));
+            assertEquals(blockLength, readIntLE(compressed, trailer + 4));
+            offset = trailer + 8;
+            members++;
+        }
+        inflater.end();
+        assertEquals((data.length + BLOCK_SIZE - 1) / BLOCK_SIZE, members);
+    }
+
+    @Test
+    void flushEndsTheCurrentMember() throws IOException {
+        byte[] data = sampleData(BLOCK_SIZE / 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 2, BLOCK_SIZE, 2,
+                Deflater.DEFAULT_COMPRESSION)) {
+            gzip.write(data);
+            gzip.flush();
+            assertTrue(out.size() > 0);
+            gzip.write(data);
+        }
+
+        byte[] expected = Arrays.copyOf(data, 2 * data.length);
+        System.arraycopy(data, 0, expected, data.length, data.length);
+        assertArrayEquals(expected, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void emptyStreamIsAValidGzipFile() throws IOException {
+        assertArrayEquals(new byte[0], gunzip(compress(new byte[0], 1)));
+    }
+
+    /**
+     * @return half random, half repeated bytes, so that both stored and compressed deflate blocks are produced
+     */
+    private static byte[] sampleData(int length) {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        for (int i = length / 2; i < length; i++) {
+            data[i] = (byte) (i % 13);
+        }
+        return data;
+    }
+
+    private static byte[] compress(byte[] data, int threads) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // Two blocks only, so that the blocks are recycled while the stream is written
+        try (ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, threads, BLOCK_SIZE, 2,
+                Deflater.DEFAULT_COMPRESSION)) {
+            // Odd-sized writes, so that writes straddle the blocks
+            for (int offset = 0; offset < data.length; offset += 1000) {
+                gzip.write(data, offset, Math.min(1000, data.length - offset));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static int readIntLE(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xff) | (buffer[offset + 1] & 0xff) << 8 | (buffer[offset + 2] & 0xff) << 16
+                | (buffer[offset + 3] & 0xff) << 24;
+    }
+}